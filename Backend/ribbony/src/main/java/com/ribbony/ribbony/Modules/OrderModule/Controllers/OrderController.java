@@ -1,9 +1,14 @@
 package com.ribbony.ribbony.Modules.OrderModule.Controllers;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map; // Added Import
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,27 +16,53 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import com.ribbony.ribbony.Modules.OrderModule.Services.OrderArchiveService;
+import com.ribbony.ribbony.Modules.OrderModule.Services.OrderIdempotencyService;
 import com.ribbony.ribbony.Modules.OrderModule.Services.OrderService;
+import com.ribbony.ribbony.Modules.OrderModule.events.OrderOutboxDispatcher;
+import com.ribbony.ribbony.Modules.OrderModule.dto.BulkOrderStatusResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.BulkUpdateOrderStatusRequest;
 import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderPageResponse;
 import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OutboxMetricsResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderSummaryResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeQueryRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeStatsResponse;
 import com.ribbony.ribbony.Modules.OrderModule.dto.UpdateOrderStatusRequest;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Util.ETagUtils;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
+    // per-user data: only the browser may keep it, and it must revalidate before each use
+    private static final CacheControl ORDER_DETAILS_CACHE = CacheControl.noCache().cachePrivate();
+
     @Autowired
     private OrderService orderServiceObj;
 
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyServiceObj;
+
+    @Autowired
+    private OrderOutboxDispatcher orderOutboxDispatcherObj;
+
+    @Autowired
+    private OrderArchiveService orderArchiveServiceObj;
+
     @PreAuthorize("hasAnyRole('ADMIN','USER')")
     @PostMapping("/create")
     public ResponseEntity<OrderResponse> createOrder(
             @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal UserDetails userDetails) {
 
-        OrderResponse created = orderServiceObj.createOrder(request, userDetails);
+        // retries carrying the same Idempotency-Key replay the first response instead of creating another order
+        OrderResponse created = orderIdempotencyServiceObj.createOrder(idempotencyKey, request, userDetails);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
@@ -44,21 +75,91 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    @PreAuthorize("hasAnyRole('USER')")
+    @GetMapping("/getUserOrderSummaries")
+    public ResponseEntity<List<OrderSummaryResponse>> getUserOrderSummaries(
+            @AuthenticationPrincipal UserDetails userDetails) {
+
+        return ResponseEntity.ok(orderServiceObj.getOrderSummariesForUser(userDetails));
+    }
+
     @GetMapping("/getOrderDetails/{id}")
     @PreAuthorize("hasAnyRole('USER')")
     public ResponseEntity<OrderResponse> getOrderDetails(
             @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @AuthenticationPrincipal UserDetails userDetails) {
 
+        // the tag is read first: if the order or a product changes in between, the tag is older than the body
+        // and the next request simply downloads it again
+        String etag = orderServiceObj.findOrderETagForUser(id, userDetails).orElse(null);
+        if (ETagUtils.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(ORDER_DETAILS_CACHE).build();
+        }
+
         OrderResponse response = orderServiceObj.getOrderForUserById(id, userDetails);
-        return ResponseEntity.ok(response);
+        ResponseEntity.BodyBuilder resp = ResponseEntity.ok().cacheControl(ORDER_DETAILS_CACHE);
+        if (etag != null) resp.eTag(etag);
+        return resp.body(response);
     }
 
+    // unfiltered admin listing, one keyset page at a time; follow nextCursor for the rest (same paging as /admin/list).
+    // hot orders only, like /admin/list: archived orders are reachable by id (/getOrderDetailsByID) or through /export
     @GetMapping("/getAllOrders")
     @PreAuthorize("hasAnyRole('ADMIN')")
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
-        List<OrderResponse> all = orderServiceObj.getAllOrders();
-        return ResponseEntity.ok(all);
+    public ResponseEntity<OrderPageResponse> getAllOrders(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+
+        return ResponseEntity.ok(orderServiceObj.listOrders(null, null, null, null, null, cursor, limit));
+    }
+
+    // filtered keyset listing over the hot orders table only; orders moved out by the archiver do not appear here.
+    // use /getOrderDetailsByID for a single archived order and /export for the full history
+    @GetMapping("/admin/list")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<OrderPageResponse> listOrders(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "userId", required = false) Integer userId,
+            @RequestParam(value = "productId", required = false) Integer productId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+
+        return ResponseEntity.ok(orderServiceObj.listOrders(status, userId, productId, from, to, cursor, limit));
+    }
+
+    // NDJSON dump of every order with its items, archived ones included; pass the last id received as afterId to resume a dropped download
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public void exportOrders(
+            @RequestParam(value = "afterId", defaultValue = "0") int afterId,
+            HttpServletResponse response) throws IOException {
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        orderServiceObj.exportOrders(afterId, response.getOutputStream());
+    }
+
+    @PostMapping("/admin/summaries/rebuild")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<?> rebuildOrderSummaries() {
+        int rebuilt = orderServiceObj.rebuildOrderSummaries();
+        return ResponseEntity.ok(Map.of("message", "Order summaries rebuilt", "count", rebuilt));
+    }
+
+    @PostMapping("/admin/archive")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<?> archiveClosedOrders() {
+        int archived = orderArchiveServiceObj.archiveClosedOrders();
+        return ResponseEntity.ok(Map.of("message", "Closed orders archived", "count", archived));
+    }
+
+    @GetMapping("/admin/outbox/metrics")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<OutboxMetricsResponse> getOutboxMetrics() {
+        return ResponseEntity.ok(orderOutboxDispatcherObj.getMetrics());
     }
 
     @GetMapping("/getOrderDetailsByID/{id}")
@@ -81,6 +182,24 @@ public class OrderController {
         return ResponseEntity.ok(updated);
     }
 
+    @PutMapping("/admin/bulkUpdateStatus")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<BulkOrderStatusResponse> bulkUpdateStatus(
+            @Valid @RequestBody BulkUpdateOrderStatusRequest request,
+            @AuthenticationPrincipal UserDetails adminUser) {
+
+        return ResponseEntity.ok(orderServiceObj.updateOrderStatusBulk(request, adminUser));
+    }
+
+    // item counts by payload attributes, e.g. {"match": {"colour": "red", "width": "5cm"}, "statuses": ["PENDING"]}
+    @PostMapping("/admin/items/payloadStats")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<PayloadAttributeStatsResponse> getPayloadAttributeStats(
+            @Valid @RequestBody PayloadAttributeQueryRequest request) {
+
+        return ResponseEntity.ok(orderServiceObj.getPayloadAttributeStats(request));
+    }
+
     @PutMapping("/cancel")
     @PreAuthorize("hasAnyRole('USER')")
     public ResponseEntity<?> cancelOrderByUser(
@@ -0,0 +1,7 @@
+package com.ribbony.ribbony.Modules.OrderModule.Models;
+
+public enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_STATUS_CHANGED,
+    ORDER_CANCELLED
+}
@@ -0,0 +1,40 @@
+package com.ribbony.ribbony.Modules.OrderModule.Models;
+
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Base.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.*;
+
+/**
+ * Remembers the response of an order created with an Idempotency-Key header,
+ * so retries of the same (user, key) replay it instead of creating another order.
+ */
+@Entity
+@Table(name = "order_idempotency_keys", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_order_idempotency_user_key", columnNames = { "user_email", "idempotency_key" })
+})
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderIdempotencyKeyModel extends BaseEntity {
+
+    @Column(name = "user_email", nullable = false, length = 100)
+    private String userEmail;
+
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    // SHA-256 of the canonical request body; a retry with the same key must send the same body
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    // the original OrderResponse as JSON
+    @Column(name = "response_json", nullable = false, columnDefinition = "text")
+    private String responseJson;
+}
@@ -1,5 +1,4 @@
 package com.ribbony.ribbony.Modules.OrderModule.Models;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
 
 import java.math.BigDecimal;
@@ -9,6 +8,8 @@ import org.hibernate.type.SqlTypes;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -17,7 +18,10 @@ import jakarta.validation.constraints.Positive;
 import lombok.*;
 
 @Entity
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_order_id", columnList = "order_id"),
+        @Index(name = "idx_order_items_product_order", columnList = "product_id, order_id")
+})
 @Getter@Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,11 +32,11 @@ public class OrderItemModel extends com.ribbony.ribbony.Modules.SharedInfrastruc
     @Column(name = "price_at_time", nullable = false, precision = 10, scale = 2)
     private BigDecimal priceAtTime;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private OrderModel order;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private ProductModel product;
     
@@ -41,8 +45,13 @@ public class OrderItemModel extends com.ribbony.ribbony.Modules.SharedInfrastruc
     @Column(name = "quantity", nullable = false)
     private int quantity;
 
+    // the product's category when the line was sold, so sales reports keep it after a product is recategorized
+    @Column(name = "category", length = 100)
+    private String category;
+
+    // raw JSON text, passed through to responses as-is; list reads leave the column out entirely
     @Column(name ="payload" , columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
-    private JsonNode payload;
+    private String payload;
 
 }
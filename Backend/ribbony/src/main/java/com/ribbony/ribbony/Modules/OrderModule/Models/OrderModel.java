@@ -4,11 +4,16 @@ import com.ribbony.ribbony.Modules.UserModule.Models.UserModel;
 
 import java.math.BigDecimal;
 
+import org.hibernate.annotations.BatchSize;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.persistence.JoinColumn;
@@ -16,7 +21,12 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import lombok.*;
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+        // equality on status / user_id, then range and keyset order on (created_at, id) from the same index
+        @Index(name = "idx_orders_status_created_at", columnList = "status, created_at, id"),
+        @Index(name = "idx_orders_user_created_at", columnList = "user_id, created_at, id")
+})
 @Getter@Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,10 +37,12 @@ public class OrderModel extends BaseEntity{
     @Enumerated(EnumType.STRING)
     private OrderStatus OrderStatus; 
 
+    // collections not covered by an entity graph are initialized in batches instead of one select per order
     @OneToMany(mappedBy = "order")
+    @BatchSize(size = 100)
     private java.util.List<OrderItemModel> orderItems;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private UserModel user;
 
@@ -38,5 +50,10 @@ public class OrderModel extends BaseEntity{
     @Positive
     @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
+
+    // optimistic lock for entity writes; the bulk status UPDATE bumps it explicitly
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
    
 }
@@ -0,0 +1,58 @@
+package com.ribbony.ribbony.Modules.OrderModule.Models;
+
+import java.time.LocalDateTime;
+
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Base.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * Order event written in the same transaction as the order change it describes.
+ * OrderOutboxDispatcher publishes PENDING rows whose next_attempt_at has passed to the configured sinks;
+ * failed attempts push next_attempt_at out with a backoff, and a row that keeps failing is parked as DEAD.
+ */
+@Entity
+@Table(name = "order_outbox_events", indexes = {
+        @Index(name = "idx_order_outbox_status_id", columnList = "status, id"),
+        // earlier undelivered events of the same order hold later ones back
+        @Index(name = "idx_order_outbox_order_id", columnList = "order_id, id")
+})
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderOutboxEventModel extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 40)
+    private OrderEventType eventType;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    // event body as JSON
+    @Column(name = "payload", nullable = false, columnDefinition = "text")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, columnDefinition = "varchar(20) default 'PENDING'")
+    private OrderOutboxStatus status = OrderOutboxStatus.PENDING;
+
+    // not claimable before this; also serves as the lease while a dispatcher is publishing the row
+    @Column(name = "next_attempt_at", nullable = false, columnDefinition = "timestamp(6) default now()")
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(name = "dispatched_at")
+    private LocalDateTime dispatchedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -0,0 +1,9 @@
+package com.ribbony.ribbony.Modules.OrderModule.Models;
+
+public enum OrderOutboxStatus {
+    // waiting for (another) publish attempt once next_attempt_at has passed
+    PENDING,
+    DISPATCHED,
+    // gave up after orders.outbox.max-attempts; parked for an operator, no longer retried
+    DEAD
+}
@@ -1,8 +1,31 @@
 package com.ribbony.ribbony.Modules.OrderModule.Models;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     PENDING,
     WORK_IN_PROGRESS,
     SHIPPED,
-    CANCELED
+    CANCELED;
+
+    // target status -> statuses an order may currently be in to move there (used in the UPDATE's WHERE clause).
+    // No status lists itself: a same-status update would bump the version and emit a change event for nothing.
+    // A cancelled order cannot ship; it has to be reopened (WORK_IN_PROGRESS) first. A shipped order cannot be
+    // cancelled, whether by a status update or by the admin cancel endpoint.
+    private static final Map<OrderStatus, Set<OrderStatus>> ALLOWED_FROM = new EnumMap<>(OrderStatus.class);
+
+    static {
+        ALLOWED_FROM.put(PENDING, EnumSet.of(WORK_IN_PROGRESS));
+        ALLOWED_FROM.put(WORK_IN_PROGRESS, EnumSet.of(PENDING, SHIPPED, CANCELED));
+        ALLOWED_FROM.put(SHIPPED, EnumSet.of(PENDING, WORK_IN_PROGRESS));
+        ALLOWED_FROM.put(CANCELED, EnumSet.of(PENDING, WORK_IN_PROGRESS));
+    }
+
+    public Set<OrderStatus> allowedPredecessors() {
+        return Collections.unmodifiableSet(ALLOWED_FROM.get(this));
+    }
 }
@@ -0,0 +1,81 @@
+package com.ribbony.ribbony.Modules.OrderModule.Models;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.*;
+
+/**
+ * Read-side projection of an order for the "My orders" listing.
+ * One row per order, written by OrderService in the same transaction as the order itself.
+ */
+@Entity
+@Table(name = "order_summaries", indexes = {
+        @Index(name = "idx_order_summaries_user_created", columnList = "user_id, created_at")
+})
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryModel implements Persistable<Integer> {
+
+    @Id
+    @Column(name = "order_id")
+    private Integer orderId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "total_price", nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    // number of order lines
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
+    @Column(name = "first_product_name", length = 100)
+    private String firstProductName;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // the id is the order id (assigned, not generated), so tell Spring Data to persist instead of merge
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newSummary = true;
+
+    @Override
+    public Integer getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newSummary;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newSummary = false;
+    }
+}
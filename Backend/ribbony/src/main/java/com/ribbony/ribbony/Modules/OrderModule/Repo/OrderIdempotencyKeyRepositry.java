@@ -0,0 +1,26 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderIdempotencyKeyModel;
+
+public interface OrderIdempotencyKeyRepositry extends JpaRepository<OrderIdempotencyKeyModel, Integer> {
+
+    Optional<OrderIdempotencyKeyModel> findByUserEmailAndIdempotencyKey(String userEmail, String idempotencyKey);
+
+    @Modifying
+    @Query("delete from OrderIdempotencyKeyModel k where k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    // frees one expired key for reuse without waiting for the purge
+    @Modifying
+    @Query("delete from OrderIdempotencyKeyModel k where k.userEmail = :email and k.idempotencyKey = :key "
+            + "and k.createdAt < :cutoff")
+    int deleteExpiredKey(@Param("email") String email, @Param("key") String key, @Param("cutoff") LocalDateTime cutoff);
+}
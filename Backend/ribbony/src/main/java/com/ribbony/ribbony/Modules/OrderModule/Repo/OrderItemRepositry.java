@@ -1,6 +1,19 @@
 package com.ribbony.ribbony.Modules.OrderModule.Repo;
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import com.ribbony.ribbony.Modules.OrderModule.Models.OrderItemModel;
-public interface OrderItemRepositry extends JpaRepository<OrderItemModel, Integer> {
-    
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemListRow;
+public interface OrderItemRepositry extends JpaRepository<OrderItemModel, Integer>, OrderItemRepositryCustom {
+
+    // items of many orders for list views, without the payload column
+    @Query("select new com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemListRow("
+            + "i.order.id, i.id, p.id, p.productName, i.priceAtTime, i.quantity) "
+            + "from OrderItemModel i join i.product p "
+            + "where i.order.id in :orderIds order by i.order.id, i.id")
+    List<OrderItemListRow> findListRowsByOrderIdIn(@Param("orderIds") Collection<Integer> orderIds);
 }
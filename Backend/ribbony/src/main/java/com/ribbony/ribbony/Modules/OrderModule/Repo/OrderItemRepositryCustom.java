@@ -0,0 +1,23 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderItemModel;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemListRow;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeGroup;
+
+public interface OrderItemRepositryCustom {
+
+    // inserts all items in a single JDBC batch and writes the generated ids back onto the models
+    void batchInsert(List<OrderItemModel> items);
+
+    // list rows of many orders, hot or archived (order_items_all), in one statement; ordered by order id, item id
+    List<OrderItemListRow> findListRowsIncludingArchived(Collection<Integer> orderIds);
+
+    // counts items whose payload contains matchJson (jsonb @>), on orders in one of statuses (all when empty),
+    // grouped by the given top-level payload keys; largest groups first, at most limit groups
+    List<PayloadAttributeGroup> aggregateByPayload(String matchJson, Collection<OrderStatus> statuses,
+            List<String> groupBy, int limit);
+}
@@ -0,0 +1,148 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderItemModel;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemListRow;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeGroup;
+
+public class OrderItemRepositryCustomImpl implements OrderItemRepositryCustom {
+
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO order_items (order_id, product_id, price_at_time, quantity, payload, category, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, CAST(? AS jsonb), COALESCE(?, 'UNCATEGORIZED'), ?, ?)";
+
+    private static final String LIST_ROWS_ALL_SQL =
+            "SELECT i.order_id, i.id, i.product_id, p.product_name, i.price_at_time, i.quantity "
+                    + "FROM order_items_all i JOIN product p ON p.id = i.product_id "
+                    + "WHERE i.order_id IN (:orderIds) ORDER BY i.order_id, i.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Override
+    public void batchInsert(List<OrderItemModel> items) {
+
+        if (items == null || items.isEmpty()) return;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_ITEM_SQL, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        OrderItemModel it = items.get(i);
+                        ps.setInt(1, it.getOrder().getId());
+                        ps.setInt(2, it.getProduct().getId());
+                        ps.setBigDecimal(3, it.getPriceAtTime());
+                        ps.setInt(4, it.getQuantity());
+                        if (it.getPayload() != null) {
+                            ps.setString(5, it.getPayload());
+                        } else {
+                            ps.setNull(5, Types.VARCHAR);
+                        }
+                        ps.setString(6, it.getCategory());
+                        ps.setTimestamp(7, now);
+                        ps.setTimestamp(8, now);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < items.size() && i < keys.size(); i++) {
+            Number id = (Number) keys.get(i).get("id");
+            OrderItemModel it = items.get(i);
+            it.setId(id.intValue());
+            it.setCreatedAt(now.toLocalDateTime());
+            it.setUpdatedAt(now.toLocalDateTime());
+        }
+    }
+
+    @Override
+    public List<OrderItemListRow> findListRowsIncludingArchived(Collection<Integer> orderIds) {
+
+        if (orderIds == null || orderIds.isEmpty()) return List.of();
+
+        return namedJdbcTemplate.query(LIST_ROWS_ALL_SQL, new MapSqlParameterSource("orderIds", orderIds),
+                (rs, rowNum) -> new OrderItemListRow(rs.getInt("order_id"), rs.getInt("id"), rs.getInt("product_id"),
+                        rs.getString("product_name"), rs.getBigDecimal("price_at_time"), rs.getInt("quantity")));
+    }
+
+    @Override
+    public List<PayloadAttributeGroup> aggregateByPayload(String matchJson, Collection<OrderStatus> statuses,
+            List<String> groupBy, int limit) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return namedJdbcTemplate.query(aggregateByPayloadSql(matchJson, statuses, groupBy, limit, params), params,
+                (rs, rowNum) -> {
+                    Map<String, String> attributes = new LinkedHashMap<>();
+                    for (int k = 0; k < groupBy.size(); k++) {
+                        attributes.put(groupBy.get(k), rs.getString("g" + k));
+                    }
+                    return new PayloadAttributeGroup(attributes, rs.getLong("item_count"), rs.getLong("order_count"),
+                            rs.getLong("units"));
+                });
+    }
+
+    // the statement aggregateByPayload runs; package-private so tests can EXPLAIN the exact statement
+    String aggregateByPayloadSql(String matchJson, Collection<OrderStatus> statuses, List<String> groupBy, int limit,
+            MapSqlParameterSource params) {
+
+        params.addValue("match", matchJson);
+        StringBuilder select = new StringBuilder("SELECT ");
+        StringBuilder grouping = new StringBuilder();
+
+        // keys are bound as parameters, grouping refers to the select list by position
+        for (int k = 0; k < groupBy.size(); k++) {
+            select.append("i.payload ->> :key").append(k).append(" AS g").append(k).append(", ");
+            grouping.append(k == 0 ? " GROUP BY " : ", ").append(k + 1);
+            params.addValue("key" + k, groupBy.get(k));
+        }
+
+        // the containment test is what idx_order_items_payload_path (jsonb_path_ops) can answer
+        StringBuilder sql = select
+                .append("COUNT(*) AS item_count, COUNT(DISTINCT i.order_id) AS order_count, ")
+                .append("COALESCE(SUM(i.quantity), 0) AS units ")
+                .append("FROM order_items i JOIN orders o ON o.id = i.order_id ")
+                .append("WHERE i.payload @> CAST(:match AS jsonb)");
+
+        if (!statuses.isEmpty()) {
+            sql.append(" AND o.status IN (:statuses)");
+            params.addValue("statuses", statuses.stream().map(OrderStatus::name).toList());
+        }
+
+        sql.append(grouping).append(" ORDER BY units DESC");
+        for (int k = 0; k < groupBy.size(); k++) {
+            sql.append(", ").append(k + 1);
+        }
+        sql.append(" LIMIT :limit");
+        params.addValue("limit", limit);
+        return sql.toString();
+    }
+}
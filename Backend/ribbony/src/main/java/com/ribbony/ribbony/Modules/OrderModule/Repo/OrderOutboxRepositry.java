@@ -0,0 +1,38 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxEventModel;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxStatus;
+
+public interface OrderOutboxRepositry extends JpaRepository<OrderOutboxEventModel, Integer>, OrderOutboxRepositryCustom {
+
+    @Modifying
+    @Query("update OrderOutboxEventModel e set e.status = com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxStatus.DISPATCHED, "
+            + "e.dispatchedAt = :dispatchedAt, e.attempts = e.attempts + 1 where e.id in :ids")
+    int markDispatched(@Param("ids") Collection<Integer> ids, @Param("dispatchedAt") LocalDateTime dispatchedAt);
+
+    // status is PENDING to retry at nextAttemptAt, or DEAD once the attempts are used up
+    @Modifying
+    @Query("update OrderOutboxEventModel e set e.attempts = e.attempts + 1, e.lastError = :error, "
+            + "e.nextAttemptAt = :nextAttemptAt, e.status = :status where e.id = :id")
+    int recordFailure(@Param("id") Integer id, @Param("error") String error,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("status") OrderOutboxStatus status);
+
+    // hands claimed but unpublished events back without counting an attempt
+    @Modifying
+    @Query("update OrderOutboxEventModel e set e.nextAttemptAt = :nextAttemptAt where e.id in :ids")
+    int release(@Param("ids") Collection<Integer> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    long countByStatus(OrderOutboxStatus status);
+
+    @Query("select min(e.createdAt) from OrderOutboxEventModel e "
+            + "where e.status = com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxStatus.PENDING")
+    LocalDateTime findOldestPendingCreatedAt();
+}
@@ -0,0 +1,17 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxEventModel;
+
+public interface OrderOutboxRepositryCustom {
+
+    // writes many events in one JDBC batch (used by set-based order updates)
+    void batchInsert(List<OrderOutboxEventModel> events);
+
+    // leases up to limit due PENDING events until leaseUntil and returns them in id order. An event is not due
+    // while an earlier PENDING event of the same order is waiting out a backoff or held by another dispatcher,
+    // so events of one order are never published out of order. Must run in a transaction; commit it before publishing.
+    List<OrderOutboxEventModel> claimDue(int limit, LocalDateTime now, LocalDateTime leaseUntil);
+}
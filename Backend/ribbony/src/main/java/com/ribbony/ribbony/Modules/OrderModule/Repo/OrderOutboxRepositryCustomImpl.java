@@ -0,0 +1,99 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderEventType;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxEventModel;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxStatus;
+
+public class OrderOutboxRepositryCustomImpl implements OrderOutboxRepositryCustom {
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO order_outbox_events "
+                    + "(event_type, order_id, payload, status, next_attempt_at, attempts, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, 'PENDING', ?, 0, ?, ?)";
+
+    // the lease UPDATE only touches rows the CTE locked; rows another dispatcher is marking right now are skipped
+    private static final String CLAIM_DUE_SQL =
+            "WITH due AS ("
+                    + "SELECT e.id FROM order_outbox_events e "
+                    + "WHERE e.status = 'PENDING' AND e.next_attempt_at <= :now "
+                    + "AND NOT EXISTS (SELECT 1 FROM order_outbox_events p WHERE p.order_id = e.order_id "
+                    + "AND p.status = 'PENDING' AND p.id < e.id AND p.next_attempt_at > :now) "
+                    + "ORDER BY e.id LIMIT :limit FOR UPDATE SKIP LOCKED) "
+                    + "UPDATE order_outbox_events e SET next_attempt_at = :leaseUntil FROM due WHERE e.id = due.id "
+                    + "RETURNING e.id, e.event_type, e.order_id, e.payload, e.attempts, e.created_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Override
+    public void batchInsert(List<OrderOutboxEventModel> events) {
+
+        if (events == null || events.isEmpty()) return;
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OrderOutboxEventModel e = events.get(i);
+                ps.setString(1, e.getEventType().name());
+                ps.setInt(2, e.getOrderId());
+                ps.setString(3, e.getPayload());
+                ps.setTimestamp(4, now);
+                ps.setTimestamp(5, now);
+                ps.setTimestamp(6, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+
+    @Override
+    public List<OrderOutboxEventModel> claimDue(int limit, LocalDateTime now, LocalDateTime leaseUntil) {
+
+        // claims are serialized: a concurrent claimer could otherwise take an order's later event while this
+        // one is still leasing the earlier one; the lock is held only for this short transaction
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext('order_outbox_claim'))", rs -> { });
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("leaseUntil", Timestamp.valueOf(leaseUntil))
+                .addValue("limit", limit);
+
+        List<OrderOutboxEventModel> claimed = namedJdbcTemplate.query(CLAIM_DUE_SQL, params, (rs, rowNum) -> {
+            OrderOutboxEventModel e = new OrderOutboxEventModel();
+            e.setId(rs.getInt("id"));
+            e.setEventType(OrderEventType.valueOf(rs.getString("event_type")));
+            e.setOrderId(rs.getInt("order_id"));
+            e.setPayload(rs.getString("payload"));
+            e.setStatus(OrderOutboxStatus.PENDING);
+            e.setNextAttemptAt(leaseUntil);
+            e.setAttempts(rs.getInt("attempts"));
+            e.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+            return e;
+        });
+
+        // RETURNING does not keep the CTE's order
+        claimed.sort(Comparator.comparingInt(OrderOutboxEventModel::getId));
+        return claimed;
+    }
+}
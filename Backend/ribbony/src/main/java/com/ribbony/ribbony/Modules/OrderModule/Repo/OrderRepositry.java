@@ -1,17 +1,42 @@
 package com.ribbony.ribbony.Modules.OrderModule.Repo;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import com.ribbony.ribbony.Modules.OrderModule.Models.OrderModel;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
 import com.ribbony.ribbony.Modules.UserModule.Models.UserModel;
-public interface OrderRepositry extends JpaRepository<OrderModel, Integer> {
-    
-    List<OrderModel> findByUser(UserModel user);
+public interface OrderRepositry extends JpaRepository<OrderModel, Integer>, OrderRepositryCustom {
 
    // OrderRepositry.java
 Optional<OrderModel> findByIdAndUser(Integer id, UserModel user);
 
+    // ---- detail reads that load an order, its items and products in one statement (no per-row lazy loads) ----
+
+    @EntityGraph(attributePaths = { "orderItems", "orderItems.product" })
+    Optional<OrderModel> findWithItemsById(Integer id);
+
+    @EntityGraph(attributePaths = { "orderItems", "orderItems.product" })
+    Optional<OrderModel> findWithItemsByIdAndUser(Integer id, UserModel user);
+
+    // ---- status transitions ----
+
+    // soft-cancel in one statement: ownership and the PENDING check are part of the WHERE clause
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE orders SET status = 'CANCELED', updated_at = :updatedAt, version = version + 1 "
+            + "WHERE id = :id AND status = 'PENDING' "
+            + "AND user_id = (SELECT u.id FROM users u WHERE u.email = :email)", nativeQuery = true)
+    int cancelPendingOrderOfUser(@Param("id") Integer id, @Param("email") String email,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("select o.OrderStatus from OrderModel o where o.id = :id")
+    Optional<OrderStatus> findStatusById(@Param("id") Integer id);
      
 }
 
@@ -0,0 +1,49 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderListFilter;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+
+public interface OrderRepositryCustom {
+
+    // keyset page over (created_at, id) newest first; afterCreatedAt/afterId are the last row of the previous page
+    List<Integer> findPageIds(OrderListFilter filter, LocalDateTime afterCreatedAt, Integer afterId, int limit);
+
+    // row estimate for the whole orders table from planner statistics, -1 when the table was never analyzed
+    long estimateOrderCount();
+
+    // exact count of matching orders, but stops counting at cap so a broad filter stays cheap
+    long countOrdersUpTo(OrderListFilter filter, long cap);
+
+    // forward-only scan of hot and archived orders with id > afterId in id order; each order is handed to the sink once all its items are read
+    void streamOrdersWithItems(int afterId, int fetchSize, Consumer<OrderResponse> sink);
+
+    // set-based status transition for one or many orders; returns the moved ids with the status each had before
+    Map<Integer, OrderStatus> transitionStatusBulk(Collection<Integer> ids, Collection<OrderStatus> allowedFrom,
+            OrderStatus status, LocalDateTime updatedAt);
+
+    // "{version}-{newest product updated_at}" of a hot order owned by the given user, for conditional GETs;
+    // a product rename changes it as well, since the order detail shows product names
+    Optional<String> findDetailVersion(Integer id, String email);
+
+    // the subset of ids that exist in orders
+    List<Integer> findExistingIds(Collection<Integer> ids);
+
+    // ---- cold archive ----
+
+    // oldest SHIPPED/CANCELED orders created before the cutoff, row-locked (SKIP LOCKED) for the current transaction
+    List<Integer> lockArchivableIds(LocalDateTime createdBefore, int limit);
+
+    // moves the orders and their items into the monthly archive partitions; returns the number of orders moved
+    int archiveOrders(Collection<Integer> ids);
+
+    // an archived order with its items, empty when the id is not in the archive
+    Optional<OrderResponse> findArchivedById(Integer id);
+}
@@ -0,0 +1,320 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderListFilter;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+
+public class OrderRepositryCustomImpl implements OrderRepositryCustom {
+
+    private static final String ARCHIVED_ORDER_SQL =
+            "SELECT o.id, o.status, o.user_id, o.total_price, o.created_at, o.updated_at, "
+                    + "i.id AS item_id, i.product_id, p.product_name, i.price_at_time, i.quantity, i.payload::text AS payload "
+                    + "FROM orders_archive o "
+                    + "LEFT JOIN order_items_archive i ON i.order_id = o.id AND i.order_created_at = o.created_at "
+                    + "LEFT JOIN product p ON p.id = i.product_id "
+                    + "WHERE o.id = ? "
+                    + "ORDER BY i.id";
+
+    // the order's version and the newest updated_at of its products, whose names the detail body embeds
+    private static final String DETAIL_VERSION_SQL =
+            "SELECT o.version, max(p.updated_at) AS products_updated_at "
+                    + "FROM orders o JOIN users u ON u.id = o.user_id "
+                    + "LEFT JOIN order_items i ON i.order_id = o.id "
+                    + "LEFT JOIN product p ON p.id = i.product_id "
+                    + "WHERE o.id = ? AND u.email = ? "
+                    + "GROUP BY o.id, o.version";
+
+    private static final String ARCHIVE_ITEMS_SQL =
+            "WITH moved AS (DELETE FROM order_items WHERE order_id = ANY(?) "
+                    + "RETURNING id, order_id, product_id, price_at_time, quantity, payload, category, created_at, updated_at) "
+                    + "INSERT INTO order_items_archive "
+                    + "(id, order_id, product_id, price_at_time, quantity, payload, category, created_at, updated_at, order_created_at) "
+                    + "SELECT m.id, m.order_id, m.product_id, m.price_at_time, m.quantity, m.payload, m.category, m.created_at, m.updated_at, o.created_at "
+                    + "FROM moved m JOIN orders o ON o.id = m.order_id";
+
+    private static final String ARCHIVE_ORDERS_SQL =
+            "WITH moved AS (DELETE FROM orders WHERE id = ANY(?) "
+                    + "RETURNING id, user_id, status, total_price, version, created_at, updated_at) "
+                    + "INSERT INTO orders_archive (id, user_id, status, total_price, version, created_at, updated_at) "
+                    + "SELECT id, user_id, status, total_price, version, created_at, updated_at FROM moved";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // through the union views, so the export also covers orders the archiver has moved out of the hot tables
+    private static final String EXPORT_SQL =
+            "SELECT o.id, o.status, o.user_id, o.total_price, o.created_at, o.updated_at, "
+                    + "i.id AS item_id, i.product_id, p.product_name, i.price_at_time, i.quantity, i.payload::text AS payload "
+                    + "FROM orders_all o "
+                    + "LEFT JOIN order_items_all i ON i.order_id = o.id "
+                    + "LEFT JOIN product p ON p.id = i.product_id "
+                    + "WHERE o.id > ? "
+                    + "ORDER BY o.id, i.id";
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Override
+    public List<Integer> findPageIds(OrderListFilter filter, LocalDateTime afterCreatedAt, Integer afterId, int limit) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return namedJdbcTemplate.queryForList(pageIdsSql(filter, afterCreatedAt, afterId, limit, params), params, Integer.class);
+    }
+
+    // the page query findPageIds runs; package-private so tests can EXPLAIN the exact statement
+    String pageIdsSql(OrderListFilter filter, LocalDateTime afterCreatedAt, Integer afterId, int limit,
+            MapSqlParameterSource params) {
+
+        StringBuilder sql = new StringBuilder("SELECT o.id FROM orders o");
+        sql.append(buildWhere(filter, params));
+
+        if (afterCreatedAt != null && afterId != null) {
+            // row-value comparison lets postgres seek straight into the (created_at, id) index
+            sql.append(" AND (o.created_at, o.id) < (:afterCreatedAt, :afterId)");
+            params.addValue("afterCreatedAt", afterCreatedAt);
+            params.addValue("afterId", afterId);
+        }
+
+        sql.append(" ORDER BY o.created_at DESC, o.id DESC LIMIT :limit");
+        params.addValue("limit", limit);
+        return sql.toString();
+    }
+
+    @Override
+    public long estimateOrderCount() {
+        Long estimate = namedJdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = 'orders'::regclass",
+                new MapSqlParameterSource(), Long.class);
+        return estimate == null ? -1 : estimate;
+    }
+
+    @Override
+    public long countOrdersUpTo(OrderListFilter filter, long cap) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = "SELECT count(*) FROM (SELECT 1 FROM orders o" + buildWhere(filter, params) + " LIMIT :cap) t";
+        params.addValue("cap", cap);
+
+        Long count = namedJdbcTemplate.queryForObject(sql, params, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private String buildWhere(OrderListFilter filter, MapSqlParameterSource params) {
+
+        StringBuilder where = new StringBuilder(" WHERE 1=1");
+        if (filter == null) return where.toString();
+
+        if (filter.getStatus() != null) {
+            where.append(" AND o.status = :status");
+            params.addValue("status", filter.getStatus().name());
+        }
+        if (filter.getUserId() != null) {
+            where.append(" AND o.user_id = :userId");
+            params.addValue("userId", filter.getUserId());
+        }
+        if (filter.getProductId() != null) {
+            // semi-join through idx_order_items_product_order, so the planner can start from the product's items
+            where.append(" AND EXISTS (SELECT 1 FROM order_items i WHERE i.product_id = :productId AND i.order_id = o.id)");
+            params.addValue("productId", filter.getProductId());
+        }
+        if (filter.getFrom() != null) {
+            where.append(" AND o.created_at >= :from");
+            params.addValue("from", filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            where.append(" AND o.created_at < :to");
+            params.addValue("to", filter.getTo());
+        }
+        return where.toString();
+    }
+
+    @Override
+    public void streamOrdersWithItems(int afterId, int fetchSize, Consumer<OrderResponse> sink) {
+
+        // postgres only uses a server-side cursor for a forward-only statement with a fetch size inside a transaction
+        namedJdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setInt(1, afterId);
+            return ps;
+        }, (ResultSetExtractor<Void>) rs -> {
+
+            // rows arrive grouped by order id; only the order currently being assembled is held in memory
+            OrderResponse current = null;
+            while (rs.next()) {
+
+                int orderId = rs.getInt("id");
+                if (current == null || current.getId() != orderId) {
+                    if (current != null) sink.accept(current);
+                    current = mapOrder(rs);
+                }
+
+                rs.getInt("item_id");
+                if (!rs.wasNull()) {
+                    current.getOrderItems().add(mapItem(rs));
+                }
+            }
+            if (current != null) sink.accept(current);
+            return null;
+        });
+    }
+
+    @Override
+    public Map<Integer, OrderStatus> transitionStatusBulk(Collection<Integer> ids, Collection<OrderStatus> allowedFrom,
+            OrderStatus status, LocalDateTime updatedAt) {
+
+        Map<Integer, OrderStatus> previous = new HashMap<>();
+        if (ids.isEmpty()) return previous;
+
+        String[] allowedNames = allowedFrom.stream().map(OrderStatus::name).toArray(String[]::new);
+
+        // ids and allowed statuses travel as two array parameters, so the statement is the same for 1 or 10k ids.
+        // the locked sub-select hands back the status each row had right before this UPDATE changed it
+        namedJdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE orders o SET status = ?, updated_at = ?, version = o.version + 1 "
+                            + "FROM (SELECT id, status FROM orders WHERE id = ANY(?) AND status = ANY(?) FOR UPDATE) prev "
+                            + "WHERE o.id = prev.id RETURNING o.id, prev.status");
+            ps.setString(1, status.name());
+            ps.setObject(2, updatedAt);
+            ps.setArray(3, con.createArrayOf("integer", ids.toArray()));
+            ps.setArray(4, con.createArrayOf("varchar", allowedNames));
+            return ps;
+        }, (RowCallbackHandler) rs -> previous.put(rs.getInt(1), OrderStatus.valueOf(rs.getString(2))));
+        return previous;
+    }
+
+    @Override
+    public List<Integer> findExistingIds(Collection<Integer> ids) {
+
+        if (ids.isEmpty()) return new ArrayList<>();
+
+        return namedJdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT id FROM orders WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("integer", ids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getInt(1));
+    }
+
+    @Override
+    public List<Integer> lockArchivableIds(LocalDateTime createdBefore, int limit) {
+
+        // served by idx_orders_status_created_at; SKIP LOCKED leaves orders that are being edited for a later run
+        return namedJdbcTemplate.queryForList(
+                "SELECT o.id FROM orders o "
+                        + "WHERE o.status IN ('SHIPPED', 'CANCELED') AND o.created_at < :createdBefore "
+                        + "ORDER BY o.created_at, o.id LIMIT :limit FOR UPDATE SKIP LOCKED",
+                new MapSqlParameterSource("createdBefore", createdBefore).addValue("limit", limit),
+                Integer.class);
+    }
+
+    @Override
+    public int archiveOrders(Collection<Integer> ids) {
+
+        if (ids.isEmpty()) return 0;
+
+        JdbcTemplate jdbc = namedJdbcTemplate.getJdbcTemplate();
+        Integer[] idArray = ids.toArray(new Integer[0]);
+
+        List<LocalDate> months = jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT DISTINCT CAST(date_trunc('month', created_at) AS date) FROM orders WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("integer", idArray));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, LocalDate.class));
+
+        // two archivers may need the same new month; serialize the DDL instead of racing on the catalog
+        jdbc.query("SELECT pg_advisory_xact_lock(hashtext('orders_archive_partitions'))", rs -> { });
+        for (LocalDate month : months) {
+            String suffix = month.format(PARTITION_SUFFIX);
+            String range = " FOR VALUES FROM ('" + month + "') TO ('" + month.plusMonths(1) + "')";
+            jdbc.execute("CREATE TABLE IF NOT EXISTS orders_archive_" + suffix + " PARTITION OF orders_archive" + range);
+            jdbc.execute("CREATE TABLE IF NOT EXISTS order_items_archive_" + suffix + " PARTITION OF order_items_archive" + range);
+        }
+
+        // items first: their archive rows take the partition key from the order row that is still in place
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(ARCHIVE_ITEMS_SQL);
+            ps.setArray(1, con.createArrayOf("integer", idArray));
+            return ps;
+        });
+        return jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(ARCHIVE_ORDERS_SQL);
+            ps.setArray(1, con.createArrayOf("integer", idArray));
+            return ps;
+        });
+    }
+
+    @Override
+    public Optional<OrderResponse> findArchivedById(Integer id) {
+
+        return Optional.ofNullable(namedJdbcTemplate.getJdbcTemplate().query(ARCHIVED_ORDER_SQL, (ResultSetExtractor<OrderResponse>) rs -> {
+            OrderResponse order = null;
+            while (rs.next()) {
+                if (order == null) order = mapOrder(rs);
+                rs.getInt("item_id");
+                if (!rs.wasNull()) {
+                    order.getOrderItems().add(mapItem(rs));
+                }
+            }
+            return order;
+        }, id));
+    }
+
+    @Override
+    public Optional<String> findDetailVersion(Integer id, String email) {
+        return namedJdbcTemplate.getJdbcTemplate().query(DETAIL_VERSION_SQL, (rs, rowNum) -> {
+            LocalDateTime productsUpdatedAt = rs.getObject("products_updated_at", LocalDateTime.class);
+            // epoch microseconds: updated_at is stored with microsecond precision
+            long micros = productsUpdatedAt == null ? 0
+                    : productsUpdatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + productsUpdatedAt.getNano() / 1_000;
+            return rs.getLong("version") + "-" + Long.toHexString(micros);
+        }, id, email).stream().findFirst();
+    }
+
+    private OrderResponse mapOrder(ResultSet rs) throws SQLException {
+        OrderResponse resp = new OrderResponse();
+        resp.setId(rs.getInt("id"));
+        resp.setStatus(rs.getString("status"));
+        resp.setUserId(rs.getInt("user_id"));
+        resp.setTotalAmount(rs.getBigDecimal("total_price"));
+        resp.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        resp.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        resp.setOrderItems(new ArrayList<>());
+        return resp;
+    }
+
+    private OrderItemResponse mapItem(ResultSet rs) throws SQLException {
+        OrderItemResponse ir = new OrderItemResponse();
+        ir.setId(rs.getInt("item_id"));
+        ir.setProductId(rs.getInt("product_id"));
+        ir.setProductName(rs.getString("product_name"));
+        ir.setPriceAtTime(rs.getBigDecimal("price_at_time"));
+        ir.setQuantity(rs.getInt("quantity"));
+        // jsonb text goes straight to the response, no Jackson tree in between
+        ir.setPayload(rs.getString("payload"));
+        return ir;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderSummaryModel;
+
+public interface OrderSummaryRepositry extends JpaRepository<OrderSummaryModel, Integer> {
+
+    // resolves the user by email inside the same statement, served by idx_order_summaries_user_created
+    @Query("select s from OrderSummaryModel s "
+            + "where s.userId = (select u.id from UserModel u where u.userEmail = :email) "
+            + "order by s.createdAt desc, s.orderId desc")
+    List<OrderSummaryModel> findForUserEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("update OrderSummaryModel s set s.status = :status, s.updatedAt = :updatedAt where s.orderId = :orderId")
+    int updateStatus(@Param("orderId") Integer orderId, @Param("status") OrderStatus status,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("update OrderSummaryModel s set s.status = :status, s.updatedAt = :updatedAt where s.orderId in :orderIds")
+    int updateStatusForOrders(@Param("orderIds") Collection<Integer> orderIds, @Param("status") OrderStatus status,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // ---- rebuild from the base tables ----
+    // reads hot and archived orders alike (orders_all / order_items_all): summaries outlive archiving
+
+    @Modifying
+    @Query(value = "DELETE FROM order_summaries", nativeQuery = true)
+    int deleteAllSummaries();
+
+    @Modifying
+    @Query(value = "INSERT INTO order_summaries "
+            + "(order_id, user_id, status, total_price, item_count, first_product_name, created_at, updated_at) "
+            + "SELECT o.id, o.user_id, o.status, o.total_price, "
+            + "(SELECT count(*) FROM order_items_all i WHERE i.order_id = o.id), "
+            + "(SELECT p.product_name FROM order_items_all i JOIN product p ON p.id = i.product_id "
+            + " WHERE i.order_id = o.id ORDER BY i.id LIMIT 1), "
+            + "o.created_at, o.updated_at "
+            + "FROM orders_all o", nativeQuery = true)
+    int insertAllSummariesFromOrders();
+}
@@ -0,0 +1,77 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderRepositry;
+
+/**
+ * Moves closed (SHIPPED / CANCELED) orders older than orders.archive.after-months out of the hot
+ * orders / order_items tables into the monthly archive partitions. Each batch is its own transaction,
+ * so a long backlog never holds locks for the whole run. Reads by id fall through to the archive.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiveService.class);
+
+    @Value("${orders.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${orders.archive.after-months:12}")
+    private int afterMonths;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    // upper bound per run so a first archive of a large backlog is spread over several nights
+    @Value("${orders.archive.max-batches:200}")
+    private int maxBatches;
+
+    @Autowired
+    private OrderRepositry orderRepositryObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Scheduled(cron = "${orders.archive.cron:0 45 2 * * *}")
+    public void archiveScheduled() {
+        if (!enabled) return;
+
+        try {
+            archiveClosedOrders();
+        } catch (RuntimeException ex) {
+            log.error("Order archive run failed", ex);
+        }
+    }
+
+    public int archiveClosedOrders() {
+
+        LocalDateTime cutoff = LocalDateTime.now().minusMonths(afterMonths);
+        int total = 0;
+
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Integer> ids = orderRepositryObj.lockArchivableIds(cutoff, batchSize);
+                return orderRepositryObj.archiveOrders(ids);
+            });
+
+            int count = moved == null ? 0 : moved;
+            total += count;
+            if (count < batchSize) break;
+        }
+
+        if (total > 0) {
+            log.info("Archived {} closed orders created before {}", total, cutoff);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,256 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderIdempotencyKeyModel;
+import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderIdempotencyKeyRepositry;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.ApiException;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.UnprocessableEntityException;
+
+/**
+ * Deduplicates POST /orders/create retries that carry an Idempotency-Key header.
+ * Recent responses live in a bounded in-memory map with a TTL, every response is also stored in
+ * order_idempotency_keys (same transaction as the order) so replays survive restarts, and concurrent
+ * duplicates wait for the first request instead of writing again.
+ *
+ * A key is bound to the body it was first used with (SHA-256 of the request as JSON with every object's
+ * fields sorted); reusing it with a different body is rejected with 422 instead of replaying an unrelated order.
+ */
+@Service
+public class OrderIdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIdempotencyService.class);
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Value("${orders.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${orders.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private OrderIdempotencyKeyRepositry idempotencyKeyRepositryObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // access-ordered so the least recently replayed entry is evicted first
+    private final Map<String, CachedResponse> recent = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    private final ConcurrentHashMap<String, CompletableFuture<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public OrderResponse createOrder(String idempotencyKey, CreateOrderRequest request, UserDetails userDetails) {
+
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return orderServiceObj.createOrder(request, userDetails);
+        }
+
+        String key = idempotencyKey.trim();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String email = userDetails == null ? null : userDetails.getUsername();
+        if (email == null) {
+            throw new BadRequestException("Authenticated user info missing in security context");
+        }
+
+        String cacheKey = email + '\u0000' + key;
+        String requestHash = hashOf(request);
+
+        CachedResponse cached = getCached(cacheKey);
+        if (cached != null) {
+            log.debug("Idempotent replay from memory for user={} key={}", email, key);
+            return replay(cached, requestHash, key);
+        }
+
+        CompletableFuture<CachedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<CachedResponse> existing = inFlight.putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            log.debug("Waiting for in-flight order with the same key for user={} key={}", email, key);
+            return replay(await(existing), requestHash, key);
+        }
+
+        try {
+            CachedResponse entry = findStored(email, key).orElse(null);
+            if (entry == null) {
+                entry = createAndRemember(email, key, requestHash, request, userDetails);
+            }
+            putCached(cacheKey, entry);
+            mine.complete(entry);
+            return replay(entry, requestHash, key);
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    private CachedResponse createAndRemember(String email, String key, String requestHash, CreateOrderRequest request,
+            UserDetails userDetails) {
+        try {
+            return transactionTemplate.execute(status -> {
+                // an expired row the purge has not reached yet would otherwise fail the insert below
+                idempotencyKeyRepositryObj.deleteExpiredKey(email, key, expiryCutoff());
+                OrderResponse created = orderServiceObj.createOrder(request, userDetails);
+
+                OrderIdempotencyKeyModel row = new OrderIdempotencyKeyModel();
+                row.setUserEmail(email);
+                row.setIdempotencyKey(key);
+                row.setRequestHash(requestHash);
+                row.setOrderId(created.getId());
+                row.setResponseJson(toJson(created));
+                idempotencyKeyRepositryObj.saveAndFlush(row);
+
+                return new CachedResponse(created, requestHash, expiresAt());
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // another instance stored the same key first; our order was rolled back, so replay theirs
+            return findStored(email, key).orElseThrow(() -> ex);
+        }
+    }
+
+    private Optional<CachedResponse> findStored(String email, String key) {
+        LocalDateTime cutoff = expiryCutoff();
+        return idempotencyKeyRepositryObj.findByUserEmailAndIdempotencyKey(email, key)
+                .filter(row -> row.getCreatedAt() == null || row.getCreatedAt().isAfter(cutoff))
+                .map(row -> new CachedResponse(fromJson(row.getResponseJson()), row.getRequestHash(), expiresAt()));
+    }
+
+    // keys stored before request hashes were recorded have none and replay as before
+    private static OrderResponse replay(CachedResponse entry, String requestHash, String key) {
+        if (entry.requestHash != null && !entry.requestHash.equals(requestHash)) {
+            throw new UnprocessableEntityException(
+                    "Idempotency-Key " + key + " was already used with a different request body");
+        }
+        return entry.response;
+    }
+
+    private CachedResponse await(CompletableFuture<CachedResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof ApiException apiEx) throw apiEx;
+            if (ex.getCause() instanceof RuntimeException rtEx) throw rtEx;
+            throw ex;
+        }
+    }
+
+    private synchronized CachedResponse getCached(String cacheKey) {
+        CachedResponse entry = recent.get(cacheKey);
+        if (entry == null) return null;
+        if (entry.expiresAtMillis < System.currentTimeMillis()) {
+            recent.remove(cacheKey);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void putCached(String cacheKey, CachedResponse entry) {
+        recent.put(cacheKey, entry);
+    }
+
+    private LocalDateTime expiryCutoff() {
+        return LocalDateTime.now().minusMinutes(ttlMinutes);
+    }
+
+    private long expiresAt() {
+        return System.currentTimeMillis() + ttlMinutes * 60_000L;
+    }
+
+    // field order and map key order must not change the hash, so objects are written with sorted keys
+    private String hashOf(CreateOrderRequest request) {
+        try {
+            Object tree = objectMapper.convertValue(request, Object.class);
+            byte[] canonical = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .writeValueAsString(tree).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(canonical));
+        } catch (JsonProcessingException ex) {
+            throw new BadRequestException("Order request could not be read");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    // stored keys older than the TTL can no longer be replayed
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpiredKeys() {
+        int removed = idempotencyKeyRepositryObj.deleteCreatedBefore(expiryCutoff());
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            recent.values().removeIf(e -> e.expiresAtMillis < now);
+        }
+        if (removed > 0) {
+            log.debug("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private String toJson(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize order response " + response.getId(), ex);
+        }
+    }
+
+    private OrderResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, OrderResponse.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", ex);
+        }
+    }
+
+    private static final class CachedResponse {
+        private final OrderResponse response;
+        private final String requestHash;
+        private final long expiresAtMillis;
+
+        private CachedResponse(OrderResponse response, String requestHash, long expiresAtMillis) {
+            this.response = response;
+            this.requestHash = requestHash;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderEventType;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxEventModel;
+import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderOutboxRepositry;
+
+/**
+ * Appends order events to the outbox. Must run inside the transaction of the order write,
+ * so an event exists if and only if the change it describes was committed.
+ */
+@Service
+public class OrderOutboxService {
+
+    @Autowired
+    private OrderOutboxRepositry orderOutboxRepositryObj;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OrderEventType type, Integer orderId, Object payload) {
+        orderOutboxRepositryObj.save(toEvent(type, orderId, payload));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(OrderEventType type, Collection<Integer> orderIds, Function<Integer, Object> payloadFor) {
+        List<OrderOutboxEventModel> events = new ArrayList<>(orderIds.size());
+        for (Integer orderId : orderIds) {
+            events.add(toEvent(type, orderId, payloadFor.apply(orderId)));
+        }
+        orderOutboxRepositryObj.batchInsert(events);
+    }
+
+    private OrderOutboxEventModel toEvent(OrderEventType type, Integer orderId, Object payload) {
+        OrderOutboxEventModel e = new OrderOutboxEventModel();
+        e.setEventType(type);
+        e.setOrderId(orderId);
+        try {
+            e.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize " + type + " event for order " + orderId, ex);
+        }
+        return e;
+    }
+}
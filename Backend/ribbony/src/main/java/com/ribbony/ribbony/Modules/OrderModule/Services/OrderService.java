@@ -1,38 +1,89 @@
 package com.ribbony.ribbony.Modules.OrderModule.Services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderEventType;
 import com.ribbony.ribbony.Modules.OrderModule.Models.OrderItemModel;
 import com.ribbony.ribbony.Modules.OrderModule.Models.OrderModel;
 import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderSummaryModel;
 import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderItemRepositry;
 import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderRepositry;
+import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderSummaryRepositry;
+import com.ribbony.ribbony.Modules.OrderModule.dto.BulkOrderStatusResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.BulkOrderStatusResult;
+import com.ribbony.ribbony.Modules.OrderModule.dto.BulkUpdateOrderStatusRequest;
 import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderItemRequest;
 import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemListRow;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderListFilter;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderPageResponse;
 import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderSummaryResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeGroup;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeQueryRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeStatsResponse;
 import com.ribbony.ribbony.Modules.OrderModule.dto.UpdateOrderStatusRequest;
 import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
-import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductCatalogCache;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductCatalogCache.CachedProduct;
+import com.ribbony.ribbony.Modules.ReportingModule.Services.SalesRollupService;
 import com.ribbony.ribbony.Modules.UserModule.Models.UserModel;
 import com.ribbony.ribbony.Modules.UserModule.Repo.UserRepositry;
 import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
 import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.NotFoundException;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Util.ETagUtils;
 
 @Service
 public class OrderService {
 
     private static final Logger log = LoggerFactory.getLogger(OrderService.class);
 
+    private static final int MAX_ORDER_PAGE_SIZE = 200;
+
+    // beyond this many matches the listing reports an estimate instead of counting every row
+    private static final long EXACT_COUNT_CAP = 10_000;
+
+    private static final int EXPORT_FLUSH_EVERY = 100;
+
+    private static final int MAX_PAYLOAD_GROUPS = 1000;
+
+    @Value("${orders.export.fetch-size:1000}")
+    private int exportFetchSize;
+
+    // upper bound on one item's customization payload, measured as compact UTF-8 JSON
+    @Value("${orders.items.payload.max-bytes:4096}")
+    private int maxPayloadBytes;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     OrderRepositry orderRepositryObj;
 
@@ -40,11 +91,21 @@ public class OrderService {
     OrderItemRepositry orderItemRepositryObj;
 
     @Autowired
-    ProductRepositry productRepositryObj;
+    private ProductCatalogCache productCatalogCacheObj;
 
     @Autowired
     private UserRepositry userRepositoryObj;
 
+    @Autowired
+    OrderSummaryRepositry orderSummaryRepositryObj;
+
+    @Autowired
+    private OrderOutboxService orderOutboxServiceObj;
+
+    @Autowired
+    private SalesRollupService salesRollupServiceObj;
+
+    @Transactional
     public OrderResponse createOrder(CreateOrderRequest request, UserDetails userDetails) {
 
         String email = userDetails == null ? null : userDetails.getUsername();
@@ -64,10 +125,24 @@ public class OrderService {
             throw new BadRequestException("Order must contain at least one item");
         }
 
+        // resolve every product of the order with one IN query instead of one findById per line
+        Set<Integer> productIds = new HashSet<>();
+        for (CreateOrderItemRequest itemReq : request.getOrderItems()) {
+            if (itemReq.getProductId() == null) {
+                throw new BadRequestException("productId is required for each order item");
+            }
+            productIds.add(itemReq.getProductId());
+        }
+
+        // name and price come from the product cache; only misses go to the database, in one IN query
+        Map<Integer, ProductModel> productsById = new HashMap<>();
+        for (CachedProduct p : productCatalogCacheObj.getAll(productIds).values()) {
+            productsById.put(p.getId(), p.toModel());
+        }
+
         OrderModel order = new OrderModel();
         order.setUser(user);
         order.setOrderStatus(OrderStatus.PENDING);
-        order.setOrderItems(new ArrayList<>());
 
         BigDecimal total = BigDecimal.ZERO;
         List<OrderItemModel> itemsToSave = new ArrayList<>();
@@ -75,12 +150,11 @@ public class OrderService {
         for (CreateOrderItemRequest itemReq : request.getOrderItems()) {
 
             Integer productId = itemReq.getProductId();
-            if (productId == null) {
-                throw new BadRequestException("productId is required for each order item");
-            }
 
-            ProductModel product = productRepositryObj.findById(productId)
-                    .orElseThrow(() -> new NotFoundException("Product not found: " + productId));
+            ProductModel product = productsById.get(productId);
+            if (product == null) {
+                throw new NotFoundException("Product not found: " + productId);
+            }
 
             BigDecimal priceAtTime;
             if (product.getPrice() != null) {
@@ -101,32 +175,27 @@ public class OrderService {
             itemEntity.setOrder(order);
             itemEntity.setPriceAtTime(priceAtTime);
             itemEntity.setQuantity(itemReq.getQuantity());
-            itemEntity.setPayload(itemReq.getPayload());
+            itemEntity.setCategory(product.getCategory());
+            itemEntity.setPayload(toPayloadJson(itemReq, productId));
 
             itemsToSave.add(itemEntity);
         }
 
         order.setTotalAmount(total);
-        order.setOrderItems(itemsToSave);
 
-        // Save order first (so it gets an id), then save items and re-attach
+        // Save order first (so it gets an id), then write all items in one JDBC batch
         OrderModel savedOrder = orderRepositryObj.save(order);
         log.debug("Order persisted with id = {}", savedOrder.getId());
 
-        List<OrderItemModel> persistedItems = new ArrayList<>();
-        for (OrderItemModel it : itemsToSave) {
-            it.setOrder(savedOrder);
-            OrderItemModel savedItem = orderItemRepositryObj.save(it);
-            persistedItems.add(savedItem);
-            log.debug("Saved order item id={} for productId={}", savedItem.getId(),
-                    savedItem.getProduct() != null ? savedItem.getProduct().getId() : null);
-        }
+        orderItemRepositryObj.batchInsert(itemsToSave);
+        log.debug("Finalized order {} with {} items", savedOrder.getId(), itemsToSave.size());
 
-        savedOrder.setOrderItems(persistedItems);
-        savedOrder = orderRepositryObj.save(savedOrder); // update relation
-        log.debug("Finalized order {} with {} items", savedOrder.getId(), persistedItems.size());
+        orderSummaryRepositryObj.save(toOrderSummary(savedOrder, itemsToSave));
+        salesRollupServiceObj.recordOrdersPlaced(List.of(savedOrder.getId()));
 
-        return toOrderResponse(savedOrder);
+        OrderResponse response = toOrderResponse(savedOrder, itemsToSave);
+        orderOutboxServiceObj.record(OrderEventType.ORDER_CREATED, savedOrder.getId(), response);
+        return response;
     }
 
     public List<OrderResponse> getOrdersForUser(UserDetails userDetails) {
@@ -138,21 +207,63 @@ public class OrderService {
             throw new BadRequestException("Authenticated user info missing in security context");
         }
 
-        UserModel user = userRepositoryObj.findByUserEmail(email);
-        log.debug("Resolved user from DB: {}", user == null ? "null" : ("id=" + user.getId() + ", email=" + user.getUserEmail()));
+        // "My orders" reads the summary projection (user resolved inside the query) plus the lines of all
+        // listed orders in one more statement; summaries outlive archiving, so lines come from order_items_all
+        List<OrderSummaryModel> summaries = orderSummaryRepositryObj.findForUserEmail(email);
+        List<OrderResponse> responses = new ArrayList<>(summaries.size());
+        if (summaries.isEmpty()) return responses;
+
+        Map<Integer, OrderResponse> byId = new HashMap<>();
+        for (OrderSummaryModel s : summaries) {
+            OrderResponse resp = new OrderResponse();
+            resp.setId(s.getOrderId());
+            resp.setStatus(s.getStatus() != null ? s.getStatus().name() : null);
+            resp.setUserId(s.getUserId());
+            resp.setTotalAmount(s.getTotalAmount());
+            resp.setCreatedAt(s.getCreatedAt());
+            resp.setUpdatedAt(s.getUpdatedAt());
+            resp.setOrderItems(new ArrayList<>());
+            byId.put(s.getOrderId(), resp);
+            responses.add(resp);
+        }
 
-        if (user == null) {
-            throw new NotFoundException("Authenticated user not found: " + email);
+        addListRows(byId, orderItemRepositryObj.findListRowsIncludingArchived(byId.keySet()));
+        return responses;
+    }
+
+    public List<OrderSummaryResponse> getOrderSummariesForUser(UserDetails userDetails) {
+
+        String email = userDetails == null ? null : userDetails.getUsername();
+        log.debug("getOrderSummariesForUser called. jwt-subject/email = {}", email);
+
+        if (email == null) {
+            throw new BadRequestException("Authenticated user info missing in security context");
         }
 
-        List<OrderModel> orders = orderRepositryObj.findByUser(user);
-        List<OrderResponse> responses = new ArrayList<>();
-        for (OrderModel o : orders) {
-            responses.add(toOrderResponse(o));
+        List<OrderSummaryResponse> responses = new ArrayList<>();
+        for (OrderSummaryModel s : orderSummaryRepositryObj.findForUserEmail(email)) {
+            responses.add(toOrderSummaryResponse(s));
         }
         return responses;
     }
 
+    // regenerates the order_summaries projection from every order, hot or archived
+    @Transactional
+    public int rebuildOrderSummaries() {
+        int removed = orderSummaryRepositryObj.deleteAllSummaries();
+        int inserted = orderSummaryRepositryObj.insertAllSummariesFromOrders();
+        log.info("Rebuilt order summaries: removed={} inserted={}", removed, inserted);
+        return inserted;
+    }
+
+    // ETag of the user's order from its version and its products' updated_at (the body embeds product names);
+    // empty when it is not a hot order of this user
+    public Optional<String> findOrderETagForUser(Integer orderId, UserDetails userDetails) {
+        if (userDetails == null) return Optional.empty();
+        return orderRepositryObj.findDetailVersion(orderId, userDetails.getUsername())
+                .map(version -> ETagUtils.strong("o" + orderId + "-v" + version));
+    }
+
     public OrderResponse getOrderForUserById(Integer orderId, UserDetails userDetails) {
         String email = userDetails == null ? null : userDetails.getUsername();
         log.debug("getOrderForUserById called. jwt-subject/email = {}, orderId={}", email, orderId);
@@ -166,12 +277,15 @@ public class OrderService {
             throw new NotFoundException("Authenticated user not found: " + email);
         }
 
-        OrderModel order = orderRepositryObj.findByIdAndUser(orderId, user)
+        // closed orders past the archive age are no longer in the hot tables
+        return orderRepositryObj.findWithItemsByIdAndUser(orderId, user)
+                .map(this::toOrderResponse)
+                .or(() -> orderRepositryObj.findArchivedById(orderId)
+                        .filter(archived -> Objects.equals(archived.getUserId(), user.getId())))
                 .orElseThrow(() -> new NotFoundException("Order not found or access denied: " + orderId));
-
-        return toOrderResponse(order);
     }
 
+    @Transactional
     public String cancelOrderByUser(Integer orderId, UserDetails userDetails) {
 
         String email = userDetails == null ? null : userDetails.getUsername();
@@ -181,34 +295,38 @@ public class OrderService {
             throw new BadRequestException("Authenticated user info missing in security context");
         }
 
-        UserModel user = userRepositoryObj.findByUserEmail(email);
-        if (user == null) {
-            throw new NotFoundException("Authenticated user not found: " + email);
-        }
+        // cancelled orders are kept (status CANCELED) so their history survives; items are untouched
+        LocalDateTime now = LocalDateTime.now();
+        int updated = orderRepositryObj.cancelPendingOrderOfUser(orderId, email, now);
 
-        OrderModel order = orderRepositryObj.findById(orderId)
-                .orElseThrow(() -> new NotFoundException("Order not found: " + orderId));
+        if (updated == 0) {
+            // nothing matched: work out why, only on this failure path
+            OrderModel order = orderRepositryObj.findById(orderId)
+                    .orElseThrow(() -> new NotFoundException("Order not found: " + orderId));
 
-        // safer comparison for Integer
-        if (order.getUser() == null || !Objects.equals(order.getUser().getId(), user.getId())) {
-            throw new BadRequestException("Access denied: not your order");
-        }
+            UserModel user = userRepositoryObj.findByUserEmail(email);
+            if (user == null) {
+                throw new NotFoundException("Authenticated user not found: " + email);
+            }
 
-        // only allow user to cancel when order is PENDING
-        if (order.getOrderStatus() != OrderStatus.PENDING) {
-            throw new BadRequestException("Order cannot be cancelled in its current state: " + order.getOrderStatus());
-        }
+            // safer comparison for Integer
+            if (order.getUser() == null || !Objects.equals(order.getUser().getId(), user.getId())) {
+                throw new BadRequestException("Access denied: not your order");
+            }
 
-        if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
-            orderItemRepositryObj.deleteAll(order.getOrderItems());
+            // only allow user to cancel when order is PENDING
+            throw new BadRequestException("Order cannot be cancelled in its current state: " + order.getOrderStatus());
         }
 
-        orderRepositryObj.delete(order);
+        orderSummaryRepositryObj.updateStatus(orderId, OrderStatus.CANCELED, now);
+        salesRollupServiceObj.recordOrdersCancelled(List.of(orderId));
+        orderOutboxServiceObj.record(OrderEventType.ORDER_CANCELLED, orderId, Map.of("orderId", orderId, "cancelledBy", "USER"));
 
-        log.debug("Order {} cancelled by user id={}", orderId, user.getId());
+        log.debug("Order {} cancelled by user {}", orderId, email);
         return "Order cancelled successfully";
     }
 
+    @Transactional
     public String cancelOrderByAdmin(Integer orderId, UserDetails adminUser) {
 
         if (adminUser == null || adminUser.getAuthorities() == null
@@ -216,83 +334,358 @@ public class OrderService {
             throw new BadRequestException("Access denied: admin privileges required");
         }
 
-        String email = adminUser.getUsername();
-        UserModel admin = userRepositoryObj.findByUserEmail(email);
-        if (admin == null) {
-            throw new NotFoundException("Authenticated admin not found: " + email);
+        // the same rule as a status update to CANCELED: anything that has not shipped yet
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, OrderStatus> previous = orderRepositryObj.transitionStatusBulk(List.of(orderId),
+                OrderStatus.CANCELED.allowedPredecessors(), OrderStatus.CANCELED, now);
+
+        if (previous.isEmpty()) {
+            OrderStatus current = orderRepositryObj.findStatusById(orderId)
+                    .orElseThrow(() -> new NotFoundException("Order not found: " + orderId));
+            if (current == OrderStatus.CANCELED) {
+                throw new BadRequestException("Order is already cancelled: " + orderId);
+            }
+            throw new BadRequestException("Cannot cancel an order that has already been shipped");
+        }
+
+        orderSummaryRepositryObj.updateStatus(orderId, OrderStatus.CANCELED, now);
+        salesRollupServiceObj.recordStatusChanges(previous, OrderStatus.CANCELED);
+        orderOutboxServiceObj.record(OrderEventType.ORDER_CANCELLED, orderId, Map.of("orderId", orderId, "cancelledBy", "ADMIN"));
+
+        log.debug("Order {} cancelled by admin {}", orderId, adminUser.getUsername());
+        return "Order cancelled by admin successfully";
+    }
+
+    public OrderPageResponse listOrders(String status, Integer userId, Integer productId, LocalDateTime from,
+            LocalDateTime to, String cursor, int limit) {
+
+        OrderListFilter filter = new OrderListFilter();
+        if (status != null && !status.isBlank()) {
+            try {
+                filter.setStatus(OrderStatus.valueOf(status));
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("Invalid order status: " + status);
+            }
         }
+        filter.setUserId(userId);
+        filter.setProductId(productId);
+        filter.setFrom(from);
+        filter.setTo(to);
 
-        OrderModel order = orderRepositryObj.findById(orderId)
-                .orElseThrow(() -> new NotFoundException("Order not found: " + orderId));
+        if (limit <= 0 || limit > MAX_ORDER_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_ORDER_PAGE_SIZE);
+        }
 
-        if (order.getOrderStatus() == OrderStatus.SHIPPED) {
-            throw new BadRequestException("Cannot cancel an order that has already been shipped");
+        LocalDateTime afterCreatedAt = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = decoded.lastIndexOf('|');
+                afterCreatedAt = LocalDateTime.parse(decoded.substring(0, sep));
+                afterId = Integer.valueOf(decoded.substring(sep + 1));
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
         }
 
-        if (order.getOrderItems() != null && !order.getOrderItems().isEmpty()) {
-            orderItemRepositryObj.deleteAll(order.getOrderItems());
+        // fetch one extra row to know whether another page exists
+        List<OrderModel> orders = loadOrderPage(filter, afterCreatedAt, afterId, limit + 1);
+        boolean hasMore = orders.size() > limit;
+        if (hasMore) {
+            orders = orders.subList(0, limit);
         }
 
-        orderRepositryObj.delete(order);
+        OrderPageResponse resp = new OrderPageResponse();
+        List<OrderResponse> items = toOrderListResponses(orders);
+        resp.setOrders(items);
 
-        log.debug("Order {} cancelled by admin id={}", orderId, admin.getId());
-        return "Order cancelled by admin successfully";
+        if (hasMore) {
+            OrderModel last = orders.get(orders.size() - 1);
+            String raw = last.getCreatedAt() + "|" + last.getId();
+            resp.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        // the total is only needed to render the first page
+        if (afterId == null) {
+            long estimate = filter.isEmpty() ? orderRepositryObj.estimateOrderCount() : -1;
+            if (estimate >= 0) {
+                resp.setTotalCount(estimate);
+                resp.setTotalEstimated(true);
+            } else {
+                long counted = orderRepositryObj.countOrdersUpTo(filter, EXACT_COUNT_CAP);
+                resp.setTotalCount(counted);
+                resp.setTotalEstimated(counted >= EXACT_COUNT_CAP);
+            }
+        }
+
+        log.debug("listOrders returned {} orders, hasMore={}", items.size(), hasMore);
+        return resp;
     }
 
-    public List<OrderResponse> getAllOrders() {
+    private List<OrderModel> loadOrderPage(OrderListFilter filter, LocalDateTime afterCreatedAt, Integer afterId, int limit) {
 
-        List<OrderModel> all = orderRepositryObj.findAll();
-        List<OrderResponse> res = new ArrayList<>();
+        List<Integer> ids = orderRepositryObj.findPageIds(filter, afterCreatedAt, afterId, limit);
+        if (ids.isEmpty()) return new ArrayList<>();
+
+        // the IN load does not keep the keyset order, so restore it from the id list
+        Map<Integer, OrderModel> byId = new HashMap<>();
+        for (OrderModel o : orderRepositryObj.findAllById(ids)) {
+            byId.put(o.getId(), o);
+        }
 
-        for (OrderModel o : all) {
-            res.add(toOrderResponse(o));
+        List<OrderModel> page = new ArrayList<>();
+        for (Integer id : ids) {
+            OrderModel o = byId.get(id);
+            if (o != null) page.add(o);
         }
+        return page;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOrders(int afterId, OutputStream out) {
+
+        // plain JDBC rows mapped straight to DTOs: nothing enters the persistence context, so heap stays flat
+        int[] written = { 0 };
+        orderRepositryObj.streamOrdersWithItems(afterId, exportFetchSize, order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+                if (++written[0] % EXPORT_FLUSH_EVERY == 0) {
+                    out.flush();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Order export aborted after order " + order.getId(), ex);
+            }
+        });
 
-        return res;
+        try {
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Order export aborted while flushing", ex);
+        }
+        log.debug("exportOrders wrote {} orders after id {}", written[0], afterId);
     }
 
     public OrderResponse getOrderByIdAdmin(Integer orderId) {
 
-        OrderModel order = orderRepositryObj.findById(orderId)
+        return orderRepositryObj.findWithItemsById(orderId)
+                .map(this::toOrderResponse)
+                .or(() -> orderRepositryObj.findArchivedById(orderId))
                 .orElseThrow(() -> new NotFoundException("Order not found: " + orderId));
-
-        return toOrderResponse(order);
     }
 
+    @Transactional
     public OrderResponse updateOrderStatus(Integer orderId, UpdateOrderStatusRequest dto, UserDetails adminUser) {
 
-        OrderModel order = orderRepositryObj.findById(orderId)
+        String newStatusStr = dto.getStatus();
+        OrderStatus newStatus;
+
+        try {
+            newStatus = OrderStatus.valueOf(newStatusStr);
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid order status: " + newStatusStr);
+        }
+
+        // one conditional UPDATE: the transition check lives in the WHERE clause, so concurrent admins cannot lose an update
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, OrderStatus> previous =
+                orderRepositryObj.transitionStatusBulk(List.of(orderId), newStatus.allowedPredecessors(), newStatus, now);
+
+        if (previous.isEmpty()) {
+            OrderStatus current = orderRepositryObj.findStatusById(orderId)
+                    .orElseThrow(() -> new NotFoundException("Order not found: " + orderId));
+            throw new BadRequestException("Cannot set status from " + current + " to " + newStatus);
+        }
+
+        orderSummaryRepositryObj.updateStatus(orderId, newStatus, now);
+        salesRollupServiceObj.recordStatusChanges(previous, newStatus);
+        orderOutboxServiceObj.record(OrderEventType.ORDER_STATUS_CHANGED, orderId,
+                Map.of("orderId", orderId, "status", newStatus.name()));
+
+        log.debug("Order {} status changed to {} by admin {}", orderId, newStatus, adminUser != null ? adminUser.getUsername() : "unknown");
+
+        OrderModel order = orderRepositryObj.findWithItemsById(orderId)
                 .orElseThrow(() -> new NotFoundException("Order not found: " + orderId));
+        return toOrderResponse(order);
+    }
+
+    @Transactional
+    public BulkOrderStatusResponse updateOrderStatusBulk(BulkUpdateOrderStatusRequest dto, UserDetails adminUser) {
+
+        // the controller validates the request, but the service is also called directly
+        if (dto.getOrderIds() == null || dto.getOrderIds().isEmpty()) {
+            throw new BadRequestException("orderIds must contain at least one id");
+        }
 
         String newStatusStr = dto.getStatus();
         OrderStatus newStatus;
 
         try {
             newStatus = OrderStatus.valueOf(newStatusStr);
-        } catch (IllegalArgumentException ex) {
+        } catch (IllegalArgumentException | NullPointerException ex) {
             throw new BadRequestException("Invalid order status: " + newStatusStr);
         }
 
-        OrderStatus current = order.getOrderStatus();
+        // keep request order for the per-id results, but each id is only processed once
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (Integer id : dto.getOrderIds()) {
+            if (id != null) ids.add(id);
+        }
 
-        if (current == OrderStatus.SHIPPED && newStatus == OrderStatus.PENDING) {
-            throw new BadRequestException("Cannot set status from SHIPPED back to PENDING");
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, OrderStatus> previous =
+                orderRepositryObj.transitionStatusBulk(ids, newStatus.allowedPredecessors(), newStatus, now);
+        Set<Integer> applied = previous.keySet();
+
+        Set<Integer> existing = new HashSet<>();
+        if (applied.size() < ids.size()) {
+            List<Integer> remaining = new ArrayList<>();
+            for (Integer id : ids) {
+                if (!applied.contains(id)) remaining.add(id);
+            }
+            existing.addAll(orderRepositryObj.findExistingIds(remaining));
         }
-        if (current == OrderStatus.CANCELED && newStatus == OrderStatus.PENDING) {
-            throw new BadRequestException("Cannot set status from CANCELLED back to PENDING");
+
+        if (!applied.isEmpty()) {
+            orderSummaryRepositryObj.updateStatusForOrders(applied, newStatus, now);
+            salesRollupServiceObj.recordStatusChanges(previous, newStatus);
+            orderOutboxServiceObj.recordAll(OrderEventType.ORDER_STATUS_CHANGED, applied,
+                    id -> Map.of("orderId", id, "status", newStatus.name()));
         }
 
-        order.setOrderStatus(newStatus);
-        order.setUpdatedAt(LocalDateTime.now());
+        BulkOrderStatusResponse resp = new BulkOrderStatusResponse();
+        resp.setStatus(newStatus.name());
+        List<BulkOrderStatusResult> results = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            String result;
+            if (applied.contains(id)) {
+                result = BulkOrderStatusResult.APPLIED;
+                resp.setApplied(resp.getApplied() + 1);
+            } else if (existing.contains(id)) {
+                result = BulkOrderStatusResult.INVALID_TRANSITION;
+                resp.setInvalidTransition(resp.getInvalidTransition() + 1);
+            } else {
+                result = BulkOrderStatusResult.NOT_FOUND;
+                resp.setNotFound(resp.getNotFound() + 1);
+            }
+            results.add(new BulkOrderStatusResult(id, result));
+        }
+        resp.setResults(results);
 
-        OrderModel saved = orderRepositryObj.save(order);
+        log.debug("Bulk status {} by admin {}: applied={} invalid={} notFound={}", newStatus,
+                adminUser != null ? adminUser.getUsername() : "unknown",
+                resp.getApplied(), resp.getInvalidTransition(), resp.getNotFound());
+        return resp;
+    }
 
-        log.debug("Order {} status changed to {} by admin {}", orderId, newStatus, adminUser != null ? adminUser.getUsername() : "unknown");
+    private OrderSummaryModel toOrderSummary(OrderModel order, List<OrderItemModel> items) {
+        OrderSummaryModel s = new OrderSummaryModel();
+        s.setOrderId(order.getId());
+        s.setUserId(order.getUser().getId());
+        s.setStatus(order.getOrderStatus());
+        s.setTotalAmount(order.getTotalAmount());
+        s.setItemCount(items.size());
+        s.setFirstProductName(items.isEmpty() ? null : items.get(0).getProduct().getProductName());
+        s.setCreatedAt(order.getCreatedAt());
+        s.setUpdatedAt(order.getUpdatedAt());
+        return s;
+    }
+
+    private OrderSummaryResponse toOrderSummaryResponse(OrderSummaryModel s) {
+        OrderSummaryResponse r = new OrderSummaryResponse();
+        r.setId(s.getOrderId());
+        r.setStatus(s.getStatus() != null ? s.getStatus().name() : null);
+        r.setTotalAmount(s.getTotalAmount());
+        r.setItemCount(s.getItemCount());
+        r.setFirstProductName(s.getFirstProductName());
+        r.setCreatedAt(s.getCreatedAt());
+        r.setUpdatedAt(s.getUpdatedAt());
+        return r;
+    }
 
-        return toOrderResponse(saved);
+    public PayloadAttributeStatsResponse getPayloadAttributeStats(PayloadAttributeQueryRequest dto) {
+
+        // an empty object matches every payload and would make the GIN index useless
+        if (dto.getMatch() == null || !dto.getMatch().isObject() || dto.getMatch().isEmpty()) {
+            throw new BadRequestException("match must be a non-empty JSON object");
+        }
+
+        List<String> groupBy = dto.getGroupBy() == null ? List.of() : dto.getGroupBy();
+        for (String key : groupBy) {
+            if (key == null || key.isBlank()) {
+                throw new BadRequestException("groupBy keys must not be blank");
+            }
+        }
+
+        Set<OrderStatus> statuses = EnumSet.noneOf(OrderStatus.class);
+        if (dto.getStatuses() != null) {
+            for (String s : dto.getStatuses()) {
+                try {
+                    statuses.add(OrderStatus.valueOf(s));
+                } catch (IllegalArgumentException | NullPointerException ex) {
+                    throw new BadRequestException("Invalid order status: " + s);
+                }
+            }
+        }
+
+        // one extra group tells whether the result was cut off
+        List<PayloadAttributeGroup> groups = orderItemRepositryObj.aggregateByPayload(
+                dto.getMatch().toString(), statuses, groupBy, MAX_PAYLOAD_GROUPS + 1);
+
+        PayloadAttributeStatsResponse resp = new PayloadAttributeStatsResponse();
+        resp.setTruncated(groups.size() > MAX_PAYLOAD_GROUPS);
+        resp.setGroups(resp.isTruncated() ? groups.subList(0, MAX_PAYLOAD_GROUPS) : groups);
+        return resp;
+    }
+
+    private String toPayloadJson(CreateOrderItemRequest itemReq, Integer productId) {
+
+        if (itemReq.getPayload() == null || itemReq.getPayload().isNull()) return null;
+
+        String json = itemReq.getPayload().toString();
+        int size = json.getBytes(StandardCharsets.UTF_8).length;
+        if (size > maxPayloadBytes) {
+            throw new BadRequestException("Payload for product " + productId + " is " + size
+                    + " bytes; the limit is " + maxPayloadBytes + " bytes");
+        }
+        return json;
+    }
+
+    // list views: items come from one projection query for all orders and never carry the payload
+    private List<OrderResponse> toOrderListResponses(List<OrderModel> orders) {
+
+        List<OrderResponse> responses = new ArrayList<>(orders.size());
+        if (orders.isEmpty()) return responses;
+
+        Map<Integer, OrderResponse> byId = new HashMap<>();
+        for (OrderModel o : orders) {
+            OrderResponse resp = toOrderResponse(o, null);
+            byId.put(o.getId(), resp);
+            responses.add(resp);
+        }
+
+        addListRows(byId, orderItemRepositryObj.findListRowsByOrderIdIn(byId.keySet()));
+        return responses;
+    }
+
+    private static void addListRows(Map<Integer, OrderResponse> byId, List<OrderItemListRow> rows) {
+        for (OrderItemListRow row : rows) {
+            OrderItemResponse ir = new OrderItemResponse();
+            ir.setId(row.getId());
+            ir.setProductId(row.getProductId());
+            ir.setProductName(row.getProductName());
+            ir.setPriceAtTime(row.getPriceAtTime());
+            ir.setQuantity(row.getQuantity());
+            byId.get(row.getOrderId()).getOrderItems().add(ir);
+        }
     }
 
     private OrderResponse toOrderResponse(OrderModel order) {
+        return toOrderResponse(order, order == null ? null : order.getOrderItems());
+    }
+
+    private OrderResponse toOrderResponse(OrderModel order, List<OrderItemModel> orderItems) {
 
         if (order == null) return null;
 
@@ -310,8 +703,8 @@ public class OrderService {
         resp.setUpdatedAt(order.getUpdatedAt());
 
         List<com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemResponse> items = new ArrayList<>();
-        if (order.getOrderItems() != null) {
-            for (OrderItemModel it : order.getOrderItems()) {
+        if (orderItems != null) {
+            for (OrderItemModel it : orderItems) {
                 com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemResponse ir = new com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemResponse();
                 ir.setId(it.getId());
                 ir.setProductId(it.getProduct() != null ? it.getProduct().getId() : null);
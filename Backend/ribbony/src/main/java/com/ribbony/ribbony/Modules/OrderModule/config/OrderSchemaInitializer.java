@@ -0,0 +1,98 @@
+package com.ribbony.ribbony.Modules.OrderModule.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order storage that Hibernate's schema generation cannot express. Runs once the entity tables exist;
+ * every statement is idempotent, so it is safe on each start.
+ *
+ * idx_order_items_payload_path is a GIN index for payload attribute queries (jsonb containment).
+ *
+ * orders_archive / order_items_archive hold closed orders moved out of the hot tables by OrderArchiveService.
+ * They are range partitioned by month on the order's created_at; partitions are added by the archiver as needed.
+ * orders_all / order_items_all are the union of hot and archived rows for reads that must see every order.
+ * New view columns are only ever appended, which is all CREATE OR REPLACE VIEW allows on an existing view.
+ *
+ * order_items.category records the category a line was sold under. Lines written before the column existed
+ * get their product's current category once, the closest record there is; new lines are never left null.
+ *
+ * Outbox rows written before the status column existed get it from dispatched_at, and the old pending index
+ * on (dispatched_at, id) is replaced by idx_order_outbox_status_id.
+ */
+@Component
+public class OrderSchemaInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSchemaInitializer.class);
+
+    private static final String[] STATEMENTS = {
+            // containment (@>) lookups on item payloads; jsonb_path_ops is smaller than the default opclass
+            "CREATE INDEX IF NOT EXISTS idx_order_items_payload_path ON order_items USING gin (payload jsonb_path_ops)",
+
+            "UPDATE order_outbox_events SET status = 'DISPATCHED' WHERE status = 'PENDING' AND dispatched_at IS NOT NULL",
+
+            "DROP INDEX IF EXISTS idx_order_outbox_pending",
+
+            "CREATE TABLE IF NOT EXISTS orders_archive ("
+                    + "id integer NOT NULL, "
+                    + "user_id integer NOT NULL, "
+                    + "status varchar(255) NOT NULL, "
+                    + "total_price numeric(10,2) NOT NULL, "
+                    + "version bigint NOT NULL DEFAULT 0, "
+                    + "created_at timestamp(6) NOT NULL, "
+                    + "updated_at timestamp(6), "
+                    + "archived_at timestamp(6) NOT NULL DEFAULT now(), "
+                    + "PRIMARY KEY (id, created_at)"
+                    + ") PARTITION BY RANGE (created_at)",
+
+            "CREATE TABLE IF NOT EXISTS order_items_archive ("
+                    + "id integer NOT NULL, "
+                    + "order_id integer NOT NULL, "
+                    + "product_id integer NOT NULL, "
+                    + "price_at_time numeric(10,2) NOT NULL, "
+                    + "quantity integer NOT NULL, "
+                    + "payload jsonb, "
+                    + "category varchar(100), "
+                    + "created_at timestamp(6), "
+                    + "updated_at timestamp(6), "
+                    + "order_created_at timestamp(6) NOT NULL, "
+                    + "PRIMARY KEY (id, order_created_at)"
+                    + ") PARTITION BY RANGE (order_created_at)",
+
+            "ALTER TABLE order_items_archive ADD COLUMN IF NOT EXISTS category varchar(100)",
+
+            "UPDATE order_items i SET category = COALESCE(p.category, 'UNCATEGORIZED') FROM product p "
+                    + "WHERE i.category IS NULL AND p.id = i.product_id",
+
+            "UPDATE order_items_archive i SET category = COALESCE(p.category, 'UNCATEGORIZED') FROM product p "
+                    + "WHERE i.category IS NULL AND p.id = i.product_id",
+
+            "CREATE INDEX IF NOT EXISTS idx_order_items_archive_order ON order_items_archive (order_id, order_created_at)",
+
+            "CREATE OR REPLACE VIEW orders_all AS "
+                    + "SELECT id, user_id, status, total_price, created_at, updated_at FROM orders "
+                    + "UNION ALL "
+                    + "SELECT id, user_id, status, total_price, created_at, updated_at FROM orders_archive",
+
+            "CREATE OR REPLACE VIEW order_items_all AS "
+                    + "SELECT id, order_id, product_id, price_at_time, quantity, payload, category FROM order_items "
+                    + "UNION ALL "
+                    + "SELECT id, order_id, product_id, price_at_time, quantity, payload, category FROM order_items_archive"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String sql : STATEMENTS) {
+            jdbcTemplate.execute(sql);
+        }
+        log.debug("Order archive schema verified");
+    }
+}
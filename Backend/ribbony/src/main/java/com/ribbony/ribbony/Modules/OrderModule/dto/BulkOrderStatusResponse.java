@@ -0,0 +1,15 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class BulkOrderStatusResponse {
+
+    private String status;
+    private int applied;
+    private int invalidTransition;
+    private int notFound;
+    private List<BulkOrderStatusResult> results;
+}
@@ -0,0 +1,20 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderStatusResult {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String INVALID_TRANSITION = "INVALID_TRANSITION";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private Integer orderId;
+
+    // APPLIED, INVALID_TRANSITION or NOT_FOUND
+    private String result;
+}
@@ -0,0 +1,18 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BulkUpdateOrderStatusRequest {
+
+    @NotNull(message = "orderIds is required")
+    @Size(min = 1, max = 10000, message = "orderIds must contain between 1 and 10000 ids")
+    private List<Integer> orderIds;
+
+    @NotNull(message = "status is required")
+    private String status;
+}
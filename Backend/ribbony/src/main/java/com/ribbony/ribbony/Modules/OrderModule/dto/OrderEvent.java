@@ -0,0 +1,17 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.Data;
+
+@Data
+public class OrderEvent {
+
+    private Integer eventId;
+    private String type;
+    private Integer orderId;
+    private LocalDateTime occurredAt;
+    private JsonNode payload;
+}
@@ -0,0 +1,19 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// order item as shown in order lists: no payload column is read
+@Data
+@AllArgsConstructor
+public class OrderItemListRow {
+
+    private Integer orderId;
+    private Integer id;
+    private Integer productId;
+    private String productName;
+    private BigDecimal priceAtTime;
+    private int quantity;
+}
@@ -3,7 +3,9 @@ package com.ribbony.ribbony.Modules.OrderModule.dto;
 import java.math.BigDecimal;
 
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Util.RawJsonDeserializer;
 
 import lombok.Data;
 
@@ -15,5 +17,8 @@ public class OrderItemResponse {
     private String productName; 
     private BigDecimal priceAtTime;
     private Integer quantity;
-    private JsonNode payload;
+    // already-serialized JSON, written into the response without building a tree
+    @JsonRawValue
+    @JsonDeserialize(using = RawJsonDeserializer.class)
+    private String payload;
 }
@@ -0,0 +1,25 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.time.LocalDateTime;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+
+import lombok.Data;
+
+@Data
+public class OrderListFilter {
+
+    private OrderStatus status;
+    private Integer userId;
+
+    // orders containing at least one item of this product
+    private Integer productId;
+
+    // inclusive lower bound / exclusive upper bound on created_at
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public boolean isEmpty() {
+        return status == null && userId == null && productId == null && from == null && to == null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class OrderPageResponse {
+
+    private List<OrderResponse> orders;
+
+    // opaque keyset cursor for the next page, null when this is the last page
+    private String nextCursor;
+
+    // only computed for the first page; estimated from planner statistics when exact counting is expensive
+    private Long totalCount;
+    private boolean totalEstimated;
+}
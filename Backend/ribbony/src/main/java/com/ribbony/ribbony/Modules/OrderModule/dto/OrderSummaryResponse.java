@@ -0,0 +1,18 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class OrderSummaryResponse {
+
+    private Integer id;
+    private String status;
+    private BigDecimal totalAmount;
+    private Integer itemCount;
+    private String firstProductName;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class OutboxMetricsResponse {
+
+    private long pendingEvents;
+
+    // parked after orders.outbox.max-attempts; they need an operator
+    private long deadEvents;
+
+    // age of the oldest undispatched event, null when nothing is pending
+    private Long lagMillis;
+
+    private long dispatchedTotal;
+    // failed publish attempts, and events parked as DEAD, since this instance started
+    private long failedTotal;
+    private long deadTotal;
+
+    // events published per second over the last minute
+    private double dispatchedPerSecond;
+
+    private LocalDateTime lastDispatchAt;
+    private List<String> sinks;
+}
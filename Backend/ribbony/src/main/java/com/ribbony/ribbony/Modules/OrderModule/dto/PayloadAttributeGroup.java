@@ -0,0 +1,20 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayloadAttributeGroup {
+
+    // groupBy key -> payload value (null when the item has no such key)
+    private Map<String, String> attributes;
+
+    private long itemCount;
+    private long orderCount;
+    private long units;
+}
@@ -0,0 +1,24 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class PayloadAttributeQueryRequest {
+
+    // JSON object the item payload must contain, e.g. {"colour": "red", "width": "5cm"}
+    @NotNull(message = "match is required")
+    private JsonNode match;
+
+    // top-level payload keys to group the counts by; empty for a single total
+    @Size(max = 3, message = "groupBy may name at most 3 keys")
+    private List<String> groupBy;
+
+    // order statuses to include; empty for all
+    private List<String> statuses;
+}
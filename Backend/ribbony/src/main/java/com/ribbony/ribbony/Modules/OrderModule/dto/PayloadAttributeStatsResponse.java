@@ -0,0 +1,14 @@
+package com.ribbony.ribbony.Modules.OrderModule.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class PayloadAttributeStatsResponse {
+
+    private List<PayloadAttributeGroup> groups;
+
+    // true when there were more groups than the response limit
+    private boolean truncated;
+}
@@ -0,0 +1,60 @@
+package com.ribbony.ribbony.Modules.OrderModule.events;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderEvent;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// appends one JSON line per event to orders.outbox.sinks.file.path; meant for local testing
+@Component
+@ConditionalOnProperty(name = "orders.outbox.sinks.file.path")
+public class FileOrderEventSink implements OrderEventSink {
+
+    @Value("${orders.outbox.sinks.file.path}")
+    private String path;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private BufferedWriter writer;
+
+    @PostConstruct
+    void open() throws IOException {
+        Path file = Path.of(path);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        if (writer != null) writer.close();
+    }
+
+    @Override
+    public String getName() {
+        return "file:" + path;
+    }
+
+    @Override
+    public synchronized void publish(OrderEvent event) throws IOException {
+        writer.write(objectMapper.writeValueAsString(event));
+        writer.newLine();
+        writer.flush();
+    }
+}
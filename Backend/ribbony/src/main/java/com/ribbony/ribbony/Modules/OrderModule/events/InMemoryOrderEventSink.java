@@ -0,0 +1,40 @@
+package com.ribbony.ribbony.Modules.OrderModule.events;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderEvent;
+
+// keeps the most recent events in memory; meant for local testing (orders.outbox.sinks.memory.enabled=true)
+@Component
+@ConditionalOnProperty(name = "orders.outbox.sinks.memory.enabled", havingValue = "true")
+public class InMemoryOrderEventSink implements OrderEventSink {
+
+    @Value("${orders.outbox.sinks.memory.capacity:1000}")
+    private int capacity;
+
+    private final Deque<OrderEvent> events = new ArrayDeque<>();
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public synchronized void publish(OrderEvent event) {
+        if (events.size() >= capacity) {
+            events.removeFirst();
+        }
+        events.addLast(event);
+    }
+
+    public synchronized List<OrderEvent> recentEvents() {
+        return new ArrayList<>(events);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ribbony.ribbony.Modules.OrderModule.events;
+
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderEvent;
+
+/**
+ * Destination for order events published by OrderOutboxDispatcher.
+ * Delivery is at-least-once: an event may be published again if a later sink or the commit fails.
+ */
+public interface OrderEventSink {
+
+    String getName();
+
+    void publish(OrderEvent event) throws Exception;
+}
@@ -0,0 +1,217 @@
+package com.ribbony.ribbony.Modules.OrderModule.events;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxEventModel;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderOutboxStatus;
+import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderOutboxRepositry;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderEvent;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OutboxMetricsResponse;
+
+/**
+ * Polls order_outbox_events and publishes due events to every OrderEventSink.
+ *
+ * A batch is claimed in its own short transaction that only leases the rows (next_attempt_at moves to the end
+ * of orders.outbox.lease-ms) and commits; sinks are called with no transaction or row lock held, and the outcome
+ * is written afterwards. A dispatcher that dies mid-batch just lets the lease run out and the events are claimed again.
+ *
+ * A failed event is retried after an exponential backoff (orders.outbox.retry.initial-backoff-ms, doubling up to
+ * orders.outbox.retry.max-backoff-ms) and parked as DEAD after orders.outbox.max-attempts. A failure does not stop
+ * the batch: only later events of the same order are held back, so one order's events never overtake each other
+ * while other orders keep flowing.
+ */
+@Component
+public class OrderOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxDispatcher.class);
+
+    private static final long THROUGHPUT_WINDOW_MILLIS = 60_000;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Value("${orders.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${orders.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${orders.outbox.retry.initial-backoff-ms:1000}")
+    private long initialBackoffMillis;
+
+    @Value("${orders.outbox.retry.max-backoff-ms:300000}")
+    private long maxBackoffMillis;
+
+    // how long a claimed batch is reserved for this dispatcher; must exceed the slowest batch publish
+    @Value("${orders.outbox.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Autowired(required = false)
+    private List<OrderEventSink> sinks = new ArrayList<>();
+
+    @Autowired
+    private OrderOutboxRepositry orderOutboxRepositryObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong dispatchedTotal = new AtomicLong();
+    private final AtomicLong failedTotal = new AtomicLong();
+    private final AtomicLong deadTotal = new AtomicLong();
+    private volatile LocalDateTime lastDispatchAt;
+
+    // {timestampMillis, eventsDispatched} per batch within the throughput window
+    private final ConcurrentLinkedDeque<long[]> recentBatches = new ConcurrentLinkedDeque<>();
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-interval-ms:1000}")
+    public void dispatchPending() {
+
+        // with no sink configured, events stay pending instead of being marked as delivered to nowhere
+        if (sinks.isEmpty()) return;
+
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    // returns the number of events claimed, whatever their outcome
+    private int dispatchBatch() {
+
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEventModel> claimed = transactionTemplate.execute(
+                status -> orderOutboxRepositryObj.claimDue(batchSize, now, now.plus(Duration.ofMillis(leaseMillis))));
+        if (claimed == null || claimed.isEmpty()) return 0;
+
+        List<Integer> done = new ArrayList<>(claimed.size());
+        List<Integer> heldBack = new ArrayList<>();
+        Set<Integer> failedOrders = new HashSet<>();
+
+        for (OrderOutboxEventModel e : claimed) {
+            if (failedOrders.contains(e.getOrderId())) {
+                heldBack.add(e.getId());
+                continue;
+            }
+            try {
+                OrderEvent event = toOrderEvent(e);
+                for (OrderEventSink sink : sinks) {
+                    sink.publish(event);
+                }
+                done.add(e.getId());
+            } catch (Exception ex) {
+                failedOrders.add(e.getOrderId());
+                recordFailure(e, ex);
+            }
+        }
+
+        // the failed event now has a future next_attempt_at, which keeps the held-back ones from being claimed early
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!done.isEmpty()) orderOutboxRepositryObj.markDispatched(done, LocalDateTime.now());
+            if (!heldBack.isEmpty()) orderOutboxRepositryObj.release(heldBack, LocalDateTime.now());
+        });
+
+        if (!done.isEmpty()) {
+            dispatchedTotal.addAndGet(done.size());
+            lastDispatchAt = LocalDateTime.now();
+            recentBatches.addLast(new long[] { System.currentTimeMillis(), done.size() });
+            pruneBatchesBefore(System.currentTimeMillis() - THROUGHPUT_WINDOW_MILLIS);
+            log.debug("Dispatched {} outbox events ({} failed, {} held back)", done.size(), failedOrders.size(), heldBack.size());
+        }
+        return claimed.size();
+    }
+
+    private void recordFailure(OrderOutboxEventModel e, Exception ex) {
+
+        failedTotal.incrementAndGet();
+        String error = ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) error = error.substring(0, MAX_ERROR_LENGTH);
+
+        int attempts = e.getAttempts() + 1;
+        boolean dead = attempts >= maxAttempts;
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(Duration.ofMillis(backoffMillis(attempts)));
+
+        String storedError = error;
+        transactionTemplate.executeWithoutResult(status -> orderOutboxRepositryObj.recordFailure(
+                e.getId(), storedError, nextAttemptAt, dead ? OrderOutboxStatus.DEAD : OrderOutboxStatus.PENDING));
+
+        if (dead) {
+            deadTotal.incrementAndGet();
+            log.error("Outbox event {} ({} for order {}) parked as DEAD after {} attempts: {}",
+                    e.getId(), e.getEventType(), e.getOrderId(), attempts, error);
+        } else {
+            log.warn("Outbox event {} ({} for order {}) failed attempt {}, retrying at {}: {}",
+                    e.getId(), e.getEventType(), e.getOrderId(), attempts, nextAttemptAt, error);
+        }
+    }
+
+    // initial, 2x, 4x ... capped; attempts starts at 1
+    long backoffMillis(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        return Math.min(maxBackoffMillis, initialBackoffMillis << doublings);
+    }
+
+    public OutboxMetricsResponse getMetrics() {
+
+        OutboxMetricsResponse m = new OutboxMetricsResponse();
+        m.setPendingEvents(orderOutboxRepositryObj.countByStatus(OrderOutboxStatus.PENDING));
+        m.setDeadEvents(orderOutboxRepositryObj.countByStatus(OrderOutboxStatus.DEAD));
+
+        LocalDateTime oldest = orderOutboxRepositryObj.findOldestPendingCreatedAt();
+        m.setLagMillis(oldest == null ? null : Duration.between(oldest, LocalDateTime.now()).toMillis());
+
+        m.setDispatchedTotal(dispatchedTotal.get());
+        m.setFailedTotal(failedTotal.get());
+        m.setDeadTotal(deadTotal.get());
+        m.setLastDispatchAt(lastDispatchAt);
+
+        pruneBatchesBefore(System.currentTimeMillis() - THROUGHPUT_WINDOW_MILLIS);
+        long inWindow = 0;
+        for (long[] batch : recentBatches) {
+            inWindow += batch[1];
+        }
+        m.setDispatchedPerSecond(inWindow * 1000.0 / THROUGHPUT_WINDOW_MILLIS);
+
+        List<String> names = new ArrayList<>();
+        for (OrderEventSink sink : sinks) {
+            names.add(sink.getName());
+        }
+        m.setSinks(names);
+        return m;
+    }
+
+    private void pruneBatchesBefore(long cutoffMillis) {
+        for (Iterator<long[]> it = recentBatches.iterator(); it.hasNext();) {
+            if (it.next()[0] < cutoffMillis) it.remove();
+        }
+    }
+
+    private OrderEvent toOrderEvent(OrderOutboxEventModel e) throws JsonProcessingException {
+        OrderEvent event = new OrderEvent();
+        event.setEventId(e.getId());
+        event.setType(e.getEventType().name());
+        event.setOrderId(e.getOrderId());
+        event.setOccurredAt(e.getCreatedAt());
+        event.setPayload(objectMapper.readTree(e.getPayload()));
+        return event;
+    }
+}
@@ -1,19 +1,38 @@
 package com.ribbony.ribbony.Modules.ProductModule.Controllers;
 
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductCatalogCache;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductCatalogSnapshot;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductImportService;
 import com.ribbony.ribbony.Modules.ProductModule.Services.ProductService;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductSuggestIndex;
+import com.ribbony.ribbony.Modules.ProductModule.dto.BulkRepriceRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.BulkRepriceResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductCacheMetricsResponse;
 import com.ribbony.ribbony.Modules.ProductModule.dto.CreateProductRequest;
 import com.ribbony.ribbony.Modules.ProductModule.dto.UpdateProductRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductFacetResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImportResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductPageResponse;
 import com.ribbony.ribbony.Modules.ProductModule.dto.ProductResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSuggestMetricsResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSuggestion;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Util.ETagUtils;
 
 @RestController
 @RequestMapping("/products")
@@ -22,22 +41,110 @@ public class ProductController {
     @Autowired
     private ProductService productServiceObj;
 
+    @Autowired
+    private ProductCatalogCache productCatalogCacheObj;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndexObj;
+
+    @Autowired
+    private ProductImportService productImportServiceObj;
+
+    // the same for every visitor: any cache may keep it, but must revalidate (cheap 304) before each use
+    private static final CacheControl CATALOG_CACHE = CacheControl.noCache().cachePublic();
+
+    // same JSON array as before, served from the pre-serialized catalog snapshot
     @GetMapping("/list")
-    public ResponseEntity<List<ProductResponse>> listProducts() {
-        List<ProductResponse> list = productServiceObj.listProducts()
-                .stream()
-                .map(productServiceObj::buildProductResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<byte[]> listProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        ProductCatalogSnapshot.Snapshot catalog = productServiceObj.getCatalogSnapshot();
+        boolean gzip = acceptsGzip(acceptEncoding);
+
+        // strong tags are per representation, so the gzip bytes get their own tag
+        String etag = ETagUtils.strong(catalog.getContentHash() + (gzip ? "-gzip" : ""));
+
+        if (ETagUtils.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag).cacheControl(CATALOG_CACHE)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder resp = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag).cacheControl(CATALOG_CACHE)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return resp.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalog.getGzip());
+        }
+        return resp.body(catalog.getJson());
+    }
+
+    // keyset-paged listing; sort is one of newest, price_asc, price_desc, name_asc, name_desc
+    @GetMapping("/page")
+    public ResponseEntity<ProductPageResponse> listProductPage(
+            @RequestParam(value = "category", required = false) String category,
+            @RequestParam(value = "minPrice", required = false) BigDecimal minPrice,
+            @RequestParam(value = "maxPrice", required = false) BigDecimal maxPrice,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "24") int limit) {
+
+        return ResponseEntity.ok(productServiceObj.listProductPage(category, minPrice, maxPrice, sort, cursor, limit));
+    }
+
+    // ranked full-text search over name, category and description; every word matches as a prefix
+    @GetMapping("/search")
+    public ResponseEntity<ProductPageResponse> searchProducts(
+            @RequestParam("q") String q,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "24") int limit) {
+
+        return ResponseEntity.ok(productServiceObj.searchProducts(q, cursor, limit));
+    }
+
+    // typeahead from the in-memory index, no database access
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam("q") String q,
+            @RequestParam(value = "limit", defaultValue = "8") int limit) {
+
+        return ResponseEntity.ok(productServiceObj.suggestProducts(q, limit));
+    }
+
+    // filtered listing plus facet counts from the in-memory bitmap index; repeat a param to select several values
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetResponse> facetProducts(
+            @RequestParam(value = "categoryId", required = false) List<Integer> categoryIds,
+            @RequestParam(value = "priceBucket", required = false) List<Integer> priceBuckets,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "24") int limit) {
+
+        return ResponseEntity.ok(productServiceObj.facetProducts(categoryIds, priceBuckets, cursor, limit));
     }
 
     @GetMapping("/getproduct/{id}")
-    public ResponseEntity<ProductResponse> getProduct(@PathVariable int id) {
-        return ResponseEntity.ok(
-                productServiceObj.buildProductResponse(
-                        productServiceObj.getProduct(id)
-                )
-        );
+    public ResponseEntity<ProductResponse> getProduct(
+            @PathVariable int id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        // decided from updated_at alone, before the product is loaded or serialized
+        if (ifNoneMatch != null) {
+            String current = productServiceObj.findProductETag(id).orElse(null);
+            if (ETagUtils.matches(ifNoneMatch, current)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).cacheControl(CATALOG_CACHE).build();
+            }
+        }
+
+        ProductModel product = productServiceObj.getProduct(id);
+        ResponseEntity.BodyBuilder resp = ResponseEntity.ok().cacheControl(CATALOG_CACHE);
+        String etag = productServiceObj.productETag(product);
+        if (etag != null) resp.eTag(etag);
+
+        return resp.body(productServiceObj.buildProductResponse(product));
     }
 
     @PreAuthorize("hasAnyRole('ADMIN')")
@@ -53,11 +160,61 @@ public class ProductController {
         return ResponseEntity.ok(productServiceObj.updateProduct(request));
     }
 
+    // streams the body: CSV with a header row (name, price, description, category, productImage) or one JSON
+    // product per line; mode=upsert updates products whose name already exists instead of rejecting the row
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping("/admin/import")
+    public ResponseEntity<ProductImportResponse> importProducts(
+            @RequestParam(value = "format", defaultValue = ProductImportService.FORMAT_CSV) String format,
+            @RequestParam(value = "mode", defaultValue = ProductImportService.MODE_INSERT) String mode,
+            InputStream body) {
+
+        return ResponseEntity.ok(productImportServiceObj.importProducts(body, format, mode));
+    }
+
+    // category or id list, then an absolute price, a percentage and/or a rounding rule
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping("/admin/reprice")
+    public ResponseEntity<BulkRepriceResponse> repriceProducts(@Valid @RequestBody BulkRepriceRequest request) {
+        return ResponseEntity.ok(productServiceObj.repriceProducts(request));
+    }
+
     @PreAuthorize("hasAnyRole('ADMIN')")
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<?> deleteProduct(@PathVariable int id) {
         return ResponseEntity.ok(productServiceObj.deleteProduct(id));
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/admin/cache/metrics")
+    public ResponseEntity<ProductCacheMetricsResponse> getCacheMetrics() {
+        return ResponseEntity.ok(productCatalogCacheObj.getMetrics());
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @GetMapping("/admin/suggest/metrics")
+    public ResponseEntity<ProductSuggestMetricsResponse> getSuggestMetrics() {
+        return ResponseEntity.ok(productSuggestIndexObj.getMetrics());
+    }
+
+    // true when the client lists gzip (or *) without q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            if (!coding.equals("gzip") && !coding.equals("*")) continue;
+
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().replace(" ", "");
+                if (param.matches("q=0(\\.0{0,3})?")) rejected = true;
+            }
+            return !rejected;
+        }
+        return false;
+    }
+
     // NOTE: validation and other exceptions are handled globally by GlobalExceptionHandler (@ControllerAdvice).
 }
@@ -0,0 +1,91 @@
+package com.ribbony.ribbony.Modules.ProductModule.Controllers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductImageStore;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImageResponse;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Util.ETagUtils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/products")
+public class ProductImageController {
+
+    // a stored file name names its content, so the bytes behind a URL never change
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic().immutable().getHeaderValue();
+
+    // Tomcat's sendfile request attributes: the connector writes the file straight to the socket
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private ProductImageStore productImageStoreObj;
+
+    // raw image bytes as the body (PNG, JPEG or GIF); returns the content-addressed URL and thumbnail URLs
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    @PostMapping("/admin/images")
+    public ResponseEntity<ProductImageResponse> uploadImage(InputStream body) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(productImageStoreObj.store(body));
+    }
+
+    @GetMapping("/images/{file:.+}")
+    public void getImage(@PathVariable String file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+
+        Optional<ProductImageStore.StoredImage> found = productImageStoreObj.find(file);
+        if (found.isEmpty()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        ProductImageStore.StoredImage image = found.get();
+        String etag = ETagUtils.strong(image.getFileName());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        response.setHeader(HttpHeaders.ETAG, etag);
+
+        if (ETagUtils.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(image.getContentType());
+        response.setContentLengthLong(image.getSize());
+        if ("HEAD".equals(request.getMethod())) return;
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, image.getPath().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, image.getSize());
+            return;
+        }
+
+        // without sendfile the bytes still move channel to channel in fixed-size chunks, never as a whole-file array
+        try (FileChannel in = FileChannel.open(image.getPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = 0;
+            while (position < image.getSize()) {
+                position += in.transferTo(position, image.getSize() - position, out);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.ribbony.ribbony.Modules.ProductModule.Models;
+
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Base.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.NotBlank;
+import lombok.*;
+
+// category dictionary: each distinct category name once, products point at it by id
+@Entity
+@Table(name = "product_categories", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_categories_name", columnNames = "name")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCategoryModel extends BaseEntity {
+
+   @NotBlank
+   @Column(name = "name", nullable = false, length = 100)
+   private String name;
+}
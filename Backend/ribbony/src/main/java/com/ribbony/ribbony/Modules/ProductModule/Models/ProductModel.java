@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Base.BaseEntity;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -13,7 +14,16 @@ import jakarta.persistence.Column;
 import lombok.*;
 
 @Entity
-@Table(name = "product")
+// (sort column, id) keyset indexes for the paged listing, with and without a leading category filter
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_product_price_id", columnList = "product_price, id"),
+        @Index(name = "idx_product_name_id", columnList = "product_name, id"),
+        @Index(name = "idx_product_category_created_at", columnList = "category, created_at, id"),
+        @Index(name = "idx_product_category_price", columnList = "category, product_price, id"),
+        @Index(name = "idx_product_category_name", columnList = "category, product_name, id"),
+        @Index(name = "idx_product_category_id", columnList = "category_id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,6 +45,10 @@ public class ProductModel extends BaseEntity {
    @Column(name = "category", length = 100)
    private String category;
 
+   // product_categories entry for category, set by ProductService on every write
+   @Column(name = "category_id")
+   private Integer categoryId;
+
    @Column(name = "product_images", length = 500)
    private String productImages;
 }
@@ -0,0 +1,10 @@
+package com.ribbony.ribbony.Modules.ProductModule.Models;
+
+// orderings offered by the paged product listing; ties are broken by id in the same direction
+public enum ProductSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC,
+    NAME_ASC,
+    NAME_DESC
+}
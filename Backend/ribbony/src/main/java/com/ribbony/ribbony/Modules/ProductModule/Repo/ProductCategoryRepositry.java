@@ -0,0 +1,23 @@
+package com.ribbony.ribbony.Modules.ProductModule.Repo;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductCategoryModel;
+
+public interface ProductCategoryRepositry extends JpaRepository<ProductCategoryModel, Integer> {
+
+    Optional<ProductCategoryModel> findByName(String name);
+
+    // two writers may introduce the same category at once; the second insert is a no-op instead of an error
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO product_categories (name, created_at, updated_at) VALUES (:name, now(), now()) "
+            + "ON CONFLICT (name) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+}
@@ -1,8 +1,17 @@
 package com.ribbony.ribbony.Modules.ProductModule.Repo;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
 
-public interface ProductRepositry extends JpaRepository<ProductModel, Integer> {
+public interface ProductRepositry extends JpaRepository<ProductModel, Integer>, ProductRepositryCustom {
     boolean existsByProductName(String productName);
+
+    // just the version stamp, for conditional GETs
+    @Query("select p.updatedAt from ProductModel p where p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") int id);
 }
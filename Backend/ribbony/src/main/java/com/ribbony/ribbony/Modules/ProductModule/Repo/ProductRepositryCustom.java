@@ -0,0 +1,45 @@
+package com.ribbony.ribbony.Modules.ProductModule.Repo;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductSort;
+import com.ribbony.ribbony.Modules.ProductModule.dto.BulkRepriceRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductFacetRow;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImportRow;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductListFilter;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductPriceChange;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSearchHit;
+
+public interface ProductRepositryCustom {
+
+    // keyset page of product ids in the given order; afterValue/afterId are the sort key and id of the previous
+    // page's last row (afterValue is a BigDecimal, String or LocalDateTime depending on the sort)
+    List<Integer> findPageIds(ProductListFilter filter, ProductSort sort, Object afterValue, Integer afterId, int limit);
+
+    // products matching a to_tsquery('simple', ...) expression, best rank first; afterRank/afterId continue
+    // from the previous page's last hit
+    List<ProductSearchHit> searchIds(String tsQuery, Float afterRank, Integer afterId, int limit);
+
+    // units sold per product from the daily sales rollups, days on or after since; products with no sales are absent
+    Map<Integer, Long> findUnitsSoldSince(LocalDate since);
+
+    // id, category id and price of every product, for building the facet index
+    List<ProductFacetRow> findFacetRows();
+
+    // every product name with its id, to check import rows against without a query per row
+    Map<String, Integer> findIdsByName();
+
+    // one multi-row INSERT for the batch; returns the new ids by product name
+    Map<String, Integer> insertImportBatch(List<ProductImportRow> rows);
+
+    // one UPDATE for the batch, joined on id; null optional fields keep the stored value
+    int updateImportBatch(List<ProductImportRow> rows);
+
+    // reprices the next limit selected products with id > afterId in one statement; returns every selected
+    // product in id order, with the price it had and the price the rule gives
+    List<ProductPriceChange> repriceBatch(BulkRepriceRequest rule, Integer categoryId, Collection<Integer> productIds,
+            int afterId, int limit);
+}
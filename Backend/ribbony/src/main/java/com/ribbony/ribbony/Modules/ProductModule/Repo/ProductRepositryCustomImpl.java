@@ -0,0 +1,278 @@
+package com.ribbony.ribbony.Modules.ProductModule.Repo;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductSort;
+import com.ribbony.ribbony.Modules.ProductModule.dto.BulkRepriceRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductFacetRow;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImportRow;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductListFilter;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductPriceChange;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSearchHit;
+
+public class ProductRepositryCustomImpl implements ProductRepositryCustom {
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Override
+    public List<Integer> findPageIds(ProductListFilter filter, ProductSort sort, Object afterValue, Integer afterId,
+            int limit) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return namedJdbcTemplate.queryForList(pageIdsSql(filter, sort, afterValue, afterId, limit, params), params,
+                Integer.class);
+    }
+
+    // the statement findPageIds runs; package-private so tests can EXPLAIN the exact statement
+    String pageIdsSql(ProductListFilter filter, ProductSort sort, Object afterValue, Integer afterId, int limit,
+            MapSqlParameterSource params) {
+
+        String column = sortColumn(sort);
+        boolean desc = sort == ProductSort.NEWEST || sort == ProductSort.PRICE_DESC || sort == ProductSort.NAME_DESC;
+
+        StringBuilder sql = new StringBuilder("SELECT p.id FROM product p WHERE 1=1");
+
+        if (filter.getCategory() != null) {
+            sql.append(" AND p.category = :category");
+            params.addValue("category", filter.getCategory());
+        }
+        if (filter.getMinPrice() != null) {
+            sql.append(" AND p.product_price >= :minPrice");
+            params.addValue("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            sql.append(" AND p.product_price <= :maxPrice");
+            params.addValue("maxPrice", filter.getMaxPrice());
+        }
+
+        if (afterValue != null && afterId != null) {
+            // row-value comparison seeks into the (sort column, id) index instead of skipping OFFSET rows
+            sql.append(" AND (p.").append(column).append(", p.id) ").append(desc ? "<" : ">")
+                    .append(" (:afterValue, :afterId)");
+            params.addValue("afterValue", afterValue);
+            params.addValue("afterId", afterId);
+        }
+
+        String dir = desc ? " DESC" : " ASC";
+        sql.append(" ORDER BY p.").append(column).append(dir).append(", p.id").append(dir).append(" LIMIT :limit");
+        params.addValue("limit", limit);
+
+        return sql.toString();
+    }
+
+    @Override
+    public List<ProductSearchHit> searchIds(String tsQuery, Float afterRank, Integer afterId, int limit) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", tsQuery)
+                .addValue("limit", limit);
+
+        // the GIN index finds the matches; ranking only touches those rows
+        StringBuilder sql = new StringBuilder(
+                "SELECT s.id, s.rank FROM ("
+                        + "SELECT p.id, ts_rank_cd(p.search_vector, q) AS rank "
+                        + "FROM product p, to_tsquery('simple', :query) q "
+                        + "WHERE p.search_vector @@ q) s");
+
+        if (afterRank != null && afterId != null) {
+            sql.append(" WHERE (s.rank, s.id) < (CAST(:afterRank AS real), :afterId)");
+            params.addValue("afterRank", afterRank);
+            params.addValue("afterId", afterId);
+        }
+
+        sql.append(" ORDER BY s.rank DESC, s.id DESC LIMIT :limit");
+
+        return namedJdbcTemplate.query(sql.toString(), params,
+                (rs, rowNum) -> new ProductSearchHit(rs.getInt("id"), rs.getFloat("rank")));
+    }
+
+    @Override
+    public Map<Integer, Long> findUnitsSoldSince(LocalDate since) {
+
+        Map<Integer, Long> units = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT r.product_id, SUM(r.units) AS units FROM sales_product_rollups r "
+                        + "WHERE r.day >= :since GROUP BY r.product_id HAVING SUM(r.units) > 0",
+                new MapSqlParameterSource("since", Date.valueOf(since)),
+                rs -> {
+                    units.put(rs.getInt("product_id"), rs.getLong("units"));
+                });
+        return units;
+    }
+
+    @Override
+    public List<ProductFacetRow> findFacetRows() {
+        return namedJdbcTemplate.query("SELECT p.id, p.category_id, p.product_price FROM product p ORDER BY p.id",
+                (rs, rowNum) -> new ProductFacetRow(rs.getInt("id"), (Integer) rs.getObject("category_id"),
+                        rs.getBigDecimal("product_price")));
+    }
+
+    @Override
+    public Map<String, Integer> findIdsByName() {
+        Map<String, Integer> ids = new HashMap<>();
+        namedJdbcTemplate.getJdbcTemplate().query("SELECT p.id, p.product_name FROM product p",
+                rs -> {
+                    ids.put(rs.getString("product_name"), rs.getInt("id"));
+                });
+        return ids;
+    }
+
+    @Override
+    public Map<String, Integer> insertImportBatch(List<ProductImportRow> rows) {
+
+        Map<String, Integer> ids = new HashMap<>();
+        if (rows.isEmpty()) return ids;
+
+        // the batch travels as one array per column and is expanded server side: one statement, one round trip
+        String sql = "INSERT INTO product (product_name, product_price, description, category, category_id, "
+                + "product_images, created_at, updated_at) "
+                + "SELECT u.name, u.price, u.description, u.category, u.category_id, u.image, now(), now() "
+                + "FROM unnest(?, ?, ?, ?, ?, ?) AS u(name, price, description, category, category_id, image) "
+                + "RETURNING id, product_name";
+
+        namedJdbcTemplate.getJdbcTemplate().query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            bindColumns(con, ps, 1, rows);
+            return ps;
+        }, rs -> {
+            ids.put(rs.getString("product_name"), rs.getInt("id"));
+        });
+        return ids;
+    }
+
+    @Override
+    public int updateImportBatch(List<ProductImportRow> rows) {
+
+        if (rows.isEmpty()) return 0;
+
+        String sql = "UPDATE product p SET product_name = u.name, product_price = u.price, "
+                + "description = COALESCE(u.description, p.description), "
+                + "category = COALESCE(u.category, p.category), "
+                + "category_id = COALESCE(u.category_id, p.category_id), "
+                + "product_images = COALESCE(u.image, p.product_images), "
+                + "updated_at = now() "
+                + "FROM unnest(?, ?, ?, ?, ?, ?, ?) AS u(id, name, price, description, category, category_id, image) "
+                + "WHERE p.id = u.id";
+
+        return namedJdbcTemplate.getJdbcTemplate().update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            Integer[] ids = new Integer[rows.size()];
+            for (int i = 0; i < ids.length; i++) ids[i] = rows.get(i).getId();
+            ps.setArray(1, con.createArrayOf("integer", ids));
+            bindColumns(con, ps, 2, rows);
+            return ps;
+        });
+    }
+
+    @Override
+    public List<ProductPriceChange> repriceBatch(BulkRepriceRequest rule, Integer categoryId,
+            Collection<Integer> productIds, int afterId, int limit) {
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("afterId", afterId)
+                .addValue("limit", limit);
+
+        // the new price as an expression over the stored one: set or scale, then round, then cents
+        String price;
+        if (rule.getPrice() != null) {
+            price = "CAST(:price AS numeric)";
+            params.addValue("price", rule.getPrice());
+        } else if (rule.getPercent() != null) {
+            price = "p.product_price * (1 + CAST(:percent AS numeric) / 100)";
+            params.addValue("percent", rule.getPercent());
+        } else {
+            price = "p.product_price";
+        }
+        if (rule.getRoundTo() != null) {
+            price = "round(" + price + " / CAST(:roundTo AS numeric)) * CAST(:roundTo AS numeric)";
+            params.addValue("roundTo", rule.getRoundTo());
+        }
+        if (rule.getEnding() != null) {
+            price = "floor(" + price + ") + CAST(:ending AS numeric)";
+            params.addValue("ending", rule.getEnding());
+        }
+        price = "round(" + price + ", 2)";
+
+        String selector;
+        if (categoryId != null) {
+            selector = "p.category_id = :categoryId";
+            params.addValue("categoryId", categoryId);
+        } else {
+            selector = "p.id IN (:ids)";
+            params.addValue("ids", productIds);
+        }
+
+        // lock the batch, update the rows whose new price is valid and different, and report every locked row;
+        // updated_at moves with the price because product ETags are derived from it
+        String sql = "WITH target AS ("
+                + "SELECT p.id, p.product_price AS old_price, " + price + " AS new_price, p.category_id, p.category "
+                + "FROM product p WHERE " + selector + " AND p.id > :afterId "
+                + "ORDER BY p.id LIMIT :limit FOR UPDATE), "
+                + "upd AS ("
+                + "UPDATE product p SET product_price = t.new_price, updated_at = now() FROM target t "
+                + "WHERE p.id = t.id AND t.new_price > 0 AND t.new_price < 100000000 AND t.new_price <> t.old_price "
+                + "RETURNING p.id) "
+                + "SELECT t.id, t.old_price, t.new_price, t.category_id, t.category, (u.id IS NOT NULL) AS updated "
+                + "FROM target t LEFT JOIN upd u ON u.id = t.id ORDER BY t.id";
+
+        return namedJdbcTemplate.query(sql, params,
+                (rs, rowNum) -> new ProductPriceChange(rs.getInt("id"), rs.getBigDecimal("old_price"),
+                        rs.getBigDecimal("new_price"), rs.getBoolean("updated"),
+                        (Integer) rs.getObject("category_id"), rs.getString("category")));
+    }
+
+    // name, price, description, category, category_id, image as six array parameters starting at first
+    private static void bindColumns(Connection con, PreparedStatement ps, int first, List<ProductImportRow> rows)
+            throws SQLException {
+
+        int n = rows.size();
+        String[] names = new String[n];
+        BigDecimal[] prices = new BigDecimal[n];
+        String[] descriptions = new String[n];
+        String[] categories = new String[n];
+        Integer[] categoryIds = new Integer[n];
+        String[] images = new String[n];
+        for (int i = 0; i < n; i++) {
+            ProductImportRow r = rows.get(i);
+            names[i] = r.getName();
+            prices[i] = r.getPrice();
+            descriptions[i] = r.getDescription();
+            categories[i] = r.getCategory();
+            categoryIds[i] = r.getCategoryId();
+            images[i] = r.getProductImage();
+        }
+        ps.setArray(first, con.createArrayOf("varchar", names));
+        ps.setArray(first + 1, con.createArrayOf("numeric", prices));
+        ps.setArray(first + 2, con.createArrayOf("varchar", descriptions));
+        ps.setArray(first + 3, con.createArrayOf("varchar", categories));
+        ps.setArray(first + 4, con.createArrayOf("integer", categoryIds));
+        ps.setArray(first + 5, con.createArrayOf("varchar", images));
+    }
+
+    private static String sortColumn(ProductSort sort) {
+        switch (sort) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                return "product_price";
+            case NAME_ASC:
+            case NAME_DESC:
+                return "product_name";
+            default:
+                return "created_at";
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductCacheMetricsResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Bounded, access-ordered cache of the product fields order pricing needs (name, price, category).
+ * ProductService invalidates entries right after each product write; the TTL bounds staleness for
+ * writes made by other instances. A load that overlaps an invalidation is not cached, so a reader
+ * can never put back a value older than the write that just invalidated it.
+ */
+@Component
+public class ProductCatalogCache {
+
+    @Value("${products.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${products.cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${products.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Autowired
+    private ProductRepositry productRepositryObj;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong ageAtHitTotal = new AtomicLong();
+    private final AtomicLong maxAgeAtHit = new AtomicLong();
+
+    // bumped by every invalidation; loads started under an older generation are not stored
+    private long generation;
+
+    private final Map<Integer, CachedProduct> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, CachedProduct> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Products by id; ids that do not exist are absent from the result. Misses are loaded with one query.
+     */
+    public Map<Integer, CachedProduct> getAll(Collection<Integer> ids) {
+
+        Map<Integer, CachedProduct> found = new HashMap<>();
+        if (!enabled) {
+            for (ProductModel p : productRepositryObj.findAllById(ids)) {
+                found.put(p.getId(), CachedProduct.of(p, System.currentTimeMillis()));
+            }
+            return found;
+        }
+
+        List<Integer> missing = new ArrayList<>();
+        long loadGeneration;
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            for (Integer id : ids) {
+                CachedProduct cp = entries.get(id);
+                if (cp != null && now - cp.getLoadedAtMillis() > ttlSeconds * 1000L) {
+                    entries.remove(id);
+                    cp = null;
+                }
+                if (cp == null) {
+                    missing.add(id);
+                } else {
+                    found.put(id, cp);
+                    recordHit(now - cp.getLoadedAtMillis());
+                }
+            }
+            loadGeneration = generation;
+        }
+
+        if (missing.isEmpty()) return found;
+        misses.addAndGet(missing.size());
+
+        List<CachedProduct> loaded = new ArrayList<>();
+        for (ProductModel p : productRepositryObj.findAllById(missing)) {
+            CachedProduct cp = CachedProduct.of(p, now);
+            loaded.add(cp);
+            found.put(cp.getId(), cp);
+        }
+
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                for (CachedProduct cp : loaded) {
+                    entries.put(cp.getId(), cp);
+                }
+            }
+        }
+        return found;
+    }
+
+    public void invalidate(Integer productId) {
+        synchronized (this) {
+            generation++;
+            entries.remove(productId);
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidateAll(Collection<Integer> productIds) {
+        synchronized (this) {
+            generation++;
+            for (Integer id : productIds) {
+                entries.remove(id);
+            }
+        }
+        invalidations.incrementAndGet();
+    }
+
+    public ProductCacheMetricsResponse getMetrics() {
+
+        ProductCacheMetricsResponse m = new ProductCacheMetricsResponse();
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            m.setSize(entries.size());
+            long oldest = Long.MAX_VALUE;
+            for (CachedProduct cp : entries.values()) {
+                oldest = Math.min(oldest, cp.getLoadedAtMillis());
+            }
+            m.setOldestEntryAgeMillis(entries.isEmpty() ? null : now - oldest);
+        }
+
+        long h = hits.get();
+        long mi = misses.get();
+        m.setEnabled(enabled);
+        m.setCapacity(maxEntries);
+        m.setTtlSeconds(ttlSeconds);
+        m.setHits(h);
+        m.setMisses(mi);
+        m.setHitRatio(h + mi == 0 ? 0 : (double) h / (h + mi));
+        m.setEvictions(evictions.get());
+        m.setInvalidations(invalidations.get());
+        m.setAverageAgeAtHitMillis(h == 0 ? 0 : ageAtHitTotal.get() / h);
+        m.setMaxAgeAtHitMillis(maxAgeAtHit.get());
+        return m;
+    }
+
+    private void recordHit(long ageMillis) {
+        hits.incrementAndGet();
+        ageAtHitTotal.addAndGet(ageMillis);
+        maxAgeAtHit.accumulateAndGet(ageMillis, Math::max);
+    }
+
+    /**
+     * Immutable copy of the cached product fields.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class CachedProduct {
+        private final Integer id;
+        private final String productName;
+        private final BigDecimal price;
+        private final String category;
+        private final long loadedAtMillis;
+
+        static CachedProduct of(ProductModel p, long loadedAtMillis) {
+            return new CachedProduct(p.getId(), p.getProductName(), p.getPrice(), p.getCategory(), loadedAtMillis);
+        }
+
+        // detached model carrying the cached fields, enough to reference the product from an order item
+        public ProductModel toModel() {
+            ProductModel p = new ProductModel();
+            p.setId(id);
+            p.setProductName(productName);
+            p.setPrice(price);
+            p.setCategory(category);
+            return p;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The /products/list body, serialized once and kept as plain and gzip bytes.
+ * Product writes invalidate it and the next request rebuilds it (one builder at a time).
+ * max-age-seconds bounds how long a snapshot survives writes made on other instances.
+ */
+@Component
+public class ProductCatalogSnapshot {
+
+    @Value("${products.catalog.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    // bumped on every invalidation; a snapshot built under an older generation is never served again
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Object buildLock = new Object();
+
+    private volatile Snapshot current;
+
+    public Snapshot get(Supplier<byte[]> jsonBuilder) {
+
+        Snapshot s = current;
+        if (isUsable(s)) return s;
+
+        synchronized (buildLock) {
+            s = current;
+            if (isUsable(s)) return s;
+
+            long gen = generation.get();
+            byte[] json = jsonBuilder.get();
+            s = new Snapshot(json, gzip(json), contentHash(json), gen, System.currentTimeMillis());
+            current = s;
+            return s;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        current = null;
+    }
+
+    private boolean isUsable(Snapshot s) {
+        return s != null
+                && s.getGeneration() == generation.get()
+                && System.currentTimeMillis() - s.getBuiltAtMillis() < maxAgeSeconds * 1000L;
+    }
+
+    // derived from the bytes, so every instance hands out the same tag for the same catalog
+    private static String contentHash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        // built rarely and served many times, so spend the CPU on the best ratio
+        try (GZIPOutputStream gz = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gz.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Snapshot {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String contentHash;
+        private final long generation;
+        private final long builtAtMillis;
+    }
+}
@@ -0,0 +1,371 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductCategoryModel;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductCategoryRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.dto.FacetCount;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductFacetRow;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Bitmap index over category and price bucket for filtered listings and facet counts.
+ *
+ * Each product gets a bit position, assigned in id order so walking the bits backwards lists newest first.
+ * There is one BitSet per category id and one per price bucket (products.facets.price-bounds); a filter is the
+ * OR of the selected bitmaps within a facet and the AND across facets, and a facet count is the cardinality of
+ * one bitmap intersected with the other facet's filter. ProductService keeps it current on add, update and
+ * delete; positions freed by deletes are reclaimed once they make up half the index.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    private static final int NO_CATEGORY = -1;
+
+    @Value("${products.facets.price-bounds:10,25,50,100}")
+    private BigDecimal[] priceBounds;
+
+    @Autowired
+    private ProductRepositry productRepositryObj;
+
+    @Autowired
+    private ProductCategoryRepositry productCategoryRepositryObj;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // everything below is guarded by lock
+    private int[] productIdAt = new int[0];
+    private int[] categoryAt = new int[0];
+    private int[] bucketAt = new int[0];
+    private int size;
+    private int dead;
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private final Map<Integer, BitSet> byCategory = new HashMap<>();
+    private BitSet[] byBucket = new BitSet[0];
+    private final Map<Integer, String> categoryNames = new HashMap<>();
+
+    // writes that land while the startup build reads the table, replayed over what it read (null value = deleted)
+    private Map<Integer, Entry> patchedDuringLoad;
+
+    /* ---------------- Reads ---------------- */
+
+    /**
+     * Ids of the products matching the selection, newest first, after the product afterId (exclusive) when given,
+     * together with both facets' counts. Empty selections do not filter.
+     */
+    public FacetResult query(Collection<Integer> categoryIds, Collection<Integer> buckets, Integer afterId, int limit) {
+
+        lock.readLock().lock();
+        try {
+            BitSet categoryFilter = union(live, categoryIds, byCategory::get);
+            BitSet bucketFilter = union(live, buckets, b -> b >= 0 && b < byBucket.length ? byBucket[b] : null);
+
+            BitSet matching = (BitSet) categoryFilter.clone();
+            matching.and(bucketFilter);
+
+            List<FacetCount> categoryCounts = new ArrayList<>();
+            for (Map.Entry<Integer, BitSet> e : byCategory.entrySet()) {
+                int count = intersectionSize(e.getValue(), bucketFilter);
+                if (count > 0) categoryCounts.add(new FacetCount(e.getKey(), categoryNames.get(e.getKey()), count));
+            }
+            categoryCounts.sort(Comparator.comparingInt(FacetCount::getCount).reversed()
+                    .thenComparing(FacetCount::getId));
+
+            List<FacetCount> bucketCounts = new ArrayList<>();
+            for (int b = 0; b < byBucket.length; b++) {
+                bucketCounts.add(new FacetCount(b, bucketLabel(b), intersectionSize(byBucket[b], categoryFilter)));
+            }
+
+            // positions are in id order, so the first position below afterId is a binary search away
+            int from = afterId == null ? size - 1 : lowerBound(afterId) - 1;
+            List<Integer> ids = new ArrayList<>(limit + 1);
+            for (int pos = matching.previousSetBit(from); pos >= 0 && ids.size() <= limit;
+                    pos = matching.previousSetBit(pos - 1)) {
+                ids.add(productIdAt[pos]);
+            }
+
+            boolean hasMore = ids.size() > limit;
+            if (hasMore) ids = ids.subList(0, limit);
+            return new FacetResult(matching.cardinality(), categoryCounts, bucketCounts, ids, hasMore);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ---------------- Patches (called by ProductService after a write) ---------------- */
+
+    public void put(int productId, Integer categoryId, String categoryName, BigDecimal price) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = new Entry(categoryId == null ? NO_CATEGORY : categoryId, price);
+            if (patchedDuringLoad != null) patchedDuringLoad.put(productId, entry);
+            if (categoryId != null && categoryName != null) categoryNames.put(categoryId, categoryName);
+            apply(productId, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int productId) {
+        lock.writeLock().lock();
+        try {
+            if (patchedDuringLoad != null) patchedDuringLoad.put(productId, null);
+            apply(productId, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(int productId, Entry entry) {
+
+        if (byBucket.length == 0) layout(new ArrayList<>());
+
+        Integer pos = positions.get(productId);
+        if (pos != null) {
+            clearBits(pos);
+            if (entry == null) {
+                positions.remove(productId);
+                dead++;
+                if (dead * 2 > size) compact(List.of());
+                return;
+            }
+            setBits(pos, entry);
+            return;
+        }
+        if (entry == null) return;
+
+        if (size > 0 && productId < productIdAt[size - 1]) {
+            // positions must stay in id order; an id older than the newest indexed one forces a re-layout
+            compact(List.of(new Row(productId, entry)));
+            return;
+        }
+        append(productId, entry);
+    }
+
+    /* ---------------- Build ---------------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+
+        lock.writeLock().lock();
+        try {
+            patchedDuringLoad = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // read outside the lock so product writes are not held up by the table scan
+        List<ProductFacetRow> rows;
+        List<ProductCategoryModel> dictionary;
+        try {
+            rows = productRepositryObj.findFacetRows();
+            dictionary = productCategoryRepositryObj.findAll();
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                patchedDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // facets answer from the writes seen since startup only; a restart rebuilds
+            log.warn("Facet index could not be built at startup", ex);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Map<Integer, Entry> loaded = new HashMap<>();
+            for (ProductFacetRow r : rows) {
+                loaded.put(r.getId(), new Entry(r.getCategoryId() == null ? NO_CATEGORY : r.getCategoryId(), r.getPrice()));
+            }
+            for (Map.Entry<Integer, Entry> e : patchedDuringLoad.entrySet()) {
+                if (e.getValue() == null) loaded.remove(e.getKey());
+                else loaded.put(e.getKey(), e.getValue());
+            }
+            patchedDuringLoad = null;
+
+            for (ProductCategoryModel c : dictionary) {
+                categoryNames.putIfAbsent(c.getId(), c.getName());
+            }
+
+            List<Row> all = new ArrayList<>(loaded.size());
+            for (Map.Entry<Integer, Entry> e : loaded.entrySet()) {
+                all.add(new Row(e.getKey(), e.getValue()));
+            }
+            layout(all);
+            log.debug("Facet index built: {} products, {} categories, {} price buckets",
+                    size, byCategory.size(), byBucket.length);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // re-lays out the live products plus extra, dropping dead positions
+    private void compact(List<Row> extra) {
+        List<Row> all = new ArrayList<>(positions.size() + extra.size());
+        for (Map.Entry<Integer, Integer> e : positions.entrySet()) {
+            int pos = e.getValue();
+            all.add(new Row(e.getKey(), new Entry(categoryAt[pos], bucketAt[pos])));
+        }
+        all.addAll(extra);
+        layout(all);
+    }
+
+    private void layout(List<Row> rows) {
+
+        rows.sort(Comparator.comparingInt(Row::getProductId));
+
+        int capacity = Math.max(16, rows.size() + rows.size() / 4);
+        productIdAt = new int[capacity];
+        categoryAt = new int[capacity];
+        bucketAt = new int[capacity];
+        size = 0;
+        dead = 0;
+        positions.clear();
+        live.clear();
+        byCategory.clear();
+        byBucket = new BitSet[priceBounds.length + 1];
+        for (int b = 0; b < byBucket.length; b++) {
+            byBucket[b] = new BitSet();
+        }
+
+        for (Row r : rows) {
+            append(r.getProductId(), r.getEntry());
+        }
+    }
+
+    private void append(int productId, Entry entry) {
+        if (size == productIdAt.length) {
+            int capacity = Math.max(16, size * 2);
+            productIdAt = Arrays.copyOf(productIdAt, capacity);
+            categoryAt = Arrays.copyOf(categoryAt, capacity);
+            bucketAt = Arrays.copyOf(bucketAt, capacity);
+        }
+        int pos = size++;
+        productIdAt[pos] = productId;
+        positions.put(productId, pos);
+        setBits(pos, entry);
+    }
+
+    private void setBits(int pos, Entry entry) {
+        int bucket = entry.bucket >= 0 ? entry.bucket : bucketOf(entry.price);
+        categoryAt[pos] = entry.categoryId;
+        bucketAt[pos] = bucket;
+        live.set(pos);
+        byBucket[bucket].set(pos);
+        if (entry.categoryId != NO_CATEGORY) {
+            byCategory.computeIfAbsent(entry.categoryId, k -> new BitSet()).set(pos);
+        }
+    }
+
+    private void clearBits(int pos) {
+        live.clear(pos);
+        byBucket[bucketAt[pos]].clear(pos);
+        BitSet category = byCategory.get(categoryAt[pos]);
+        if (category != null) {
+            category.clear(pos);
+            if (category.isEmpty()) byCategory.remove(categoryAt[pos]);
+        }
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private static BitSet union(BitSet all, Collection<Integer> selected, IntFunction<BitSet> bitmap) {
+        if (selected == null || selected.isEmpty()) return all;
+        BitSet out = new BitSet();
+        for (Integer key : selected) {
+            BitSet b = key == null ? null : bitmap.apply(key);
+            if (b != null) out.or(b);
+        }
+        return out;
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet both = (BitSet) a.clone();
+        both.and(b);
+        return both.cardinality();
+    }
+
+    // first position whose product id is >= productId
+    private int lowerBound(int productId) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (productIdAt[mid] < productId) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private int bucketOf(BigDecimal price) {
+        int b = 0;
+        while (b < priceBounds.length && price != null && price.compareTo(priceBounds[b]) >= 0) b++;
+        return b;
+    }
+
+    // "0-10", "10-25", ..., "100+"
+    private String bucketLabel(int b) {
+        String low = b == 0 ? "0" : priceBounds[b - 1].toPlainString();
+        return b == priceBounds.length ? low + "+" : low + "-" + priceBounds[b].toPlainString();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class FacetResult {
+        private final int total;
+        private final List<FacetCount> categories;
+        private final List<FacetCount> priceBuckets;
+        private final List<Integer> productIds;
+        private final boolean hasMore;
+    }
+
+    // a product's facet values; bucket is -1 until derived from price
+    private static final class Entry {
+        private final int categoryId;
+        private final BigDecimal price;
+        private final int bucket;
+
+        private Entry(int categoryId, BigDecimal price) {
+            this.categoryId = categoryId;
+            this.price = price;
+            this.bucket = -1;
+        }
+
+        private Entry(int categoryId, int bucket) {
+            this.categoryId = categoryId;
+            this.price = null;
+            this.bucket = bucket;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static final class Row {
+        private final int productId;
+        private final Entry entry;
+    }
+}
@@ -0,0 +1,263 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImageResponse;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Content-addressed product images on local disk.
+ *
+ * An upload is streamed to a temp file while its SHA-256 is computed, then moved to
+ * {dir}/{hash[0..2]}/{hash[2..4]}/{hash}.{ext}; the same bytes uploaded twice land on the same file. Thumbnails
+ * for each of products.images.thumb-sizes (longest side, never upscaled) are written next to it as
+ * {hash}-{size}.{ext} at upload time, so reads never resize. A file name therefore identifies its bytes forever,
+ * which is what lets the controller serve them as immutable.
+ *
+ * Only PNG, JPEG and GIF are accepted (what ImageIO can decode); GIF thumbnails are written as PNG.
+ */
+@Component
+public class ProductImageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImageStore.class);
+
+    public static final String URL_PREFIX = "/products/images/";
+
+    // {hash}.{ext} or {hash}-{size}.{ext}
+    private static final Pattern FILE_NAME = Pattern.compile("([0-9a-f]{64})(?:-(\\d{1,4}))?\\.(png|jpg|gif)");
+
+    @Value("${products.images.dir:./data/product-images}")
+    private String dir;
+
+    @Value("${products.images.max-bytes:10485760}")
+    private long maxBytes;
+
+    // decoded size guard: a small file can still declare an enormous canvas
+    @Value("${products.images.max-pixels:40000000}")
+    private long maxPixels;
+
+    @Value("${products.images.thumb-sizes:160,480}")
+    private int[] thumbSizes;
+
+    public ProductImageResponse store(InputStream body) {
+
+        Path root = Paths.get(dir);
+        Path temp = null;
+        try {
+            Files.createDirectories(root);
+            temp = Files.createTempFile(root, "upload-", ".tmp");
+
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            long bytes = copyCapped(new DigestInputStream(body, sha256), temp);
+            if (bytes == 0) throw new BadRequestException("Image body is empty");
+            String hash = HexFormat.of().formatHex(sha256.digest());
+
+            String ext = detectExtension(temp);
+            if (ext == null) throw new BadRequestException("Image must be PNG, JPEG or GIF");
+
+            BufferedImage image = decode(temp);
+            Path original = pathFor(hash, null, ext);
+            Files.createDirectories(original.getParent());
+            // when the same bytes are already stored the upload is not moved, and the finally block removes it
+            if (moveIntoPlace(temp, original)) temp = null;
+
+            String thumbExt = ext.equals("gif") ? "png" : ext;
+            Map<Integer, String> thumbnails = new LinkedHashMap<>();
+            for (int size : thumbSizes) {
+                Path thumb = pathFor(hash, size, thumbExt);
+                if (!Files.exists(thumb)) writeThumbnail(image, size, thumbExt, thumb);
+                thumbnails.put(size, URL_PREFIX + thumb.getFileName());
+            }
+
+            log.debug("Stored product image {} ({} bytes, {}x{})", hash, bytes, image.getWidth(), image.getHeight());
+            return new ProductImageResponse(hash, contentType(ext), bytes, image.getWidth(), image.getHeight(),
+                    URL_PREFIX + original.getFileName(), thumbnails);
+
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not store product image", ex);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ex) {
+                    log.warn("Could not remove upload temp file {}", temp, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * The stored file for a served name, empty when the name is not one this store issues or the file is absent.
+     */
+    public Optional<StoredImage> find(String fileName) {
+
+        Matcher m = FILE_NAME.matcher(fileName);
+        if (!m.matches()) return Optional.empty();
+
+        Integer size = m.group(2) == null ? null : Integer.valueOf(m.group(2));
+        Path path = pathFor(m.group(1), size, m.group(3));
+        try {
+            return Optional.of(new StoredImage(path, Files.size(path), contentType(m.group(3)), fileName));
+        } catch (IOException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private Path pathFor(String hash, Integer size, String ext) {
+        String name = size == null ? hash + "." + ext : hash + "-" + size + "." + ext;
+        return Paths.get(dir, hash.substring(0, 2), hash.substring(2, 4), name);
+    }
+
+    private long copyCapped(InputStream in, Path target) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                total += n;
+                if (total > maxBytes) throw new BadRequestException("Image must be at most " + maxBytes + " bytes");
+                out.write(buffer, 0, n);
+            }
+        }
+        return total;
+    }
+
+    // by magic number, not by the client's Content-Type
+    private static String detectExtension(Path file) throws IOException {
+        byte[] head = new byte[8];
+        int n;
+        try (InputStream in = Files.newInputStream(file)) {
+            n = in.readNBytes(head, 0, head.length);
+        }
+        if (n >= 8 && (head[0] & 0xff) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') return "png";
+        if (n >= 3 && (head[0] & 0xff) == 0xff && (head[1] & 0xff) == 0xd8 && (head[2] & 0xff) == 0xff) return "jpg";
+        if (n >= 6 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') return "gif";
+        return null;
+    }
+
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) throw new BadRequestException("Image could not be decoded");
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new BadRequestException("Image must be at most " + maxPixels + " pixels");
+                }
+                return reader.read(0);
+            } catch (IOException ex) {
+                throw new BadRequestException("Image could not be decoded");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // concurrent uploads of the same bytes race to the same name; whichever lands first wins, the content is equal.
+    // true when temp was moved; false when target already existed and temp is still there for the caller to delete
+    private static boolean moveIntoPlace(Path temp, Path target) throws IOException {
+        if (Files.exists(target)) return false;
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException ex) {
+            // same content already stored
+            return false;
+        } catch (AtomicMoveNotSupportedException ex) {
+            try {
+                Files.move(temp, target);
+            } catch (FileAlreadyExistsException lost) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeThumbnail(BufferedImage image, int size, String ext, Path target) throws IOException {
+
+        double scale = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int w = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int h = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage thumb = new BufferedImage(w, h, ext.equals("jpg") ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = thumb.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, w, h, null);
+        } finally {
+            g.dispose();
+        }
+
+        // written beside the target and moved, so a reader never sees a half-written thumbnail
+        Path temp = Files.createTempFile(target.getParent(), "thumb-", ".tmp");
+        try {
+            if (!ImageIO.write(thumb, ext.equals("jpg") ? "jpeg" : ext, temp.toFile())) {
+                throw new IOException("No ImageIO writer for " + ext);
+            }
+            moveIntoPlace(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String contentType(String ext) {
+        switch (ext) {
+            case "png":
+                return "image/png";
+            case "gif":
+                return "image/gif";
+            default:
+                return "image/jpeg";
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class StoredImage {
+        private final Path path;
+        private final long size;
+        private final String contentType;
+
+        // the served file name; it already names the content, so it doubles as the ETag value
+        private final String fileName;
+    }
+}
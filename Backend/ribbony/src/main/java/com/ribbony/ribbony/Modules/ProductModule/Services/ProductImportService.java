@@ -0,0 +1,435 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductCategoryModel;
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductCategoryRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.dto.CreateProductRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImportError;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImportResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImportRow;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+/**
+ * Bulk product import from a CSV or NDJSON request body.
+ *
+ * The body is read one record at a time and never held whole. Names are checked against one preloaded
+ * name -> id map instead of a query per row, and rows are written in batches of products.import.batch-size,
+ * each batch one INSERT (and, in upsert mode, one UPDATE) in its own transaction. A bad row is reported with its
+ * line and skipped; a batch the database rejects is reported row by row and the import goes on with the next.
+ *
+ * Caches and in-memory indexes are patched once per committed batch rather than once per product.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    public static final String MODE_INSERT = "insert";
+    public static final String MODE_UPSERT = "upsert";
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "price", "description", "category", "productimage");
+
+    @Value("${products.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Autowired
+    private ProductRepositry productRepositryObj;
+
+    @Autowired
+    private ProductCategoryRepositry productCategoryRepositryObj;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCacheObj;
+
+    @Autowired
+    private ProductCatalogSnapshot productCatalogSnapshotObj;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndexObj;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndexObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    public ProductImportResponse importProducts(InputStream body, String format, String mode) {
+
+        String fmt = format == null ? FORMAT_CSV : format.trim().toLowerCase(Locale.ROOT);
+        if (!fmt.equals(FORMAT_CSV) && !fmt.equals(FORMAT_NDJSON)) {
+            throw new BadRequestException("format must be csv or ndjson");
+        }
+        String m = mode == null ? MODE_INSERT : mode.trim().toLowerCase(Locale.ROOT);
+        if (!m.equals(MODE_INSERT) && !m.equals(MODE_UPSERT)) {
+            throw new BadRequestException("mode must be insert or upsert");
+        }
+
+        Run run = new Run(m.equals(MODE_UPSERT), productRepositryObj.findIdsByName());
+        for (ProductCategoryModel c : productCategoryRepositryObj.findAll()) {
+            run.categoryIds.put(c.getName(), c.getId());
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            if (fmt.equals(FORMAT_CSV)) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (IOException ex) {
+            // rows already committed stay; the report says where reading stopped
+            run.error(run.lastLine, null, "Import body could not be read past this line: " + ex.getMessage());
+        }
+        flush(run);
+
+        log.info("Product import ({}, {}): {} rows read, {} inserted, {} updated, {} failed",
+                fmt, m, run.report.getRowsRead(), run.report.getInserted(), run.report.getUpdated(),
+                run.report.getFailed());
+        return run.report;
+    }
+
+    /* ---------------- Parsing ---------------- */
+
+    private void readCsv(BufferedReader reader, Run run) throws IOException {
+
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+
+        // column name -> index; names are matched case-insensitively, product_image and productImage are the same
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String col = header.get(i).trim().toLowerCase(Locale.ROOT).replace("_", "");
+            if (!CSV_COLUMNS.contains(col)) {
+                throw new BadRequestException("Unknown CSV column: " + header.get(i));
+            }
+            columns.put(col, i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new BadRequestException("CSV header must include name and price");
+        }
+
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            long line = csv.recordLine;
+            run.lastLine = csv.line;
+            if (record.size() == 1 && record.get(0).isBlank()) continue;
+
+            run.report.setRowsRead(run.report.getRowsRead() + 1);
+            String name = column(record, columns, "name");
+
+            if (record.size() != header.size()) {
+                run.error(line, name, "Expected " + header.size() + " fields, found " + record.size());
+                continue;
+            }
+
+            CreateProductRequest req = new CreateProductRequest();
+            req.setName(name);
+            req.setDescription(column(record, columns, "description"));
+            req.setCategory(column(record, columns, "category"));
+            req.setProductImage(column(record, columns, "productimage"));
+            String price = column(record, columns, "price");
+            try {
+                req.setPrice(price == null ? null : new BigDecimal(price.trim()));
+            } catch (NumberFormatException ex) {
+                run.error(line, name, "price is not a number: " + price);
+                continue;
+            }
+            accept(run, line, req);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Run run) throws IOException {
+
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            run.lastLine = line;
+            if (text.isBlank()) continue;
+
+            run.report.setRowsRead(run.report.getRowsRead() + 1);
+            CreateProductRequest req;
+            try {
+                req = objectMapper.readValue(text, CreateProductRequest.class);
+            } catch (JsonProcessingException ex) {
+                run.error(line, null, "Invalid JSON: " + ex.getOriginalMessage());
+                continue;
+            }
+            accept(run, line, req);
+        }
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer i = columns.get(name);
+        if (i == null || i >= record.size()) return null;
+        String v = record.get(i);
+        return v.isEmpty() ? null : v;
+    }
+
+    /* ---------------- Validation and batching ---------------- */
+
+    private void accept(Run run, long line, CreateProductRequest req) {
+
+        String name = req.getName() == null ? null : req.getName().trim();
+        req.setName(name);
+
+        // same rules as POST /products/save, plus the column limits the table enforces
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(req);
+        if (!violations.isEmpty()) {
+            run.error(line, name, violations.iterator().next().getMessage());
+            return;
+        }
+        String problem = checkColumns(req);
+        if (problem != null) {
+            run.error(line, name, problem);
+            return;
+        }
+        if (!run.seenNames.add(name)) {
+            run.error(line, name, "Duplicate name earlier in this import");
+            return;
+        }
+
+        ProductImportRow row = new ProductImportRow();
+        row.setLine(line);
+        row.setId(run.existing.get(name));
+        row.setName(name);
+        row.setPrice(req.getPrice());
+        row.setDescription(req.getDescription());
+        row.setCategory(req.getCategory() == null ? null : req.getCategory().trim());
+        row.setProductImage(req.getProductImage());
+
+        if (row.getId() != null && !run.upsert) {
+            run.error(line, name, "Product already exists with name: " + name);
+            return;
+        }
+        if (row.getCategory() != null) {
+            row.setCategoryId(categoryId(run, row.getCategory()));
+        }
+
+        (row.getId() == null ? run.inserts : run.updates).add(row);
+        if (run.inserts.size() + run.updates.size() >= batchSize) {
+            flush(run);
+        }
+    }
+
+    private static String checkColumns(CreateProductRequest req) {
+        if (req.getName().length() > 100) return "name must be at most 100 characters";
+        if (req.getPrice().signum() <= 0) return "price must be positive";
+        if (req.getDescription() != null && req.getDescription().length() > 300) {
+            return "description must be at most 300 characters";
+        }
+        if (req.getCategory() != null && req.getCategory().trim().length() > 100) {
+            return "category must be at most 100 characters";
+        }
+        if (req.getProductImage() != null && req.getProductImage().length() > 500) {
+            return "productImage must be at most 500 characters";
+        }
+        return null;
+    }
+
+    // dictionary id from the preloaded map; a category new to the dictionary is added once per import
+    private Integer categoryId(Run run, String category) {
+        Integer id = run.categoryIds.get(category);
+        if (id != null) return id;
+
+        productCategoryRepositryObj.insertIfAbsent(category);
+        id = productCategoryRepositryObj.findByName(category)
+                .map(ProductCategoryModel::getId)
+                .orElseThrow(() -> new IllegalStateException("Category vanished right after insert: " + category));
+        run.categoryIds.put(category, id);
+        return id;
+    }
+
+    private void flush(Run run) {
+
+        if (run.inserts.isEmpty() && run.updates.isEmpty()) return;
+
+        List<ProductImportRow> inserts = new ArrayList<>(run.inserts);
+        List<ProductImportRow> updates = new ArrayList<>(run.updates);
+        run.inserts.clear();
+        run.updates.clear();
+
+        Map<String, Integer> newIds;
+        try {
+            newIds = transactionTemplate.execute(status -> {
+                Map<String, Integer> ids = productRepositryObj.insertImportBatch(inserts);
+                productRepositryObj.updateImportBatch(updates);
+                return ids;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Product import batch rejected by the database", ex);
+            String message = "Batch rejected by the database: " + rootMessage(ex);
+            for (ProductImportRow r : inserts) run.error(r.getLine(), r.getName(), message);
+            for (ProductImportRow r : updates) run.error(r.getLine(), r.getName(), message);
+            return;
+        }
+
+        List<ProductModel> written = new ArrayList<>(inserts.size() + updates.size());
+        for (ProductImportRow r : inserts) {
+            r.setId(newIds.get(r.getName()));
+            run.existing.put(r.getName(), r.getId());
+            written.add(toModel(r));
+        }
+        if (!updates.isEmpty()) {
+            // updated rows keep stored values for the fields the import left empty, so read back what was written
+            List<Integer> updatedIds = new ArrayList<>(updates.size());
+            for (ProductImportRow r : updates) updatedIds.add(r.getId());
+            written.addAll(productRepositryObj.findAllById(updatedIds));
+        }
+        run.report.setInserted(run.report.getInserted() + inserts.size());
+        run.report.setUpdated(run.report.getUpdated() + updates.size());
+
+        List<Integer> ids = new ArrayList<>(written.size());
+        for (ProductModel p : written) {
+            ids.add(p.getId());
+            productFacetIndexObj.put(p.getId(), p.getCategoryId(), p.getCategory(), p.getPrice());
+        }
+        productCatalogCacheObj.invalidateAll(ids);
+        productCatalogSnapshotObj.invalidate();
+        productSuggestIndexObj.putAll(written);
+    }
+
+    // an inserted row as the caches and indexes see it
+    private static ProductModel toModel(ProductImportRow r) {
+        ProductModel p = new ProductModel();
+        p.setId(r.getId());
+        p.setProductName(r.getName());
+        p.setPrice(r.getPrice());
+        p.setDescription(r.getDescription());
+        p.setCategory(r.getCategory());
+        p.setCategoryId(r.getCategoryId());
+        p.setProductImages(r.getProductImage());
+        return p;
+    }
+
+    private static String rootMessage(Throwable ex) {
+        Throwable t = ex;
+        while (t.getCause() != null && t.getCause() != t) t = t.getCause();
+        return t.getMessage();
+    }
+
+    // state of one import call
+    private final class Run {
+        private final boolean upsert;
+        private final Map<String, Integer> existing;
+        private final Map<String, Integer> categoryIds = new HashMap<>();
+        private final Set<String> seenNames = new HashSet<>();
+        private final List<ProductImportRow> inserts = new ArrayList<>();
+        private final List<ProductImportRow> updates = new ArrayList<>();
+        private final ProductImportResponse report = new ProductImportResponse();
+        private long lastLine;
+
+        private Run(boolean upsert, Map<String, Integer> existing) {
+            this.upsert = upsert;
+            this.existing = existing;
+        }
+
+        private void error(long line, String name, String message) {
+            report.setFailed(report.getFailed() + 1);
+            if (report.getErrors().size() < maxReportedErrors) {
+                report.getErrors().add(new ProductImportError(line, name, message));
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 records from a reader: comma separated, fields optionally double-quoted, "" inside quotes is a
+     * quote, and quoted fields may span lines. Reads one record per call.
+     */
+    private static final class CsvReader {
+        private final BufferedReader reader;
+        private long line;
+        private long recordLine;
+
+        private CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private List<String> next() throws IOException {
+
+            String text = reader.readLine();
+            if (text == null) return null;
+            line++;
+            recordLine = line;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) break;
+                    // a quoted field continues on the next line
+                    text = reader.readLine();
+                    if (text == null) throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                    line++;
+                    field.append('\n');
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i < text.length() && text.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -1,36 +1,363 @@
 package com.ribbony.ribbony.Modules.ProductModule.Services;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductCategoryModel;
 import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductSort;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductCategoryRepositry;
 import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.dto.BulkRepriceRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.BulkRepriceResponse;
 import com.ribbony.ribbony.Modules.ProductModule.dto.CreateProductRequest;
 import com.ribbony.ribbony.Modules.ProductModule.dto.UpdateProductRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductFacetResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductListFilter;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductPageResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductPriceChange;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSearchHit;
 import com.ribbony.ribbony.Modules.ProductModule.dto.ProductResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSuggestion;
 import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
 import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.NotFoundException;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.Util.ETagUtils;
 
 @Service
 public class ProductService {
 
+    private static final int MAX_PRODUCT_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_TERMS = 8;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_REPRICE_IDS = 10000;
+
+    @Value("${products.reprice.batch-size:1000}")
+    private int repriceBatchSize;
+
+    @Value("${products.reprice.max-reported-changes:1000}")
+    private int maxRepriceChanges;
+
+    // a repricing holds row locks on every matched product until it commits, so the selection is bounded
+    @Value("${products.reprice.max-products:50000}")
+    private int maxRepriceProducts;
+
     @Autowired
     private ProductRepositry productRepositryObj;
 
+    @Autowired
+    private ProductCatalogCache productCatalogCacheObj;
+
+    @Autowired
+    private ProductCatalogSnapshot productCatalogSnapshotObj;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndexObj;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndexObj;
+
+    @Autowired
+    private ProductCategoryRepositry productCategoryRepositryObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /* ---------------- Get All Products ---------------- */
     public List<ProductModel> listProducts() {
         return productRepositryObj.findAll();
     }
 
+    /* ---------------- Paged Listing (keyset) ---------------- */
+    public ProductPageResponse listProductPage(String category, BigDecimal minPrice, BigDecimal maxPrice,
+            String sort, String cursor, int limit) {
+
+        if (limit <= 0 || limit > MAX_PRODUCT_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PRODUCT_PAGE_SIZE);
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+
+        ProductSort productSort;
+        try {
+            productSort = sort == null || sort.isBlank() ? ProductSort.NEWEST : ProductSort.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid sort: " + sort);
+        }
+
+        ProductListFilter filter = new ProductListFilter();
+        filter.setCategory(category == null || category.isBlank() ? null : category);
+        filter.setMinPrice(minPrice);
+        filter.setMaxPrice(maxPrice);
+
+        Object afterValue = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                // sort|filter|value|id; the value may itself contain '|', so split on the first two and the last one
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int first = decoded.indexOf('|');
+                int second = decoded.indexOf('|', first + 1);
+                int last = decoded.lastIndexOf('|');
+                if (second < 0 || second >= last) {
+                    throw new IllegalArgumentException("malformed cursor");
+                }
+                if (!decoded.substring(0, first).equals(productSort.name())) {
+                    throw new IllegalArgumentException("cursor belongs to another sort");
+                }
+                // a position in one filtered list means nothing in another
+                if (!decoded.substring(first + 1, second).equals(filterKey(filter))) {
+                    throw new IllegalArgumentException("cursor belongs to another filter");
+                }
+                afterValue = parseSortValue(productSort, decoded.substring(second + 1, last));
+                afterId = Integer.valueOf(decoded.substring(last + 1));
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+        }
+
+        // one extra row tells whether another page exists
+        List<Integer> ids = productRepositryObj.findPageIds(filter, productSort, afterValue, afterId, limit + 1);
+        boolean hasMore = ids.size() > limit;
+        if (hasMore) ids = ids.subList(0, limit);
+
+        // the IN load does not keep the keyset order, so restore it from the id list
+        Map<Integer, ProductModel> byId = new HashMap<>();
+        for (ProductModel p : productRepositryObj.findAllById(ids)) {
+            byId.put(p.getId(), p);
+        }
+
+        List<ProductResponse> items = new ArrayList<>(ids.size());
+        ProductModel last = null;
+        for (Integer id : ids) {
+            ProductModel p = byId.get(id);
+            if (p == null) continue;
+            items.add(buildProductResponse(p));
+            last = p;
+        }
+
+        ProductPageResponse resp = new ProductPageResponse();
+        resp.setProducts(items);
+        if (hasMore && last != null) {
+            String raw = productSort.name() + "|" + filterKey(filter) + "|" + sortValue(productSort, last) + "|" + last.getId();
+            resp.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+        }
+        return resp;
+    }
+
+    /* ---------------- Typeahead (in-memory) ---------------- */
+    public List<ProductSuggestion> suggestProducts(String q, int limit) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return productSuggestIndexObj.suggest(q, limit);
+    }
+
+    /* ---------------- Facet Listing (bitmap index) ---------------- */
+    public ProductFacetResponse facetProducts(List<Integer> categoryIds, List<Integer> priceBuckets,
+            String cursor, int limit) {
+
+        if (limit <= 0 || limit > MAX_PRODUCT_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PRODUCT_PAGE_SIZE);
+        }
+
+        Integer afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                afterId = Integer.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+        }
+
+        ProductFacetIndex.FacetResult result = productFacetIndexObj.query(categoryIds, priceBuckets, afterId, limit);
+
+        Map<Integer, ProductModel> byId = new HashMap<>();
+        for (ProductModel p : productRepositryObj.findAllById(result.getProductIds())) {
+            byId.put(p.getId(), p);
+        }
+
+        List<ProductResponse> items = new ArrayList<>(result.getProductIds().size());
+        for (Integer id : result.getProductIds()) {
+            ProductModel p = byId.get(id);
+            if (p != null) items.add(buildProductResponse(p));
+        }
+
+        ProductFacetResponse resp = new ProductFacetResponse();
+        resp.setTotal(result.getTotal());
+        resp.setCategories(result.getCategories());
+        resp.setPriceBuckets(result.getPriceBuckets());
+        resp.setProducts(items);
+        if (result.isHasMore() && !result.getProductIds().isEmpty()) {
+            String raw = String.valueOf(result.getProductIds().get(result.getProductIds().size() - 1));
+            resp.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+        }
+        return resp;
+    }
+
+    /* ---------------- Full-text Search ---------------- */
+    public ProductPageResponse searchProducts(String q, String cursor, int limit) {
+
+        if (limit <= 0 || limit > MAX_PRODUCT_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PRODUCT_PAGE_SIZE);
+        }
+
+        String tsQuery = toPrefixQuery(q);
+        if (tsQuery == null) {
+            throw new BadRequestException("q must contain at least one letter or digit");
+        }
+
+        Float afterRank = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = decoded.lastIndexOf('|');
+                afterRank = Float.valueOf(decoded.substring(0, sep));
+                afterId = Integer.valueOf(decoded.substring(sep + 1));
+            } catch (RuntimeException ex) {
+                throw new BadRequestException("Invalid cursor: " + cursor);
+            }
+        }
+
+        List<ProductSearchHit> hits = productRepositryObj.searchIds(tsQuery, afterRank, afterId, limit + 1);
+        boolean hasMore = hits.size() > limit;
+        if (hasMore) hits = hits.subList(0, limit);
+
+        List<Integer> ids = new ArrayList<>(hits.size());
+        for (ProductSearchHit hit : hits) {
+            ids.add(hit.getId());
+        }
+
+        Map<Integer, ProductModel> byId = new HashMap<>();
+        for (ProductModel p : productRepositryObj.findAllById(ids)) {
+            byId.put(p.getId(), p);
+        }
+
+        List<ProductResponse> items = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProductModel p = byId.get(id);
+            if (p != null) items.add(buildProductResponse(p));
+        }
+
+        ProductPageResponse resp = new ProductPageResponse();
+        resp.setProducts(items);
+        if (hasMore && !hits.isEmpty()) {
+            ProductSearchHit last = hits.get(hits.size() - 1);
+            String raw = last.getRank() + "|" + last.getId();
+            resp.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8)));
+        }
+        return resp;
+    }
+
+    // every word must match, each as a prefix ("red ribb" -> red:* & ribb:*); only letters and digits are kept,
+    // so the result is always valid to_tsquery input
+    private static String toPrefixQuery(String q) {
+        if (q == null) return null;
+
+        StringBuilder query = new StringBuilder();
+        int terms = 0;
+        for (String word : q.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (terms == MAX_SEARCH_TERMS) break;
+            if (terms > 0) query.append(" & ");
+            query.append(word).append(":*");
+            terms++;
+        }
+        return terms == 0 ? null : query.toString();
+    }
+
+    private static Object sortValue(ProductSort sort, ProductModel p) {
+        switch (sort) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                return p.getPrice().toPlainString();
+            case NAME_ASC:
+            case NAME_DESC:
+                return p.getProductName();
+            default:
+                return p.getCreatedAt();
+        }
+    }
+
+    // short fingerprint of the listing filter, carried in page cursors; equal prices at another scale are the same bound
+    private static String filterKey(ProductListFilter filter) {
+        String key = filter.getCategory() + "\u0000" + plain(filter.getMinPrice()) + "\u0000" + plain(filter.getMaxPrice());
+        return Integer.toHexString(key.hashCode());
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.stripTrailingZeros().toPlainString();
+    }
+
+    private static Object parseSortValue(ProductSort sort, String raw) {
+        switch (sort) {
+            case PRICE_ASC:
+            case PRICE_DESC:
+                return new BigDecimal(raw);
+            case NAME_ASC:
+            case NAME_DESC:
+                return raw;
+            default:
+                return LocalDateTime.parse(raw);
+        }
+    }
+
+    /* ---------------- Catalog Snapshot (serialized /products/list body) ---------------- */
+    public ProductCatalogSnapshot.Snapshot getCatalogSnapshot() {
+        return productCatalogSnapshotObj.get(() -> {
+            List<ProductResponse> list = new ArrayList<>();
+            for (ProductModel p : listProducts()) {
+                list.add(buildProductResponse(p));
+            }
+            try {
+                return objectMapper.writeValueAsBytes(list);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Could not serialize product catalog", ex);
+            }
+        });
+    }
+
     /* ---------------- Get Product by ID ---------------- */
     public ProductModel getProduct(int id) {
         Optional<ProductModel> optional = productRepositryObj.findById(id);
         return optional.orElseThrow(() -> new NotFoundException("Product not found with id: " + id));
     }
 
+    /* ---------------- Product ETag (from updated_at) ---------------- */
+    public Optional<String> findProductETag(int id) {
+        return productRepositryObj.findUpdatedAtById(id).map(updatedAt -> productETag(id, updatedAt));
+    }
+
+    public String productETag(ProductModel p) {
+        return p.getUpdatedAt() == null ? null : productETag(p.getId(), p.getUpdatedAt());
+    }
+
+    private String productETag(int id, LocalDateTime updatedAt) {
+        // epoch microseconds: updated_at is stored with microsecond precision
+        long micros = updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + updatedAt.getNano() / 1_000;
+        return ETagUtils.strong("p" + id + "-" + Long.toHexString(micros));
+    }
+
     /* ---------------- Add Product ---------------- */
     public ProductResponse addProduct(CreateProductRequest request) {
 
@@ -48,11 +375,16 @@ public class ProductService {
         p.setPrice(request.getPrice());
         p.setDescription(request.getDescription());
         p.setCategory(request.getCategory());
+        p.setCategoryId(resolveCategoryId(request.getCategory()));
 
         // one image string
         p.setProductImages(request.getProductImage());
 
         ProductModel saved = productRepositryObj.save(p);
+        productCatalogCacheObj.invalidate(saved.getId());
+        productCatalogSnapshotObj.invalidate();
+        productSuggestIndexObj.put(saved);
+        indexFacets(saved);
         return buildProductResponse(saved);
     }
 
@@ -79,6 +411,7 @@ public class ProductService {
 
         if (request.getCategory() != null) {
             p.setCategory(request.getCategory());
+            p.setCategoryId(resolveCategoryId(request.getCategory()));
         }
 
         // single image string
@@ -87,6 +420,11 @@ public class ProductService {
         }
 
         ProductModel saved = productRepositryObj.save(p);
+        // the write is committed at this point, drop the cached copy before returning
+        productCatalogCacheObj.invalidate(saved.getId());
+        productCatalogSnapshotObj.invalidate();
+        productSuggestIndexObj.put(saved);
+        indexFacets(saved);
 
         return buildProductResponse(saved);
     }
@@ -97,9 +435,109 @@ public class ProductService {
             throw new NotFoundException("Product not found with id: " + id);
         }
         productRepositryObj.deleteById(id);
+        productCatalogCacheObj.invalidate(id);
+        productCatalogSnapshotObj.invalidate();
+        productSuggestIndexObj.remove(id);
+        productFacetIndexObj.remove(id);
         return "Product deleted with id: " + id;
     }
 
+    /* ---------------- Bulk Repricing ---------------- */
+    // one set-based UPDATE per batch of products, all batches in one transaction so a request applies wholly or
+    // not at all; caches and indexes are patched once, after the commit
+    public BulkRepriceResponse repriceProducts(BulkRepriceRequest request) {
+
+        boolean byCategory = request.getCategory() != null && !request.getCategory().isBlank();
+        boolean byIds = request.getProductIds() != null && !request.getProductIds().isEmpty();
+        if (byCategory == byIds) {
+            throw new BadRequestException("Give either category or productIds");
+        }
+        if (request.getPrice() != null && request.getPercent() != null) {
+            throw new BadRequestException("price and percent cannot be combined");
+        }
+        if (request.getPrice() == null && request.getPercent() == null
+                && request.getRoundTo() == null && request.getEnding() == null) {
+            throw new BadRequestException("Give a price, a percent or a rounding rule");
+        }
+        if (byIds && request.getProductIds().size() > MAX_REPRICE_IDS) {
+            throw new BadRequestException("productIds must have at most " + MAX_REPRICE_IDS + " entries");
+        }
+
+        Integer categoryId = null;
+        if (byCategory) {
+            String name = request.getCategory().trim();
+            categoryId = productCategoryRepositryObj.findByName(name)
+                    .map(ProductCategoryModel::getId)
+                    .orElseThrow(() -> new NotFoundException("Category not found: " + name));
+        }
+        Integer selectedCategoryId = categoryId;
+
+        BulkRepriceResponse resp = new BulkRepriceResponse();
+        List<ProductPriceChange> applied = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            int afterId = 0;
+            while (true) {
+                List<ProductPriceChange> batch = productRepositryObj.repriceBatch(
+                        request, selectedCategoryId, request.getProductIds(), afterId, repriceBatchSize);
+                if (batch.isEmpty()) break;
+
+                // thrown inside the transaction, so the batches already updated roll back with it
+                if (resp.getMatched() + batch.size() > maxRepriceProducts) {
+                    throw new BadRequestException("Selection matches more than " + maxRepriceProducts
+                            + " products; narrow it down");
+                }
+
+                for (ProductPriceChange c : batch) {
+                    if (c.isUpdated()) {
+                        applied.add(c);
+                        resp.setUpdated(resp.getUpdated() + 1);
+                    } else if (c.getNewPrice().compareTo(c.getOldPrice()) == 0) {
+                        resp.setUnchanged(resp.getUnchanged() + 1);
+                    } else {
+                        resp.setRejected(resp.getRejected() + 1);
+                    }
+                    if (resp.getChanges().size() < maxRepriceChanges) resp.getChanges().add(c);
+                }
+                resp.setMatched(resp.getMatched() + batch.size());
+
+                afterId = batch.get(batch.size() - 1).getId();
+                if (batch.size() < repriceBatchSize) break;
+            }
+        });
+
+        if (!applied.isEmpty()) {
+            List<Integer> updatedIds = new ArrayList<>(applied.size());
+            for (ProductPriceChange c : applied) {
+                updatedIds.add(c.getId());
+                productFacetIndexObj.put(c.getId(), c.getCategoryId(),
+                        c.getCategory() == null ? null : c.getCategory().trim(), c.getNewPrice());
+            }
+            productCatalogCacheObj.invalidateAll(updatedIds);
+            productCatalogSnapshotObj.invalidate();
+        }
+        return resp;
+    }
+
+    /* ---------------- Category Dictionary ---------------- */
+    // dictionary id for a category name, adding the name on first use; blank means no category
+    private Integer resolveCategoryId(String category) {
+        String name = category == null ? "" : category.trim();
+        if (name.isEmpty()) return null;
+
+        Optional<ProductCategoryModel> existing = productCategoryRepositryObj.findByName(name);
+        if (existing.isPresent()) return existing.get().getId();
+
+        productCategoryRepositryObj.insertIfAbsent(name);
+        return productCategoryRepositryObj.findByName(name)
+                .map(ProductCategoryModel::getId)
+                .orElseThrow(() -> new IllegalStateException("Category vanished right after insert: " + name));
+    }
+
+    private void indexFacets(ProductModel p) {
+        String categoryName = p.getCategory() == null ? null : p.getCategory().trim();
+        productFacetIndexObj.put(p.getId(), p.getCategoryId(), categoryName, p.getPrice());
+    }
+
     /* ---------------- Build Response ---------------- */
     public ProductResponse buildProductResponse(ProductModel p) {
         ProductResponse r = new ProductResponse();
@@ -0,0 +1,426 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import java.lang.reflect.Array;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSuggestMetricsResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSuggestion;
+
+/**
+ * In-memory typeahead over product names and categories; suggest() never touches the database.
+ *
+ * Every name and category is indexed under each of its word starts ("satin ribbon" under "satin ribbon" and
+ * "ribbon"), in an array sorted by key so a prefix is a binary-searched range. Suggestions are ranked by units
+ * sold over the last products.suggest.popularity-days (from the sales rollups). When a prefix is so short that
+ * its range is large, the popularity-ordered array is walked instead; the first matches found there are the answer.
+ *
+ * The index is immutable and swapped whole, so readers never lock. ProductService patches it after each write
+ * (one sorted merge, O(n), per write or per import batch); a scheduled full rebuild refreshes popularity and
+ * repairs anything a patch missed.
+ */
+@Component
+public class ProductSuggestIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestIndex.class);
+
+    public static final String TYPE_PRODUCT = "PRODUCT";
+    public static final String TYPE_CATEGORY = "CATEGORY";
+
+    // past this many matching keys, scanning by popularity finds the top results sooner than ranking the range
+    private static final int RANGE_SCAN_LIMIT = 256;
+
+    private static final Comparator<Term> KEY_ORDER = Comparator.comparing((Term t) -> t.key)
+            .thenComparing(t -> t.target, Comparator.comparingLong((Suggestion s) -> -s.popularity))
+            .thenComparing(t -> t.target.id);
+
+    private static final Comparator<Suggestion> POPULARITY_ORDER = Comparator.comparingLong((Suggestion s) -> -s.popularity)
+            .thenComparing(s -> s.id);
+
+    @Value("${products.suggest.popularity-days:90}")
+    private int popularityDays;
+
+    @Autowired
+    private ProductRepositry productRepositryObj;
+
+    private volatile Index index = new Index(new Term[0], new Suggestion[0], 0);
+
+    // state the patches work from; all guarded by this
+    private final Map<Integer, IndexedProduct> products = new HashMap<>();
+    private final Map<String, CategoryState> categories = new HashMap<>();
+    private Map<Integer, Long> unitsSold = Map.of();
+    private long patches;
+
+    // one rebuild at a time; separate from the monitor so patches are not blocked while a rebuild reads
+    private final Object rebuildLock = new Object();
+
+    // writes that land while a rebuild is reading the table, replayed over what it read (null value = deleted)
+    private Map<Integer, IndexedProduct> patchedDuringLoad;
+
+    /* ---------------- Reads ---------------- */
+
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+
+        String p = normalize(prefix);
+        List<ProductSuggestion> out = new ArrayList<>(limit);
+        if (p.isEmpty()) return out;
+
+        Index idx = index;
+        int from = lowerBound(idx.byKey, p);
+        int to = lowerBound(idx.byKey, p + Character.MAX_VALUE);
+
+        if (to - from <= RANGE_SCAN_LIMIT) {
+            // the same suggestion can match under several of its keys; keep its first (best ranked) hit
+            Set<Suggestion> seen = new HashSet<>();
+            List<Suggestion> matches = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                if (seen.add(idx.byKey[i].target)) matches.add(idx.byKey[i].target);
+            }
+            matches.sort(POPULARITY_ORDER);
+            for (int i = 0; i < matches.size() && out.size() < limit; i++) {
+                out.add(matches.get(i).toResponse());
+            }
+        } else {
+            for (Suggestion s : idx.byPopularity) {
+                if (s.matches(p)) {
+                    out.add(s.toResponse());
+                    if (out.size() == limit) break;
+                }
+            }
+        }
+        return out;
+    }
+
+    public ProductSuggestMetricsResponse getMetrics() {
+        ProductSuggestMetricsResponse m = new ProductSuggestMetricsResponse();
+        Index idx = index;
+        synchronized (this) {
+            m.setProducts(products.size());
+            m.setCategories(categories.size());
+            m.setPatches(patches);
+        }
+        m.setKeys(idx.byKey.length);
+        m.setEstimatedBytes(estimateBytes(idx));
+        m.setBuiltAtMillis(idx.builtAtMillis);
+        return m;
+    }
+
+    /* ---------------- Patches (called by ProductService after a write) ---------------- */
+
+    public synchronized void put(ProductModel p) {
+        putAll(List.of(p));
+    }
+
+    // one merge for the whole batch, for bulk writes
+    public synchronized void putAll(Collection<ProductModel> ps) {
+        Map<Integer, IndexedProduct> changes = new HashMap<>();
+        for (ProductModel p : ps) {
+            changes.put(p.getId(), new IndexedProduct(p.getProductName(), p.getCategory()));
+        }
+        apply(changes);
+    }
+
+    public synchronized void remove(int productId) {
+        Map<Integer, IndexedProduct> changes = new HashMap<>();
+        changes.put(productId, null);
+        apply(changes);
+    }
+
+    // changes maps product id to its new state, null for a delete
+    private void apply(Map<Integer, IndexedProduct> changes) {
+
+        if (patchedDuringLoad != null) patchedDuringLoad.putAll(changes);
+        patches += changes.size();
+
+        Set<String> touchedCategories = new HashSet<>();
+        List<Suggestion> added = new ArrayList<>();
+
+        for (Map.Entry<Integer, IndexedProduct> e : changes.entrySet()) {
+            int id = e.getKey();
+            IndexedProduct now = e.getValue();
+            IndexedProduct before = now == null ? products.remove(id) : products.put(id, now);
+            long units = unitsSold.getOrDefault(id, 0L);
+
+            if (before != null && before.categoryKey != null) {
+                touchedCategories.add(before.categoryKey);
+                adjustCategory(before.category, before.categoryKey, -1, -units);
+            }
+            if (now != null && now.categoryKey != null) {
+                touchedCategories.add(now.categoryKey);
+                adjustCategory(now.category, now.categoryKey, 1, units);
+            }
+            if (now != null && now.nameKey != null) {
+                added.add(Suggestion.product(id, now.name, now.nameKey, units));
+            }
+        }
+
+        for (String key : touchedCategories) {
+            CategoryState c = categories.get(key);
+            if (c != null) added.add(Suggestion.category(c.text, key, c.units));
+        }
+
+        Predicate<Suggestion> replaced = s -> (s.productId != null && changes.containsKey(s.productId))
+                || (s.productId == null && touchedCategories.contains(s.nameKey));
+        index = merge(index, replaced, added);
+    }
+
+    private void adjustCategory(String text, String key, int count, long units) {
+        CategoryState c = categories.computeIfAbsent(key, k -> new CategoryState(text));
+        c.products += count;
+        c.units += units;
+        if (c.products <= 0) categories.remove(key);
+    }
+
+    /* ---------------- Full rebuild ---------------- */
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            // suggest answers empty until the next scheduled rebuild succeeds
+            log.warn("Suggest index could not be built at startup", ex);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${products.suggest.refresh-ms:3600000}",
+            fixedDelayString = "${products.suggest.refresh-ms:3600000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            rebuildLocked();
+        }
+    }
+
+    private void rebuildLocked() {
+
+        synchronized (this) {
+            patchedDuringLoad = new HashMap<>();
+        }
+
+        // read outside the lock so product writes are not held up by the table scan
+        Map<Integer, IndexedProduct> loaded = new HashMap<>();
+        Map<Integer, Long> loadedUnits;
+        try {
+            for (ProductModel p : productRepositryObj.findAll()) {
+                loaded.put(p.getId(), new IndexedProduct(p.getProductName(), p.getCategory()));
+            }
+            loadedUnits = productRepositryObj.findUnitsSoldSince(LocalDate.now().minusDays(popularityDays));
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                patchedDuringLoad = null;
+            }
+            throw ex;
+        }
+
+        synchronized (this) {
+            for (Map.Entry<Integer, IndexedProduct> e : patchedDuringLoad.entrySet()) {
+                if (e.getValue() == null) loaded.remove(e.getKey());
+                else loaded.put(e.getKey(), e.getValue());
+            }
+            patchedDuringLoad = null;
+
+            products.clear();
+            products.putAll(loaded);
+            unitsSold = loadedUnits;
+            categories.clear();
+
+            List<Suggestion> all = new ArrayList<>(products.size());
+            for (Map.Entry<Integer, IndexedProduct> e : products.entrySet()) {
+                IndexedProduct ip = e.getValue();
+                long units = unitsSold.getOrDefault(e.getKey(), 0L);
+                if (ip.nameKey != null) all.add(Suggestion.product(e.getKey(), ip.name, ip.nameKey, units));
+                if (ip.categoryKey != null) adjustCategory(ip.category, ip.categoryKey, 1, units);
+            }
+            for (Map.Entry<String, CategoryState> e : categories.entrySet()) {
+                all.add(Suggestion.category(e.getValue().text, e.getKey(), e.getValue().units));
+            }
+
+            index = merge(new Index(new Term[0], new Suggestion[0], 0), s -> false, all);
+            log.debug("Suggest index rebuilt: {} products, {} categories, {} keys, ~{} bytes",
+                    products.size(), categories.size(), index.byKey.length, estimateBytes(index));
+        }
+    }
+
+    /* ---------------- Index internals ---------------- */
+
+    // drops the suggestions matching replaced and merges in added, producing both orderings in one linear pass each
+    private static Index merge(Index base, Predicate<Suggestion> replaced, List<Suggestion> added) {
+
+        Suggestion[] addSuggestions = added.toArray(new Suggestion[0]);
+        Arrays.sort(addSuggestions, POPULARITY_ORDER);
+
+        List<Term> addTermList = new ArrayList<>();
+        for (Suggestion s : addSuggestions) {
+            for (String key : s.keys) addTermList.add(new Term(key, s));
+        }
+        Term[] addTerms = addTermList.toArray(new Term[0]);
+        Arrays.sort(addTerms, KEY_ORDER);
+
+        Term[] byKey = mergeSorted(base.byKey, t -> replaced.test(t.target), addTerms, KEY_ORDER);
+        Suggestion[] byPopularity = mergeSorted(base.byPopularity, replaced, addSuggestions, POPULARITY_ORDER);
+        return new Index(byKey, byPopularity, System.currentTimeMillis());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T[] mergeSorted(T[] base, Predicate<T> drop, T[] add, Comparator<T> order) {
+
+        T[] out = (T[]) Array.newInstance(base.getClass().getComponentType(), base.length + add.length);
+        int i = 0, j = 0, n = 0;
+        while (i < base.length || j < add.length) {
+            if (i < base.length && drop.test(base[i])) {
+                i++;
+            } else if (j >= add.length || (i < base.length && order.compare(base[i], add[j]) <= 0)) {
+                out[n++] = base[i++];
+            } else {
+                out[n++] = add[j++];
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static int lowerBound(Term[] terms, String key) {
+        int lo = 0, hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].key.compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // lower case, runs of anything but letters and digits become one space
+    static String normalize(String text) {
+        if (text == null) return "";
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // rough retained size: object headers, references and Latin-1 string bytes on a 64-bit JVM with compressed oops
+    private static long estimateBytes(Index idx) {
+        long bytes = 16L + 4L * idx.byKey.length + 16L + 4L * idx.byPopularity.length;
+        for (Term t : idx.byKey) {
+            bytes += 24 + 40 + t.key.length();
+        }
+        for (Suggestion s : idx.byPopularity) {
+            bytes += 40 + 40 + s.text.length() + 16 + 4L * s.keys.length;
+        }
+        return bytes;
+    }
+
+    private static final class Index {
+        private final Term[] byKey;
+        private final Suggestion[] byPopularity;
+        private final long builtAtMillis;
+
+        private Index(Term[] byKey, Suggestion[] byPopularity, long builtAtMillis) {
+            this.byKey = byKey;
+            this.byPopularity = byPopularity;
+            this.builtAtMillis = builtAtMillis;
+        }
+    }
+
+    private static final class Term {
+        private final String key;
+        private final Suggestion target;
+
+        private Term(String key, Suggestion target) {
+            this.key = key;
+            this.target = target;
+        }
+    }
+
+    private static final class Suggestion {
+        private final String id;
+        private final String type;
+        private final String text;
+        private final Integer productId;
+        private final String nameKey;
+        private final String[] keys;
+        private final long popularity;
+
+        private Suggestion(String id, String type, String text, Integer productId, String nameKey, long popularity) {
+            this.id = id;
+            this.type = type;
+            this.text = text;
+            this.productId = productId;
+            this.nameKey = nameKey;
+            this.keys = wordStarts(nameKey);
+            this.popularity = popularity;
+        }
+
+        private static Suggestion product(int productId, String name, String nameKey, long units) {
+            return new Suggestion("p" + productId, TYPE_PRODUCT, name, productId, nameKey, units);
+        }
+
+        private static Suggestion category(String text, String key, long units) {
+            return new Suggestion("c" + key, TYPE_CATEGORY, text, null, key, units);
+        }
+
+        private boolean matches(String prefix) {
+            for (String key : keys) {
+                if (key.startsWith(prefix)) return true;
+            }
+            return false;
+        }
+
+        private ProductSuggestion toResponse() {
+            return new ProductSuggestion(type, text, productId);
+        }
+
+        // "red satin ribbon" -> "red satin ribbon", "satin ribbon", "ribbon"
+        private static String[] wordStarts(String key) {
+            List<String> starts = new ArrayList<>();
+            starts.add(key);
+            for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+                starts.add(key.substring(i + 1));
+            }
+            return starts.toArray(new String[0]);
+        }
+    }
+
+    private static final class IndexedProduct {
+        private final String name;
+        private final String nameKey;
+        private final String category;
+        private final String categoryKey;
+
+        private IndexedProduct(String name, String category) {
+            String n = normalize(name);
+            String c = normalize(category);
+            this.name = name;
+            this.nameKey = n.isEmpty() ? null : n;
+            this.category = category == null ? null : category.trim();
+            this.categoryKey = c.isEmpty() ? null : c;
+        }
+    }
+
+    private static final class CategoryState {
+        private final String text;
+        private int products;
+        private long units;
+
+        private CategoryState(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.ribbony.ribbony.Modules.ProductModule.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Product storage that Hibernate's schema generation cannot express. Runs once the entity tables exist;
+ * every statement is idempotent, so it is safe on each start.
+ *
+ * search_vector is a stored generated tsvector over name (weight A), category (B) and description (C).
+ * Postgres recomputes it on every insert and update, so it cannot drift from the row; the entity does not map it.
+ * The 'simple' configuration does no stemming, which keeps prefix queries matching what the user typed.
+ *
+ * The last two statements backfill the product_categories dictionary and product.category_id for rows written
+ * before the dictionary existed; ProductService fills both for every write since.
+ */
+@Component
+public class ProductSchemaInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSchemaInitializer.class);
+
+    private static final String[] STATEMENTS = {
+            "ALTER TABLE product ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                    + "setweight(to_tsvector('simple', coalesce(product_name, '')), 'A') || "
+                    + "setweight(to_tsvector('simple', coalesce(category, '')), 'B') || "
+                    + "setweight(to_tsvector('simple', coalesce(description, '')), 'C')"
+                    + ") STORED",
+
+            "CREATE INDEX IF NOT EXISTS idx_product_search_vector ON product USING gin (search_vector)",
+
+            "INSERT INTO product_categories (name, created_at, updated_at) "
+                    + "SELECT DISTINCT btrim(category), now(), now() FROM product "
+                    + "WHERE category_id IS NULL AND btrim(category) <> '' "
+                    + "ON CONFLICT (name) DO NOTHING",
+
+            "UPDATE product p SET category_id = c.id FROM product_categories c "
+                    + "WHERE p.category_id IS NULL AND c.name = btrim(p.category)"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String sql : STATEMENTS) {
+            jdbcTemplate.execute(sql);
+        }
+        log.debug("Product schema verified");
+    }
+}
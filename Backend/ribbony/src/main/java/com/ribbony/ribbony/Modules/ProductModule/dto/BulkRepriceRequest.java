@@ -0,0 +1,36 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+// select products by category or by id (exactly one), then set a price or scale by a percentage, then round
+@Data
+public class BulkRepriceRequest {
+
+    private String category;
+
+    private List<Integer> productIds;
+
+    // absolute new price; cannot be combined with percent
+    @Positive(message = "price must be positive")
+    private BigDecimal price;
+
+    // -20 is 20% off, 10 is 10% up
+    @DecimalMin(value = "-100", inclusive = false, message = "percent must be greater than -100")
+    @DecimalMax(value = "1000", message = "percent must be at most 1000")
+    private BigDecimal percent;
+
+    // round to the nearest multiple, e.g. 0.05
+    @Positive(message = "roundTo must be positive")
+    private BigDecimal roundTo;
+
+    // replace the cents, e.g. 0.99 turns 12.40 into 12.99
+    @DecimalMin(value = "0", message = "ending must be between 0 and 0.99")
+    @DecimalMax(value = "0.99", message = "ending must be between 0 and 0.99")
+    private BigDecimal ending;
+}
@@ -0,0 +1,22 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class BulkRepriceResponse {
+
+    private long matched;
+    private long updated;
+
+    // new price already equal to the old one
+    private long unchanged;
+
+    // new price would be zero or below, or too large for the column; those products keep their price
+    private long rejected;
+
+    // per-product detail for the first products.reprice.max-reported-changes products
+    private List<ProductPriceChange> changes = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+
+    // category id, or price bucket index
+    private Integer id;
+    private String label;
+    private int count;
+}
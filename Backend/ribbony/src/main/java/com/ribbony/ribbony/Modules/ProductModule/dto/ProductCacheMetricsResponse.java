@@ -0,0 +1,25 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import lombok.Data;
+
+@Data
+public class ProductCacheMetricsResponse {
+
+    private boolean enabled;
+    private int size;
+    private int capacity;
+    private long ttlSeconds;
+
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long evictions;
+    private long invalidations;
+
+    // age of the oldest entry currently held, null when the cache is empty
+    private Long oldestEntryAgeMillis;
+
+    // how old the served data was, averaged over and at most across all hits
+    private long averageAgeAtHitMillis;
+    private long maxAgeAtHitMillis;
+}
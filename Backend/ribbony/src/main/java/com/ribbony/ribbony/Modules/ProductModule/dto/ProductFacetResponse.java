@@ -0,0 +1,20 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProductFacetResponse {
+
+    // products matching every selected facet
+    private int total;
+
+    // each facet is counted with the other facet's selection applied but not its own
+    private List<FacetCount> categories;
+    private List<FacetCount> priceBuckets;
+
+    // newest first
+    private List<ProductResponse> products;
+    private String nextCursor;
+}
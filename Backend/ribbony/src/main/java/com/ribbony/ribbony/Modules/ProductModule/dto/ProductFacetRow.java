@@ -0,0 +1,16 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// the columns the facet index is built from
+@Data
+@AllArgsConstructor
+public class ProductFacetRow {
+
+    private Integer id;
+    private Integer categoryId;
+    private BigDecimal price;
+}
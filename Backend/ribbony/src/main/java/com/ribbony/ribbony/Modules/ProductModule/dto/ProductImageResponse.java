@@ -0,0 +1,26 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImageResponse {
+
+    // SHA-256 of the uploaded bytes
+    private String hash;
+    private String contentType;
+    private long bytes;
+    private int width;
+    private int height;
+
+    // path to store in a product's productImage
+    private String url;
+
+    // longest side in pixels -> thumbnail path
+    private Map<Integer, String> thumbnails;
+}
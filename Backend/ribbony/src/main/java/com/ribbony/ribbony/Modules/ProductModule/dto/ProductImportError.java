@@ -0,0 +1,18 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportError {
+
+    // 1-based line (CSV: where the record starts) in the uploaded body
+    private long line;
+
+    // product name from the row when it could be read
+    private String name;
+    private String message;
+}
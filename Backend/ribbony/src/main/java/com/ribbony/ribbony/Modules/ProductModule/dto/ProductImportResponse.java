@@ -0,0 +1,18 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProductImportResponse {
+
+    private long rowsRead;
+    private long inserted;
+    private long updated;
+    private long failed;
+
+    // the first products.import.max-reported-errors failures; failed has the full count
+    private List<ProductImportError> errors = new ArrayList<>();
+}
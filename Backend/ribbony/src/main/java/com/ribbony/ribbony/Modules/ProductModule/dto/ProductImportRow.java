@@ -0,0 +1,19 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+// one validated import row on its way to a batched write; id is set when it updates an existing product
+@Data
+public class ProductImportRow {
+
+    private long line;
+    private Integer id;
+    private String name;
+    private BigDecimal price;
+    private String description;
+    private String category;
+    private Integer categoryId;
+    private String productImage;
+}
@@ -0,0 +1,15 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+@Data
+public class ProductListFilter {
+
+    private String category;
+
+    // inclusive price bounds
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+}
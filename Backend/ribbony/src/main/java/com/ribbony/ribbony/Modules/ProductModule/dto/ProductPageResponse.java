@@ -0,0 +1,14 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ProductPageResponse {
+
+    private List<ProductResponse> products;
+
+    // opaque keyset cursor for the next page, null when this is the last page
+    private String nextCursor;
+}
@@ -0,0 +1,28 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one selected product in a repricing batch; updated is false when the new price was rejected or unchanged
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceChange {
+
+    private Integer id;
+    private BigDecimal oldPrice;
+    private BigDecimal newPrice;
+    private boolean updated;
+
+    // for patching the facet index, not part of the response
+    @JsonIgnore
+    private Integer categoryId;
+
+    @JsonIgnore
+    private String category;
+}
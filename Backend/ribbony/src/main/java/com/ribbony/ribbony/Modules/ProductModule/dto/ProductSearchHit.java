@@ -0,0 +1,13 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// one full-text match: the product id and its ts_rank_cd score for the query
+@Data
+@AllArgsConstructor
+public class ProductSearchHit {
+
+    private Integer id;
+    private float rank;
+}
@@ -0,0 +1,21 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import lombok.Data;
+
+@Data
+public class ProductSuggestMetricsResponse {
+
+    private int products;
+    private int categories;
+
+    // indexed word starts across all names and categories
+    private int keys;
+
+    // approximate heap held by the index arrays, keys and suggestions
+    private long estimatedBytes;
+
+    private long builtAtMillis;
+
+    // incremental updates applied since startup
+    private long patches;
+}
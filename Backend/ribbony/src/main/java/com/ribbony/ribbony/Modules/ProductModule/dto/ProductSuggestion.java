@@ -0,0 +1,18 @@
+package com.ribbony.ribbony.Modules.ProductModule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+
+    // PRODUCT or CATEGORY
+    private String type;
+    private String text;
+
+    // set for PRODUCT suggestions only
+    private Integer productId;
+}
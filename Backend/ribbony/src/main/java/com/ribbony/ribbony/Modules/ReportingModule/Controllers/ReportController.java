@@ -0,0 +1,63 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Controllers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import com.ribbony.ribbony.Modules.ReportingModule.Services.SalesRollupService;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.CategoryRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.DailyRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.ProductRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.ReconcileReport;
+
+@RestController
+@RequestMapping("/reports")
+public class ReportController {
+
+    @Autowired
+    private SalesRollupService salesRollupServiceObj;
+
+    @GetMapping("/revenue/daily")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<List<DailyRevenueResponse>> getDailyRevenue(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return ResponseEntity.ok(salesRollupServiceObj.getDailyRevenue(from, to));
+    }
+
+    @GetMapping("/revenue/products")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<List<ProductRevenueResponse>> getProductRevenue(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+
+        return ResponseEntity.ok(salesRollupServiceObj.getProductRevenue(from, to, limit));
+    }
+
+    @GetMapping("/revenue/categories")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<List<CategoryRevenueResponse>> getCategoryRevenue(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return ResponseEntity.ok(salesRollupServiceObj.getCategoryRevenue(from, to));
+    }
+
+    // recounts the window from the order tables; repair=true rewrites drifted rollups
+    @PostMapping("/reconcile")
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<ReconcileReport> reconcile(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "repair", defaultValue = "false") boolean repair) {
+
+        return ResponseEntity.ok(salesRollupServiceObj.reconcile(from, to, repair));
+    }
+}
@@ -0,0 +1,15 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Models;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesCategoryRollupId implements Serializable {
+
+    private LocalDate day;
+    private String category;
+}
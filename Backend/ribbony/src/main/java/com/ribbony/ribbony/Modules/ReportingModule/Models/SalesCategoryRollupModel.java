@@ -0,0 +1,38 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * Units and revenue of non-cancelled orders per order day and product category
+ * (the product's category at the time the rollup row was written).
+ */
+@Entity
+@Table(name = "sales_category_rollups")
+@IdClass(SalesCategoryRollupId.class)
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesCategoryRollupModel {
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "category", length = 100)
+    private String category;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,34 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * Revenue of non-cancelled orders per order day, maintained incrementally by OrderService writes.
+ */
+@Entity
+@Table(name = "sales_daily_rollups")
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesDailyRollupModel {
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,37 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.*;
+
+/**
+ * Units and revenue of non-cancelled orders per order day and product.
+ */
+@Entity
+@Table(name = "sales_product_rollups")
+@IdClass(SalesProductRollupId.class)
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesProductRollupModel {
+
+    @Id
+    @Column(name = "day")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+
+    @Column(name = "units", nullable = false)
+    private long units;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,13 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Repo;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.ribbony.ribbony.Modules.ReportingModule.Models.SalesDailyRollupModel;
+
+public interface SalesRollupRepositry extends JpaRepository<SalesDailyRollupModel, LocalDate>, SalesRollupRepositryCustom {
+
+    List<SalesDailyRollupModel> findByDayBetweenOrderByDayAsc(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,32 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Repo;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import com.ribbony.ribbony.Modules.ReportingModule.dto.CategoryRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.ProductRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.RollupDrift;
+
+public interface SalesRollupRepositryCustom {
+
+    // adds (sign = 1) or subtracts (sign = -1) the given orders' totals to the day, product and category rollups;
+    // holds a shared lock on each order day until the transaction ends, see lockDay
+    void applyOrders(Collection<Integer> orderIds, int sign);
+
+    // per-product totals over [from, to], highest revenue first
+    List<ProductRevenueResponse> findProductRevenue(LocalDate from, LocalDate to, int limit);
+
+    // per-category totals over [from, to], highest revenue first
+    List<CategoryRevenueResponse> findCategoryRevenue(LocalDate from, LocalDate to);
+
+    // blocks incremental rollup writes to orders of that day until the current transaction ends
+    void lockDay(LocalDate day);
+
+    // rollup rows in [from, to] that disagree with a recount of non-cancelled orders
+    List<RollupDrift> findDrift(LocalDate from, LocalDate to);
+
+    // replaces every rollup row in [from, to] with a recount from orders/order_items; returns rows written.
+    // The caller holds lockDay for each day of the window
+    int rebuildWindow(LocalDate from, LocalDate to);
+}
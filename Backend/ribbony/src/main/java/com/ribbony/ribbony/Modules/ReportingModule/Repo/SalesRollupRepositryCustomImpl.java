@@ -0,0 +1,222 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Repo;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ribbony.ribbony.Modules.ReportingModule.dto.CategoryRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.ProductRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.RollupDrift;
+
+public class SalesRollupRepositryCustomImpl implements SalesRollupRepositryCustom {
+
+    // each base query aggregates orders from the orders (%1$s) and items (%2$s) relations matching %3$s;
+    // the same text feeds incremental upserts, drift checks and rebuilds
+    private static final String DAY_BASE =
+            "SELECT CAST(o.created_at AS date) AS day, COUNT(*) AS order_count, "
+                    + "COALESCE(SUM(i.units), 0) AS units, SUM(o.total_price) AS revenue "
+                    + "FROM %1$s o "
+                    + "LEFT JOIN LATERAL (SELECT SUM(it.quantity) AS units FROM %2$s it WHERE it.order_id = o.id) i ON true "
+                    + "WHERE %3$s "
+                    + "GROUP BY CAST(o.created_at AS date)";
+
+    private static final String PRODUCT_BASE =
+            "SELECT CAST(o.created_at AS date) AS day, i.product_id, "
+                    + "SUM(i.quantity) AS units, SUM(i.quantity * i.price_at_time) AS revenue "
+                    + "FROM %1$s o "
+                    + "JOIN %2$s i ON i.order_id = o.id "
+                    + "WHERE %3$s "
+                    + "GROUP BY CAST(o.created_at AS date), i.product_id";
+
+    // keyed on the category recorded on the line at sale time, never the product's current one, so a later
+    // recategorization moves neither past totals nor the corrections that cancel them
+    private static final String CATEGORY_BASE =
+            "SELECT CAST(o.created_at AS date) AS day, COALESCE(i.category, 'UNCATEGORIZED') AS category, "
+                    + "SUM(i.quantity) AS units, SUM(i.quantity * i.price_at_time) AS revenue "
+                    + "FROM %1$s o "
+                    + "JOIN %2$s i ON i.order_id = o.id "
+                    + "WHERE %3$s "
+                    + "GROUP BY CAST(o.created_at AS date), COALESCE(i.category, 'UNCATEGORIZED')";
+
+    private static final String BY_IDS = "o.id = ANY(?)";
+
+    // advisory lock space for rollup days; the second key is the day's epoch day number
+    private static final String DAY_LOCK_SPACE = "hashtext('sales_rollup_day')";
+
+    // writers share a day, a repair of that day excludes them; days are taken in order so writers never deadlock
+    private static final String LOCK_ORDER_DAYS_SQL =
+            "SELECT pg_advisory_xact_lock_shared(" + DAY_LOCK_SPACE + ", d.day) "
+                    + "FROM (SELECT DISTINCT CAST(created_at AS date) - DATE '1970-01-01' AS day "
+                    + "FROM orders WHERE id = ANY(?)) d ORDER BY d.day";
+
+    // recounts go through the hot+archive views, archived orders stay part of their day's totals
+    private static final String BY_WINDOW = "o.status <> 'CANCELED' AND o.created_at >= ? AND o.created_at < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void applyOrders(Collection<Integer> orderIds, int sign) {
+
+        if (orderIds == null || orderIds.isEmpty()) return;
+        if (sign != 1 && sign != -1) throw new IllegalArgumentException("sign must be 1 or -1");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOCK_ORDER_DAYS_SQL);
+            ps.setArray(1, con.createArrayOf("integer", orderIds.toArray()));
+            return ps;
+        }, rs -> { });
+
+        // rows are proposed in key order so concurrent writers touching the same days lock them in the same order
+        upsertDelta(String.format(
+                "INSERT INTO sales_daily_rollups (day, order_count, units, revenue) "
+                        + "SELECT b.day, %1$d * b.order_count, %1$d * b.units, %1$d * b.revenue FROM (%2$s) b "
+                        + "ORDER BY b.day "
+                        + "ON CONFLICT (day) DO UPDATE SET "
+                        + "order_count = sales_daily_rollups.order_count + EXCLUDED.order_count, "
+                        + "units = sales_daily_rollups.units + EXCLUDED.units, "
+                        + "revenue = sales_daily_rollups.revenue + EXCLUDED.revenue",
+                sign, byIds(DAY_BASE)), orderIds);
+
+        upsertDelta(String.format(
+                "INSERT INTO sales_product_rollups (day, product_id, units, revenue) "
+                        + "SELECT b.day, b.product_id, %1$d * b.units, %1$d * b.revenue FROM (%2$s) b "
+                        + "ORDER BY b.day, b.product_id "
+                        + "ON CONFLICT (day, product_id) DO UPDATE SET "
+                        + "units = sales_product_rollups.units + EXCLUDED.units, "
+                        + "revenue = sales_product_rollups.revenue + EXCLUDED.revenue",
+                sign, byIds(PRODUCT_BASE)), orderIds);
+
+        upsertDelta(String.format(
+                "INSERT INTO sales_category_rollups (day, category, units, revenue) "
+                        + "SELECT b.day, b.category, %1$d * b.units, %1$d * b.revenue FROM (%2$s) b "
+                        + "ORDER BY b.day, b.category "
+                        + "ON CONFLICT (day, category) DO UPDATE SET "
+                        + "units = sales_category_rollups.units + EXCLUDED.units, "
+                        + "revenue = sales_category_rollups.revenue + EXCLUDED.revenue",
+                sign, byIds(CATEGORY_BASE)), orderIds);
+    }
+
+    @Override
+    public List<ProductRevenueResponse> findProductRevenue(LocalDate from, LocalDate to, int limit) {
+
+        return jdbcTemplate.query(
+                "SELECT r.product_id, p.product_name, SUM(r.units) AS units, SUM(r.revenue) AS revenue "
+                        + "FROM sales_product_rollups r "
+                        + "LEFT JOIN product p ON p.id = r.product_id "
+                        + "WHERE r.day BETWEEN ? AND ? "
+                        + "GROUP BY r.product_id, p.product_name "
+                        + "HAVING SUM(r.units) <> 0 OR SUM(r.revenue) <> 0 "
+                        + "ORDER BY revenue DESC, r.product_id "
+                        + "LIMIT ?",
+                (rs, rowNum) -> new ProductRevenueResponse(rs.getInt("product_id"), rs.getString("product_name"),
+                        rs.getLong("units"), rs.getBigDecimal("revenue")),
+                Date.valueOf(from), Date.valueOf(to), limit);
+    }
+
+    @Override
+    public List<CategoryRevenueResponse> findCategoryRevenue(LocalDate from, LocalDate to) {
+
+        return jdbcTemplate.query(
+                "SELECT r.category, SUM(r.units) AS units, SUM(r.revenue) AS revenue "
+                        + "FROM sales_category_rollups r "
+                        + "WHERE r.day BETWEEN ? AND ? "
+                        + "GROUP BY r.category "
+                        + "HAVING SUM(r.units) <> 0 OR SUM(r.revenue) <> 0 "
+                        + "ORDER BY revenue DESC, r.category",
+                (rs, rowNum) -> new CategoryRevenueResponse(rs.getString("category"), rs.getLong("units"),
+                        rs.getBigDecimal("revenue")),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+
+    @Override
+    public void lockDay(LocalDate day) {
+        // waits for writers already holding the day; orders of other days, and reports, are not held up
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(" + DAY_LOCK_SPACE + ", ?)", rs -> { },
+                (int) day.toEpochDay());
+    }
+
+    @Override
+    public List<RollupDrift> findDrift(LocalDate from, LocalDate to) {
+
+        List<RollupDrift> drift = new ArrayList<>();
+        drift.addAll(findDrift(RollupDrift.DAY, DAY_BASE, "sales_daily_rollups", null, true, from, to));
+        drift.addAll(findDrift(RollupDrift.PRODUCT, PRODUCT_BASE, "sales_product_rollups", "product_id", false, from, to));
+        drift.addAll(findDrift(RollupDrift.CATEGORY, CATEGORY_BASE, "sales_category_rollups", "category", false, from, to));
+        return drift;
+    }
+
+    @Override
+    public int rebuildWindow(LocalDate from, LocalDate to) {
+
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.plusDays(1).atStartOfDay());
+        Date fromDay = Date.valueOf(from);
+        Date toDay = Date.valueOf(to);
+
+        for (String table : List.of("sales_daily_rollups", "sales_product_rollups", "sales_category_rollups")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE day BETWEEN ? AND ?", fromDay, toDay);
+        }
+
+        int written = 0;
+        written += jdbcTemplate.update("INSERT INTO sales_daily_rollups (day, order_count, units, revenue) "
+                + byWindow(DAY_BASE), start, end);
+        written += jdbcTemplate.update("INSERT INTO sales_product_rollups (day, product_id, units, revenue) "
+                + byWindow(PRODUCT_BASE), start, end);
+        written += jdbcTemplate.update("INSERT INTO sales_category_rollups (day, category, units, revenue) "
+                + byWindow(CATEGORY_BASE), start, end);
+        return written;
+    }
+
+    private static String byIds(String base) {
+        return String.format(base, "orders", "order_items", BY_IDS);
+    }
+
+    private static String byWindow(String base) {
+        return String.format(base, "orders_all", "order_items_all", BY_WINDOW);
+    }
+
+    private void upsertDelta(String sql, Collection<Integer> orderIds) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("integer", orderIds.toArray()));
+            return ps;
+        });
+    }
+
+    // full join of the recount against the stored rows; a side that is missing counts as zero
+    private List<RollupDrift> findDrift(String scope, String base, String table, String keyColumn, boolean hasOrderCount,
+            LocalDate from, LocalDate to) {
+
+        String join = keyColumn == null ? "r.day = b.day" : "r.day = b.day AND r." + keyColumn + " = b." + keyColumn;
+        String key = keyColumn == null ? "NULL" : "CAST(COALESCE(b." + keyColumn + ", r." + keyColumn + ") AS varchar)";
+        String expectedOrders = hasOrderCount ? "COALESCE(b.order_count, 0)" : "0";
+        String actualOrders = hasOrderCount ? "COALESCE(r.order_count, 0)" : "0";
+
+        String sql = "SELECT COALESCE(b.day, r.day) AS day, " + key + " AS rollup_key, "
+                + expectedOrders + " AS expected_orders, " + actualOrders + " AS actual_orders, "
+                + "COALESCE(b.units, 0) AS expected_units, COALESCE(r.units, 0) AS actual_units, "
+                + "COALESCE(b.revenue, 0) AS expected_revenue, COALESCE(r.revenue, 0) AS actual_revenue "
+                + "FROM (" + byWindow(base) + ") b "
+                + "FULL JOIN (SELECT * FROM " + table + " WHERE day BETWEEN ? AND ?) r ON " + join + " "
+                + "WHERE " + expectedOrders + " <> " + actualOrders + " "
+                + "OR COALESCE(b.units, 0) <> COALESCE(r.units, 0) "
+                + "OR COALESCE(b.revenue, 0) <> COALESCE(r.revenue, 0) "
+                + "ORDER BY 1, 2";
+
+        return jdbcTemplate.query(sql,
+                (rs, rowNum) -> new RollupDrift(scope, rs.getObject("day", LocalDate.class), rs.getString("rollup_key"),
+                        rs.getLong("expected_orders"), rs.getLong("actual_orders"),
+                        rs.getLong("expected_units"), rs.getLong("actual_units"),
+                        rs.getBigDecimal("expected_revenue"), rs.getBigDecimal("actual_revenue")),
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()),
+                Date.valueOf(from), Date.valueOf(to));
+    }
+}
@@ -0,0 +1,45 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Services;
+
+import java.time.LocalDate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ribbony.ribbony.Modules.ReportingModule.dto.ReconcileReport;
+
+/**
+ * Nightly check of the most recent days of sales rollups against the order tables.
+ */
+@Component
+public class SalesRollupReconcileJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupReconcileJob.class);
+
+    @Value("${reports.rollups.reconcile.days:3}")
+    private int days;
+
+    @Value("${reports.rollups.reconcile.repair:true}")
+    private boolean repair;
+
+    @Autowired
+    private SalesRollupService salesRollupServiceObj;
+
+    @Scheduled(cron = "${reports.rollups.reconcile.cron:0 15 3 * * *}")
+    public void reconcileRecentDays() {
+
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(days, 1) - 1L);
+
+        try {
+            ReconcileReport report = salesRollupServiceObj.reconcile(from, to, repair);
+            log.info("Sales rollup reconcile {}..{}: {} drifted row(s), repaired={}",
+                    from, to, report.getDriftCount(), report.isRepaired());
+        } catch (RuntimeException ex) {
+            log.error("Sales rollup reconcile {}..{} failed", from, to, ex);
+        }
+    }
+}
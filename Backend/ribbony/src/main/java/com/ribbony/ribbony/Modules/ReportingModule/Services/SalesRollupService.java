@@ -0,0 +1,152 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Services;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.ReportingModule.Models.SalesDailyRollupModel;
+import com.ribbony.ribbony.Modules.ReportingModule.Repo.SalesRollupRepositry;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.CategoryRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.DailyRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.ProductRevenueResponse;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.ReconcileReport;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.RollupDrift;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+
+/**
+ * Keeps the sales rollups in step with order writes and serves revenue reports from them.
+ * Only non-cancelled orders count: an order is added when placed, subtracted when it becomes CANCELED
+ * and added back if it ever leaves CANCELED. The write hooks must run inside the order's transaction.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final int MAX_REPORT_DAYS = 366;
+
+    private static final int MAX_PRODUCT_ROWS = 500;
+
+    @Autowired
+    private SalesRollupRepositry salesRollupRepositryObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrdersPlaced(Collection<Integer> orderIds) {
+        salesRollupRepositryObj.applyOrders(orderIds, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrdersCancelled(Collection<Integer> orderIds) {
+        salesRollupRepositryObj.applyOrders(orderIds, -1);
+    }
+
+    // previousStatus maps each moved order to the status it had before the transition to newStatus
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChanges(Map<Integer, OrderStatus> previousStatus, OrderStatus newStatus) {
+
+        boolean nowCancelled = newStatus == OrderStatus.CANCELED;
+        List<Integer> affected = new ArrayList<>();
+
+        for (Map.Entry<Integer, OrderStatus> e : previousStatus.entrySet()) {
+            boolean wasCancelled = e.getValue() == OrderStatus.CANCELED;
+            if (wasCancelled != nowCancelled) affected.add(e.getKey());
+        }
+
+        salesRollupRepositryObj.applyOrders(affected, nowCancelled ? -1 : 1);
+    }
+
+    @Transactional(readOnly = true)
+    public List<DailyRevenueResponse> getDailyRevenue(LocalDate from, LocalDate to) {
+
+        checkWindow(from, to);
+
+        List<DailyRevenueResponse> out = new ArrayList<>();
+        for (SalesDailyRollupModel r : salesRollupRepositryObj.findByDayBetweenOrderByDayAsc(from, to)) {
+            out.add(new DailyRevenueResponse(r.getDay(), r.getOrderCount(), r.getUnits(), r.getRevenue()));
+        }
+        return out;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductRevenueResponse> getProductRevenue(LocalDate from, LocalDate to, int limit) {
+
+        checkWindow(from, to);
+        if (limit < 1 || limit > MAX_PRODUCT_ROWS) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PRODUCT_ROWS);
+        }
+        return salesRollupRepositryObj.findProductRevenue(from, to, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public List<CategoryRevenueResponse> getCategoryRevenue(LocalDate from, LocalDate to) {
+
+        checkWindow(from, to);
+        return salesRollupRepositryObj.findCategoryRevenue(from, to);
+    }
+
+    /**
+     * Recounts [from, to] from orders/order_items and reports every rollup row that disagrees.
+     * With repair each drifted day is rewritten from a fresh recount in its own short transaction, holding only
+     * that day's lock: orders of the day committed meanwhile are neither lost nor counted twice, and writers to
+     * every other day carry on.
+     */
+    public ReconcileReport reconcile(LocalDate from, LocalDate to, boolean repair) {
+
+        checkWindow(from, to);
+
+        List<RollupDrift> drift = salesRollupRepositryObj.findDrift(from, to);
+
+        ReconcileReport report = new ReconcileReport();
+        report.setFrom(from);
+        report.setTo(to);
+        report.setDriftCount(drift.size());
+        report.setDrift(drift);
+
+        if (!drift.isEmpty()) {
+            log.warn("Sales rollups drifted in {} row(s) between {} and {}", drift.size(), from, to);
+
+            if (repair) {
+                int written = 0;
+                for (LocalDate day : new TreeSet<>(drift.stream().map(RollupDrift::getDay).toList())) {
+                    Integer rows = transactionTemplate.execute(status -> {
+                        salesRollupRepositryObj.lockDay(day);
+                        return salesRollupRepositryObj.rebuildWindow(day, day);
+                    });
+                    written += rows == null ? 0 : rows;
+                }
+                report.setRepaired(true);
+                log.info("Rebuilt {} sales rollup row(s) between {} and {}", written, from, to);
+            }
+        }
+        return report;
+    }
+
+    private void checkWindow(LocalDate from, LocalDate to) {
+
+        if (from == null || to == null) {
+            throw new BadRequestException("from and to are required");
+        }
+        if (to.isBefore(from)) {
+            throw new BadRequestException("to must not be before from");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_REPORT_DAYS) {
+            throw new BadRequestException("Window may span at most " + MAX_REPORT_DAYS + " days");
+        }
+    }
+}
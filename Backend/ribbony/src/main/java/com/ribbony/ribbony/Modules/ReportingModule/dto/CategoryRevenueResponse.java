@@ -0,0 +1,17 @@
+package com.ribbony.ribbony.Modules.ReportingModule.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRevenueResponse {
+
+    private String category;
+    private long units;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,19 @@
+package com.ribbony.ribbony.Modules.ReportingModule.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyRevenueResponse {
+
+    private LocalDate day;
+    private long orderCount;
+    private long units;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,18 @@
+package com.ribbony.ribbony.Modules.ReportingModule.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRevenueResponse {
+
+    private Integer productId;
+    private String productName;
+    private long units;
+    private BigDecimal revenue;
+}
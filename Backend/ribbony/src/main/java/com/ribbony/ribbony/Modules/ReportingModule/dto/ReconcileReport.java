@@ -0,0 +1,19 @@
+package com.ribbony.ribbony.Modules.ReportingModule.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ReconcileReport {
+
+    private LocalDate from;
+    private LocalDate to;
+
+    // true when the rollups in the window were rewritten from the base tables
+    private boolean repaired;
+
+    private int driftCount;
+    private List<RollupDrift> drift;
+}
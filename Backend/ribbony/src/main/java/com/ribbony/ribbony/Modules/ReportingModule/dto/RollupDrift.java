@@ -0,0 +1,35 @@
+package com.ribbony.ribbony.Modules.ReportingModule.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One rollup row whose stored totals differ from a recount of orders/order_items.
+ * "expected" is the recount, "actual" is what the rollup table held.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupDrift {
+
+    public static final String DAY = "DAY";
+    public static final String PRODUCT = "PRODUCT";
+    public static final String CATEGORY = "CATEGORY";
+
+    private String scope;
+    private LocalDate day;
+
+    // product id or category name, null for DAY rows
+    private String key;
+
+    private long expectedOrderCount;
+    private long actualOrderCount;
+    private long expectedUnits;
+    private long actualUnits;
+    private BigDecimal expectedRevenue;
+    private BigDecimal actualRevenue;
+}
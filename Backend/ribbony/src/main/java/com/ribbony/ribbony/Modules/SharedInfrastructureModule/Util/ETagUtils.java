@@ -0,0 +1,28 @@
+package com.ribbony.ribbony.Modules.SharedInfrastructureModule.Util;
+
+/**
+ * Helpers for strong entity tags and If-None-Match checks.
+ */
+public final class ETagUtils {
+
+    private ETagUtils() {
+    }
+
+    // wraps an opaque value as a strong entity tag
+    public static String strong(String value) {
+        return "\"" + value + "\"";
+    }
+
+    // If-None-Match uses weak comparison: W/ prefixes are ignored, * matches any current representation
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) return false;
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
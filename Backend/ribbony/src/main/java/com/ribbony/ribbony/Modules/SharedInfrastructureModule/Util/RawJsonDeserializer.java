@@ -0,0 +1,18 @@
+package com.ribbony.ribbony.Modules.SharedInfrastructureModule.Util;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+/**
+ * Counterpart of @JsonRawValue: reads any JSON value back into its compact text form.
+ */
+public class RawJsonDeserializer extends JsonDeserializer<String> {
+
+    @Override
+    public String deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return p.readValueAsTree().toString();
+    }
+}
@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -53,6 +54,30 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
     }
 
+    // ----------------- UnprocessableEntityException -----------------
+    @ExceptionHandler(UnprocessableEntityException.class)
+    @ResponseBody
+    public ResponseEntity<Object> handleUnprocessableEntity(UnprocessableEntityException ex, HttpServletRequest request) {
+        log.warn("[GlobalExceptionHandler] UnprocessableEntity -> uri={} message={}", request.getRequestURI(), ex.getMessage());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("title", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
+    }
+
+    // ----------------- Optimistic locking (concurrent writes) -----------------
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseBody
+    public ResponseEntity<Object> handleOptimisticLock(OptimisticLockingFailureException ex, HttpServletRequest request) {
+        log.warn("[GlobalExceptionHandler] Concurrent modification -> uri={} message={}", request.getRequestURI(), ex.getMessage());
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("title", "Resource was modified concurrently, please retry");
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
     // ----------------- Validation errors -----------------
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseBody
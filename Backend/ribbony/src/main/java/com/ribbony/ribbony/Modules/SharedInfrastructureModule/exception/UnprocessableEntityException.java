@@ -0,0 +1,10 @@
+package com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class UnprocessableEntityException extends ApiException {
+
+    public UnprocessableEntityException(String message) {
+        super(message, HttpStatus.UNPROCESSABLE_ENTITY.value());
+    }
+}
@@ -0,0 +1,121 @@
+package com.ribbony.ribbony.Modules.OrderModule.Controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.OrderModule.Services.OrderService;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderItemRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductService;
+import com.ribbony.ribbony.Modules.ProductModule.dto.UpdateProductRequest;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class OrderDetailsEndpointTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private ProductService productServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mvc;
+    private UserDetails buyer;
+    private int productId;
+    private int orderId;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+        TestData data = new TestData(jdbcTemplate);
+        buyer = User.withUsername(data.emailOf(data.user())).password("x").roles("USER").build();
+        productId = data.product(TestData.unique("ribbon"), new BigDecimal("4.00"), "Ribbons");
+
+        CreateOrderItemRequest item = new CreateOrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(2);
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setOrderItems(List.of(item));
+        orderId = orderServiceObj.createOrder(request, buyer).getId();
+    }
+
+    @Test
+    void unchangedOrderIsNotModified() throws Exception {
+        String etag = mvc.perform(details(buyer)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"o" + orderId + "-v");
+
+        MvcResult revalidated = mvc.perform(details(buyer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        assertThat(revalidated.getResponse().getContentAsByteArray()).isEmpty();
+        assertThat(revalidated.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).contains("private");
+
+        // another user's tag check never reveals the order
+        TestData data = new TestData(jdbcTemplate);
+        UserDetails stranger = User.withUsername(data.emailOf(data.user())).password("x").roles("USER").build();
+        mvc.perform(details(stranger).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void statusChangeAndProductRenameBothChangeTheTag() throws Exception {
+        String etag = mvc.perform(details(buyer)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // the body shows the product's current name, so a rename must not be answered with 304
+        UpdateProductRequest rename = new UpdateProductRequest();
+        rename.setId(productId);
+        rename.setName(TestData.unique("renamed"));
+        productServiceObj.updateProduct(rename);
+
+        MvcResult renamed = mvc.perform(details(buyer).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        String renamedTag = renamed.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(renamedTag).isNotEqualTo(etag);
+        assertThat(objectMapper.readTree(renamed.getResponse().getContentAsByteArray())
+                .get("orderItems").get(0).get("productName").asText()).isEqualTo(rename.getName());
+
+        orderServiceObj.cancelOrderByUser(orderId, buyer);
+
+        MvcResult canceled = mvc.perform(details(buyer).header(HttpHeaders.IF_NONE_MATCH, renamedTag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(canceled.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(renamedTag);
+        assertThat(objectMapper.readTree(canceled.getResponse().getContentAsByteArray()).get("status").asText())
+                .isEqualTo("CANCELED");
+    }
+
+    private MockHttpServletRequestBuilder details(UserDetails who) {
+        return get("/orders/getOrderDetails/" + orderId).with(user(who));
+    }
+}
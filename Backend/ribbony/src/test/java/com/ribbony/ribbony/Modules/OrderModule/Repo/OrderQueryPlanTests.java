@@ -0,0 +1,126 @@
+package com.ribbony.ribbony.Modules.OrderModule.Repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderListFilter;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+/**
+ * EXPLAINs the statements the admin search and payload stats actually run, against enough rows that the planner
+ * has a real choice, and checks each filter is answered by the index added for it.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderQueryPlanTests extends PostgresIntegrationTest {
+
+    private static final int USERS = 50;
+    private static final int PRODUCTS = 200;
+    private static final int ORDERS = 20_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final OrderRepositryCustomImpl orders = new OrderRepositryCustomImpl();
+    private final OrderItemRepositryCustomImpl items = new OrderItemRepositryCustomImpl();
+
+    private int someUser;
+    private int someProduct;
+
+    @BeforeAll
+    void seed() {
+        TestData data = new TestData(jdbcTemplate);
+        List<Integer> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) users.add(data.user());
+        List<Integer> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) products.add(data.product(TestData.unique("p"), BigDecimal.ONE, "Ribbons"));
+        someUser = users.get(7);
+        someProduct = products.get(13);
+
+        jdbcTemplate.update(
+                "INSERT INTO orders (user_id, status, total_price, version, created_at, updated_at) "
+                        + "SELECT (?::int[])[1 + g % ?], "
+                        + "CASE WHEN g % 50 = 0 THEN 'PENDING' WHEN g % 50 = 1 THEN 'WORK_IN_PROGRESS' "
+                        + "WHEN g % 10 = 2 THEN 'CANCELED' ELSE 'SHIPPED' END, "
+                        + "10, 0, now() - make_interval(mins => g), now() "
+                        + "FROM generate_series(1, ?) g",
+                users.toArray(new Integer[0]), USERS, ORDERS);
+
+        // two lines per new order; one line in 500 carries the rare payload the stats test looks for
+        jdbcTemplate.update(
+                "INSERT INTO order_items (order_id, product_id, price_at_time, quantity, payload, created_at, updated_at) "
+                        + "SELECT o.id, (?::int[])[1 + (o.id * 7 + k) % ?], 5, 1, "
+                        + "CASE WHEN (o.id + k) % 500 = 0 THEN '{\"colour\":\"teal\",\"width\":\"7cm\"}' "
+                        + "ELSE jsonb_build_object('colour', (ARRAY['red','blue','gold','white'])[1 + (o.id + k) % 4], "
+                        + "'width', ((o.id + k) % 6) || 'cm') END::jsonb, now(), now() "
+                        + "FROM (SELECT id FROM orders ORDER BY id DESC LIMIT ?) o CROSS JOIN generate_series(0, 1) k",
+                products.toArray(new Integer[0]), PRODUCTS, ORDERS);
+
+        // VACUUM also merges the GIN pending list, which the planner would otherwise charge for (as autovacuum would)
+        jdbcTemplate.execute("VACUUM ANALYZE orders");
+        jdbcTemplate.execute("VACUUM ANALYZE order_items");
+    }
+
+    @Test
+    void userFilterSeeksTheUserIndex() {
+        OrderListFilter filter = new OrderListFilter();
+        filter.setUserId(someUser);
+        assertThat(planOfPage(filter)).contains("idx_orders_user_created_at").doesNotContain("Seq Scan on orders");
+    }
+
+    @Test
+    void statusFilterSeeksTheStatusIndex() {
+        OrderListFilter filter = new OrderListFilter();
+        // open orders are the few an admin filters for; most of the table has shipped
+        filter.setStatus(OrderStatus.PENDING);
+        assertThat(planOfPage(filter)).contains("idx_orders_status_created_at").doesNotContain("Seq Scan on orders");
+    }
+
+    @Test
+    void unfilteredKeysetPageWalksTheCreatedAtIndex() {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = orders.pageIdsSql(new OrderListFilter(), LocalDateTime.now().minusDays(2), Integer.MAX_VALUE, 51, params);
+        assertThat(explain(sql, params)).contains("idx_orders_created_at_id").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void productFilterStartsFromTheProductIndex() {
+        OrderListFilter filter = new OrderListFilter();
+        filter.setProductId(someProduct);
+        assertThat(planOfPage(filter)).contains("idx_order_items_product_order").doesNotContain("Seq Scan on order_items");
+    }
+
+    @Test
+    void payloadContainmentUsesTheGinIndex() {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = items.aggregateByPayloadSql("{\"colour\":\"teal\",\"width\":\"7cm\"}",
+                Set.of(OrderStatus.PENDING, OrderStatus.SHIPPED), List.of("colour"), 1001, params);
+        assertThat(explain(sql, params)).contains("idx_order_items_payload_path").doesNotContain("Seq Scan on order_items");
+    }
+
+    private String planOfPage(OrderListFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return explain(orders.pageIdsSql(filter, null, null, 51, params), params);
+    }
+
+    private String explain(String sql, MapSqlParameterSource params) {
+        return String.join("\n", namedJdbcTemplate.queryForList("EXPLAIN " + sql, params, String.class));
+    }
+}
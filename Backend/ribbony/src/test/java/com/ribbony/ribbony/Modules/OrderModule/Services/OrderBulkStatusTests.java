@@ -0,0 +1,95 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.BulkOrderStatusResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.BulkOrderStatusResult;
+import com.ribbony.ribbony.Modules.OrderModule.dto.BulkUpdateOrderStatusRequest;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class OrderBulkStatusTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void mixedIdsAreReportedPerIdAndOnlyValidOnesChange() {
+
+        TestData data = new TestData(jdbcTemplate);
+        int userId = data.user();
+        int productId = data.product(TestData.unique("ribbon"), new BigDecimal("5.00"), "Ribbons");
+        LocalDateTime at = LocalDateTime.now().minusHours(2);
+
+        int pending = data.order(userId, OrderStatus.PENDING, at);
+        int inProgress = data.order(userId, OrderStatus.WORK_IN_PROGRESS, at);
+        int alreadyShipped = data.order(userId, OrderStatus.SHIPPED, at);
+        int cancelled = data.order(userId, OrderStatus.CANCELED, at);
+        data.items(List.of(pending, inProgress, alreadyShipped, cancelled), List.of(productId), null);
+        int missing = Integer.MAX_VALUE - 7;
+
+        BulkUpdateOrderStatusRequest request = new BulkUpdateOrderStatusRequest();
+        request.setStatus("SHIPPED");
+        // duplicates and nulls are ignored, request order is kept
+        request.setOrderIds(Arrays.asList(cancelled, pending, missing, null, alreadyShipped, inProgress, pending));
+
+        BulkOrderStatusResponse resp = orderServiceObj.updateOrderStatusBulk(request, null);
+
+        assertThat(resp.getResults()).extracting(BulkOrderStatusResult::getOrderId, BulkOrderStatusResult::getResult)
+                .containsExactly(
+                        tuple(cancelled, BulkOrderStatusResult.INVALID_TRANSITION),
+                        tuple(pending, BulkOrderStatusResult.APPLIED),
+                        tuple(missing, BulkOrderStatusResult.NOT_FOUND),
+                        tuple(alreadyShipped, BulkOrderStatusResult.INVALID_TRANSITION),
+                        tuple(inProgress, BulkOrderStatusResult.APPLIED));
+        assertThat(resp.getApplied()).isEqualTo(2);
+        assertThat(resp.getInvalidTransition()).isEqualTo(2);
+        assertThat(resp.getNotFound()).isEqualTo(1);
+
+        assertThat(data.statusOf(pending)).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(data.statusOf(inProgress)).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(data.statusOf(cancelled)).isEqualTo(OrderStatus.CANCELED);
+        assertThat(data.versionOf(pending)).isEqualTo(1);
+        assertThat(data.versionOf(alreadyShipped)).isZero();
+        assertThat(data.versionOf(cancelled)).isZero();
+
+        // one event per applied id, none for the rejected ones
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT order_id FROM order_outbox_events WHERE event_type = 'ORDER_STATUS_CHANGED' "
+                        + "AND order_id IN (?, ?, ?, ?) ORDER BY order_id",
+                Integer.class, pending, inProgress, alreadyShipped, cancelled))
+                .containsExactlyInAnyOrder(pending, inProgress);
+    }
+
+    @Test
+    void missingOrEmptyIdListIsRejected() {
+
+        BulkUpdateOrderStatusRequest request = new BulkUpdateOrderStatusRequest();
+        request.setStatus("SHIPPED");
+
+        assertThatThrownBy(() -> orderServiceObj.updateOrderStatusBulk(request, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("orderIds");
+
+        request.setOrderIds(List.of());
+        assertThatThrownBy(() -> orderServiceObj.updateOrderStatusBulk(request, null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("orderIds");
+    }
+}
@@ -0,0 +1,80 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.UpdateOrderStatusRequest;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class OrderCancelTests extends PostgresIntegrationTest {
+
+    private static final UserDetails ADMIN = User.withUsername("admin@ribbony.test").password("x").roles("ADMIN").build();
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestData data;
+    private int userId;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        userId = data.user();
+    }
+
+    @Test
+    void adminCancelsAnOrderInProgress() {
+        int orderId = data.order(userId, OrderStatus.WORK_IN_PROGRESS, LocalDateTime.now());
+
+        orderServiceObj.cancelOrderByAdmin(orderId, ADMIN);
+
+        assertThat(data.statusOf(orderId)).isEqualTo(OrderStatus.CANCELED);
+        assertThat(data.versionOf(orderId)).isEqualTo(1);
+    }
+
+    @Test
+    void cancellingACancelledOrderIsRejectedAndChangesNothing() {
+        int orderId = data.order(userId, OrderStatus.CANCELED, LocalDateTime.now());
+
+        assertThatThrownBy(() -> orderServiceObj.cancelOrderByAdmin(orderId, ADMIN))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already cancelled");
+
+        assertThat(data.versionOf(orderId)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM order_outbox_events WHERE order_id = ?", Integer.class, orderId)).isZero();
+    }
+
+    @Test
+    void shippedOrderCannotBeCancelled() {
+        int orderId = data.order(userId, OrderStatus.SHIPPED, LocalDateTime.now());
+
+        assertThatThrownBy(() -> orderServiceObj.cancelOrderByAdmin(orderId, ADMIN))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already been shipped");
+
+        // a status update to CANCELED follows the same rule
+        UpdateOrderStatusRequest cancel = new UpdateOrderStatusRequest();
+        cancel.setStatus(OrderStatus.CANCELED.name());
+        assertThatThrownBy(() -> orderServiceObj.updateOrderStatus(orderId, cancel, ADMIN))
+                .isInstanceOf(BadRequestException.class);
+
+        assertThat(data.statusOf(orderId)).isEqualTo(OrderStatus.SHIPPED);
+        assertThat(data.versionOf(orderId)).isZero();
+    }
+}
@@ -0,0 +1,158 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderItemRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductCatalogCache;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+import jakarta.persistence.EntityManagerFactory;
+
+class OrderCreateRoundTripTests extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderCreateRoundTripTests.class);
+
+    private static final int TIMED_RUNS = 50;
+    private static final int THROUGHPUT_RUNS = 300;
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    private TestData data;
+    private Statistics statistics;
+    private UserDetails buyer;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        buyer = User.withUsername(data.emailOf(data.user())).password("x").roles("USER").build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithTheNumberOfLines() {
+
+        long[] statements = new long[3];
+        int[] lines = { 1, 10, 100 };
+        for (int i = 0; i < lines.length; i++) {
+            CreateOrderRequest request = requestFor(newProducts(lines[i]));
+
+            statistics.clear();
+            OrderResponse created = orderServiceObj.createOrder(request, buyer);
+            statements[i] = statistics.getPrepareStatementCount();
+
+            assertThat(created.getOrderItems()).hasSize(lines[i]);
+            assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM order_items WHERE order_id = ?",
+                    Integer.class, created.getId())).isEqualTo(lines[i]);
+        }
+
+        // products are resolved with one IN query and the items go out as one JDBC batch,
+        // so nothing is issued per line
+        assertThat(statements[1]).isEqualTo(statements[0]);
+        assertThat(statements[2]).isEqualTo(statements[0]);
+    }
+
+    @Test
+    void reportsLatencyByLineCount() {
+
+        for (int lines : new int[] { 1, 10, 100 }) {
+            CreateOrderRequest request = requestFor(newProducts(lines));
+            orderServiceObj.createOrder(request, buyer);
+
+            long[] nanos = new long[TIMED_RUNS];
+            for (int run = 0; run < TIMED_RUNS; run++) {
+                long start = System.nanoTime();
+                orderServiceObj.createOrder(request, buyer);
+                nanos[run] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+
+            // informational only: timings on shared CI machines are too noisy to assert on
+            log.info("createOrder with {} lines: p50={}us p99={}us", lines,
+                    nanos[TIMED_RUNS / 2] / 1000, nanos[(int) Math.ceil(TIMED_RUNS * 0.99) - 1] / 1000);
+        }
+    }
+
+    @Test
+    void reportsThroughputWithTheProductCacheOnAndOff() {
+
+        CreateOrderRequest request = requestFor(newProducts(10));
+        long[] statements = new long[2];
+        boolean[] modes = { false, true };
+        try {
+            for (int i = 0; i < modes.length; i++) {
+                ReflectionTestUtils.setField(productCatalogCache, "enabled", modes[i]);
+                orderServiceObj.createOrder(request, buyer);
+
+                statistics.clear();
+                orderServiceObj.createOrder(request, buyer);
+                statements[i] = statistics.getPrepareStatementCount();
+
+                long start = System.nanoTime();
+                for (int run = 0; run < THROUGHPUT_RUNS; run++) {
+                    orderServiceObj.createOrder(request, buyer);
+                }
+                long elapsed = System.nanoTime() - start;
+
+                // informational only: timings on shared CI machines are too noisy to assert on
+                log.info("createOrder with 10 lines, product cache {}: {} orders/s, {} statements per order",
+                        modes[i] ? "on" : "off", THROUGHPUT_RUNS * 1_000_000_000L / elapsed, statements[i]);
+            }
+        } finally {
+            ReflectionTestUtils.setField(productCatalogCache, "enabled", true);
+        }
+
+        // a warm cache saves the product lookup on every order
+        assertThat(statements[1]).isLessThan(statements[0]);
+    }
+
+    private List<Integer> newProducts(int count) {
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(data.product(TestData.unique("ribbon"), new BigDecimal("3.50"), "Ribbons"));
+        }
+        return ids;
+    }
+
+    private static CreateOrderRequest requestFor(List<Integer> productIds) {
+        List<CreateOrderItemRequest> items = new ArrayList<>();
+        for (Integer id : productIds) {
+            CreateOrderItemRequest item = new CreateOrderItemRequest();
+            item.setProductId(id);
+            item.setQuantity(1);
+            items.add(item);
+        }
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setOrderItems(items);
+        return request;
+    }
+}
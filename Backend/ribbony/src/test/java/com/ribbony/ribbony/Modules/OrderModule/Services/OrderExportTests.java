@@ -0,0 +1,83 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderRepositry;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderPageResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class OrderExportTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private OrderRepositry orderRepositryObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportIncludesArchivedOrdersWithTheirItemsWhileTheListingDoesNot() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        int userId = data.user();
+        int productId = data.product(TestData.unique("export"), new BigDecimal("5.00"), TestData.unique("cat"));
+
+        List<Integer> old = data.orders(userId, 3, OrderStatus.SHIPPED, LocalDateTime.now().minusYears(3));
+        List<Integer> recent = data.orders(userId, 2, OrderStatus.PENDING, LocalDateTime.now().minusDays(1));
+        data.items(old, List.of(productId), "{\"colour\":\"red\"}");
+        data.items(recent, List.of(productId), null);
+
+        int archived = transactionTemplate.execute(status -> orderRepositryObj.archiveOrders(old));
+        assertThat(archived).isEqualTo(3);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderServiceObj.exportOrders(old.get(0) - 1, out);
+
+        List<JsonNode> mine = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode order = objectMapper.readTree(line);
+            if (order.get("userId").asInt() == userId) mine.add(order);
+        }
+
+        List<Integer> exportedIds = mine.stream().map(o -> o.get("id").asInt()).toList();
+        List<Integer> expected = new ArrayList<>(old);
+        expected.addAll(recent);
+        assertThat(exportedIds).containsExactlyElementsOf(expected);
+
+        for (JsonNode order : mine.subList(0, 3)) {
+            assertThat(order.get("status").asText()).isEqualTo("SHIPPED");
+            assertThat(order.get("orderItems")).hasSize(1);
+            JsonNode item = order.get("orderItems").get(0);
+            assertThat(item.get("productId").asInt()).isEqualTo(productId);
+            assertThat(item.get("payload").get("colour").asText()).isEqualTo("red");
+        }
+
+        // the admin listing stays on the hot table
+        OrderPageResponse page = orderServiceObj.listOrders(null, userId, null, null, null, null, 50);
+        assertThat(page.getOrders()).extracting(OrderResponse::getId).containsExactlyInAnyOrderElementsOf(recent);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderItemRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.UnprocessableEntityException;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class OrderIdempotencyServiceTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UserDetails buyer;
+    private int productId;
+
+    @BeforeEach
+    void setUp() {
+        TestData data = new TestData(jdbcTemplate);
+        buyer = User.withUsername(data.emailOf(data.user())).password("x").roles("USER").build();
+        productId = data.product(TestData.unique("ribbon"), new BigDecimal("6.00"), "Ribbons");
+    }
+
+    @Test
+    void retryWithTheSameBodyReplaysTheFirstOrder() throws Exception {
+
+        String key = TestData.unique("key");
+        OrderResponse first = orderIdempotencyServiceObj.createOrder(key, request(2, "{\"colour\":\"red\",\"width\":5}"), buyer);
+
+        // payload fields in another order are the same request
+        OrderResponse retry = orderIdempotencyServiceObj.createOrder(key, request(2, "{\"width\":5,\"colour\":\"red\"}"), buyer);
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(ordersOf(buyer)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT request_hash FROM order_idempotency_keys WHERE idempotency_key = ?", String.class, key))
+                .hasSize(64);
+    }
+
+    @Test
+    void reusingAKeyWithADifferentBodyIsRejected() throws Exception {
+
+        String key = TestData.unique("key");
+        orderIdempotencyServiceObj.createOrder(key, request(2, null), buyer);
+
+        assertThatThrownBy(() -> orderIdempotencyServiceObj.createOrder(key, request(3, null), buyer))
+                .isInstanceOf(UnprocessableEntityException.class)
+                .hasMessageContaining(key);
+        assertThat(ordersOf(buyer)).isEqualTo(1);
+    }
+
+    @Test
+    void mismatchIsAlsoDetectedForKeysOnlyFoundInTheTable() throws Exception {
+
+        // another instance created the order: the row exists, this instance's memory has never seen the key
+        String key = TestData.unique("key");
+        OrderResponse elsewhere = orderIdempotencyServiceObj.createOrder(TestData.unique("other"), request(1, null), buyer);
+        jdbcTemplate.update("UPDATE order_idempotency_keys SET idempotency_key = ? WHERE order_id = ?", key, elsewhere.getId());
+
+        assertThatThrownBy(() -> orderIdempotencyServiceObj.createOrder(key, request(5, null), buyer))
+                .isInstanceOf(UnprocessableEntityException.class);
+        assertThat(orderIdempotencyServiceObj.createOrder(key, request(1, null), buyer).getId()).isEqualTo(elsewhere.getId());
+    }
+
+    @Test
+    void anExpiredKeyNotYetPurgedCanBeReused() throws Exception {
+
+        String key = TestData.unique("key");
+        OrderResponse first = orderIdempotencyServiceObj.createOrder(key, request(2, null), buyer);
+
+        // past the TTL, the hourly purge has not run, and this instance's memory no longer holds the key
+        jdbcTemplate.update("UPDATE order_idempotency_keys SET created_at = now() - interval '25 hours' "
+                + "WHERE idempotency_key = ?", key);
+        recentResponses().clear();
+
+        OrderResponse second = orderIdempotencyServiceObj.createOrder(key, request(3, null), buyer);
+
+        assertThat(second.getId()).isNotEqualTo(first.getId());
+        assertThat(ordersOf(buyer)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT order_id FROM order_idempotency_keys WHERE idempotency_key = ?", Integer.class, key))
+                .isEqualTo(second.getId());
+        assertThat(orderIdempotencyServiceObj.createOrder(key, request(3, null), buyer).getId()).isEqualTo(second.getId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> recentResponses() {
+        return (Map<String, ?>) ReflectionTestUtils.getField(orderIdempotencyServiceObj, "recent");
+    }
+
+    private int ordersOf(UserDetails user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM orders o JOIN users u ON u.id = o.user_id WHERE u.email = ?",
+                Integer.class, user.getUsername());
+    }
+
+    private CreateOrderRequest request(int quantity, String payload) throws Exception {
+        CreateOrderItemRequest item = new CreateOrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        if (payload != null) item.setPayload(objectMapper.readTree(payload));
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setOrderItems(List.of(item));
+        return request;
+    }
+}
@@ -0,0 +1,230 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderItemRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderItemResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderPageResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeGroup;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeQueryRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.PayloadAttributeStatsResponse;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class OrderItemPayloadTests extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemPayloadTests.class);
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TestData data;
+    private int userId;
+    private int productId;
+    private UserDetails buyer;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        userId = data.user();
+        productId = data.product(TestData.unique("ribbon"), new BigDecimal("3.50"), "Ribbons");
+        buyer = User.withUsername(data.emailOf(userId)).password("x").roles("USER").build();
+    }
+
+    @Test
+    void detailReadsPassThePayloadThroughAndListReadsLeaveItOut() throws Exception {
+        ObjectNode payload = objectMapper.createObjectNode().put("colour", "teal").put("text", "Happy \"30\"");
+        OrderResponse created = orderServiceObj.createOrder(requestWith(payload), buyer);
+
+        OrderItemResponse detailItem = orderServiceObj.getOrderByIdAdmin(created.getId()).getOrderItems().get(0);
+        assertThat(detailItem.getPayload()).isNotNull();
+
+        // written as a nested JSON value, not as a quoted string
+        JsonNode written = objectMapper.readTree(objectMapper.writeValueAsString(detailItem)).get("payload");
+        assertThat(written.isObject()).isTrue();
+        assertThat(written).isEqualTo(payload);
+
+        OrderPageResponse page = orderServiceObj.listOrders(null, userId, null, null, null, null, 50);
+        assertThat(page.getOrders()).hasSize(1);
+        OrderItemResponse listItem = page.getOrders().get(0).getOrderItems().get(0);
+        assertThat(listItem.getProductId()).isEqualTo(productId);
+        assertThat(listItem.getPayload()).isNull();
+    }
+
+    @Test
+    void oversizedPayloadIsRejectedAndNothingIsStored() {
+        ObjectNode payload = objectMapper.createObjectNode().put("text", "x".repeat(5000));
+
+        assertThatThrownBy(() -> orderServiceObj.createOrder(requestWith(payload), buyer))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("product " + productId)
+                .hasMessageContaining("limit is 4096 bytes");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM orders WHERE user_id = ?", Integer.class, userId))
+                .isZero();
+    }
+
+    @Test
+    void listingOrdersWithLargePayloadsDoesNotReadThem() {
+        int orders = 100;
+        int payloadChars = 64 * 1024;
+        List<Integer> ids = data.orders(userId, orders, OrderStatus.PENDING, LocalDateTime.now().minusHours(1));
+        // seeded with SQL, well past the create-time cap, so reading them would be obvious in the allocation count
+        data.items(ids, List.of(productId), "{\"text\":\"" + "x".repeat(payloadChars) + "\"}");
+        long payloadBytes = (long) orders * payloadChars;
+
+        orderServiceObj.listOrders(null, userId, null, null, null, null, orders);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        OrderPageResponse page = orderServiceObj.listOrders(null, userId, null, null, null, null, orders);
+        long micros = (System.nanoTime() - start) / 1000;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        assertThat(page.getOrders()).hasSize(orders);
+        assertThat(page.getOrders()).allSatisfy(o -> assertThat(o.getOrderItems()).singleElement()
+                .satisfies(i -> assertThat(i.getPayload()).isNull()));
+
+        // informational: the bound below is the real check, timings are too noisy to assert on
+        log.info("listOrders over {} orders with {} KB payloads: {}us, {} KB allocated ({} KB of payload stored)",
+                orders, payloadChars / 1024, micros, allocated / 1024, payloadBytes / 1024);
+        assertThat(allocated).isLessThan(payloadBytes);
+    }
+
+    @Test
+    void payloadStatsCountItemsOrdersAndUnitsPerGroup() throws Exception {
+        String batch = TestData.unique("batch");
+        int other = data.product(TestData.unique("bow"), new BigDecimal("2.00"), "Bows");
+        List<Integer> pending = data.orders(userId, 2, OrderStatus.PENDING, LocalDateTime.now().minusHours(1));
+        int shipped = data.order(userId, OrderStatus.SHIPPED, LocalDateTime.now().minusHours(2));
+
+        // every seeded line has quantity 2
+        String red = "{\"batch\":\"" + batch + "\",\"colour\":\"red\",\"width\":\"5cm\"}";
+        String blue = "{\"batch\":\"" + batch + "\",\"colour\":\"blue\"}";
+        data.items(pending, List.of(productId), red);
+        data.items(List.of(shipped), List.of(productId), red);
+        data.items(List.of(pending.get(0)), List.of(productId, other), blue);
+        data.items(List.of(pending.get(1)), List.of(other), "{\"batch\":\"other-" + batch + "\",\"colour\":\"red\"}");
+
+        PayloadAttributeStatsResponse all = stats(batch, List.of("colour"));
+        assertThat(all.isTruncated()).isFalse();
+        assertThat(all.getGroups()).extracting(this::counts).containsExactly(
+                List.of("red", 3L, 3L, 6L),
+                List.of("blue", 2L, 1L, 4L));
+
+        // equal units fall back to the group value, so the order is stable
+        PayloadAttributeStatsResponse pendingOnly = stats(batch, List.of("colour"), "PENDING");
+        assertThat(pendingOnly.getGroups()).extracting(this::counts).containsExactly(
+                List.of("blue", 2L, 1L, 4L),
+                List.of("red", 2L, 2L, 4L));
+
+        PayloadAttributeStatsResponse shippedOnly = stats(batch, List.of("colour"), "SHIPPED", "CANCELED");
+        assertThat(shippedOnly.getGroups()).extracting(this::counts).containsExactly(List.of("red", 1L, 1L, 2L));
+
+        // a key the payload lacks groups as null; no keys is one total over the match
+        PayloadAttributeStatsResponse byTwo = stats(batch, List.of("colour", "width"));
+        assertThat(byTwo.getGroups()).extracting(PayloadAttributeGroup::getAttributes).containsExactly(
+                attributes("colour", "red", "width", "5cm"),
+                attributes("colour", "blue", "width", null));
+        assertThat(stats(batch, List.of()).getGroups()).singleElement().satisfies(g -> {
+            assertThat(g.getAttributes()).isEmpty();
+            assertThat(List.of(g.getItemCount(), g.getOrderCount(), g.getUnits())).containsExactly(5L, 3L, 10L);
+        });
+
+        assertThatThrownBy(() -> stats(batch, List.of("colour"), "LOST"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("LOST");
+    }
+
+    @Test
+    void payloadStatsStopAtTheGroupCapAndSayTheyDid() throws Exception {
+        int cap = (Integer) ReflectionTestUtils.getField(OrderService.class, "MAX_PAYLOAD_GROUPS");
+        int orderId = data.order(userId, OrderStatus.PENDING, LocalDateTime.now().minusHours(1));
+        String atCap = TestData.unique("cap");
+        String overCap = TestData.unique("over");
+        seedDistinct(orderId, atCap, cap);
+        seedDistinct(orderId, overCap, cap + 1);
+
+        PayloadAttributeStatsResponse exact = stats(atCap, List.of("n"));
+        assertThat(exact.isTruncated()).isFalse();
+        assertThat(exact.getGroups()).hasSize(cap);
+
+        PayloadAttributeStatsResponse over = stats(overCap, List.of("n"));
+        assertThat(over.isTruncated()).isTrue();
+        assertThat(over.getGroups()).hasSize(cap);
+        assertThat(over.getGroups()).allSatisfy(g -> assertThat(g.getItemCount()).isEqualTo(1));
+    }
+
+    // count lines on one order, each with its own value of "n"
+    private void seedDistinct(int orderId, String batch, int count) {
+        jdbcTemplate.update(
+                "INSERT INTO order_items (order_id, product_id, price_at_time, quantity, payload, created_at, updated_at) "
+                        + "SELECT ?, ?, 5.00, 1, jsonb_build_object('batch', ?::text, 'n', g), now(), now() "
+                        + "FROM generate_series(1, ?) g",
+                orderId, productId, batch, count);
+    }
+
+    private PayloadAttributeStatsResponse stats(String batch, List<String> groupBy, String... statuses) throws Exception {
+        PayloadAttributeQueryRequest request = new PayloadAttributeQueryRequest();
+        request.setMatch(objectMapper.readTree("{\"batch\":\"" + batch + "\"}"));
+        request.setGroupBy(groupBy);
+        request.setStatuses(Arrays.asList(statuses));
+        return orderServiceObj.getPayloadAttributeStats(request);
+    }
+
+    // {first attribute, items, orders, units}
+    private List<Object> counts(PayloadAttributeGroup g) {
+        return List.of(g.getAttributes().values().iterator().next(), g.getItemCount(), g.getOrderCount(), g.getUnits());
+    }
+
+    private static Map<String, String> attributes(String k1, String v1, String k2, String v2) {
+        Map<String, String> m = new LinkedHashMap<>();
+        m.put(k1, v1);
+        m.put(k2, v2);
+        return m;
+    }
+
+    private CreateOrderRequest requestWith(JsonNode payload) {
+        CreateOrderItemRequest item = new CreateOrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(1);
+        item.setPayload(payload);
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setOrderItems(List.of(item));
+        return request;
+    }
+}
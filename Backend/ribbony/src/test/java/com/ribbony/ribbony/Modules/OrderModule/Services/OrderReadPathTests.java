@@ -0,0 +1,98 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderPageResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+import jakarta.persistence.EntityManagerFactory;
+
+class OrderReadPathTests extends PostgresIntegrationTest {
+
+    private static final int ORDERS = 500;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private int userId;
+    private List<Integer> orderIds;
+
+    @BeforeEach
+    void seed() {
+        TestData data = new TestData(jdbcTemplate);
+        List<Integer> products = new ArrayList<>();
+        for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+            products.add(data.product(TestData.unique("ribbon"), new BigDecimal("5.00"), "Ribbons"));
+        }
+        userId = data.user();
+        orderIds = data.orders(userId, ORDERS, OrderStatus.PENDING, LocalDateTime.now().minusDays(1));
+        data.items(orderIds, products, null);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listingFiveHundredOrdersUsesAFixedNumberOfStatementsPerPage() {
+
+        List<OrderResponse> seen = new ArrayList<>();
+        int pages = 0;
+        String cursor = null;
+        do {
+            OrderPageResponse page = orderServiceObj.listOrders(null, userId, null, null, null, cursor, 200);
+            seen.addAll(page.getOrders());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(ORDERS);
+        assertThat(seen).allSatisfy(o -> {
+            assertThat(o.getUserId()).isEqualTo(userId);
+            assertThat(o.getOrderItems()).hasSize(ITEMS_PER_ORDER)
+                    .allSatisfy(i -> assertThat(i.getProductName()).startsWith("ribbon-"));
+        });
+
+        // per page: the orders by id and the item rows of the whole page; user and products are never lazy-loaded
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L * pages);
+        // every page but the last also reads the look-ahead row that tells whether another page exists
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(ORDERS + pages - 1);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void detailReadLoadsOrderItemsAndProductsInOneStatement() {
+
+        for (Integer id : orderIds.subList(0, 10)) {
+            OrderResponse order = orderServiceObj.getOrderByIdAdmin(id);
+            assertThat(order.getOrderItems()).hasSize(ITEMS_PER_ORDER)
+                    .allSatisfy(i -> assertThat(i.getProductName()).isNotNull());
+        }
+
+        // outside a transaction, so any lazy association would have thrown instead of adding a statement
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(10);
+    }
+}
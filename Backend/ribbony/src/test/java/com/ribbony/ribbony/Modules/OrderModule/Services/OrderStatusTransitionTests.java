@@ -0,0 +1,150 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.dto.UpdateOrderStatusRequest;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class OrderStatusTransitionTests extends PostgresIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestData data;
+    private int userId;
+    private int productId;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        userId = data.user();
+        productId = data.product(TestData.unique("ribbon"), new BigDecimal("5.00"), "Ribbons");
+    }
+
+    @Test
+    void noStatusMayTransitionToItself() {
+        for (OrderStatus s : OrderStatus.values()) {
+            assertThat(s.allowedPredecessors()).doesNotContain(s);
+        }
+        assertThat(OrderStatus.SHIPPED.allowedPredecessors()).doesNotContain(OrderStatus.CANCELED);
+        assertThat(OrderStatus.CANCELED.allowedPredecessors()).doesNotContain(OrderStatus.SHIPPED);
+    }
+
+    @Test
+    void sameStatusUpdateIsRejectedWithoutSideEffects() {
+
+        int orderId = newOrder(OrderStatus.SHIPPED);
+
+        assertThatThrownBy(() -> orderServiceObj.updateOrderStatus(orderId, status(OrderStatus.SHIPPED), null))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("Cannot set status from SHIPPED to SHIPPED");
+
+        assertThat(data.versionOf(orderId)).isZero();
+        assertThat(statusEvents(orderId)).isEmpty();
+    }
+
+    @Test
+    void cancelledOrderCannotShip() {
+
+        int orderId = newOrder(OrderStatus.CANCELED);
+
+        assertThatThrownBy(() -> orderServiceObj.updateOrderStatus(orderId, status(OrderStatus.SHIPPED), null))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(data.statusOf(orderId)).isEqualTo(OrderStatus.CANCELED);
+    }
+
+    @Test
+    void concurrentConflictingTransitionsApplyInOneValidOrder() throws Exception {
+
+        int orderId = newOrder(OrderStatus.PENDING);
+        OrderStatus[] targets = OrderStatus.values();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Callable<Integer> worker = () -> {
+                start.await();
+                int applied = 0;
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    OrderStatus target = targets[ThreadLocalRandom.current().nextInt(targets.length)];
+                    try {
+                        orderServiceObj.updateOrderStatus(orderId, status(target), null);
+                        applied++;
+                    } catch (BadRequestException rejected) {
+                        // the order was not in a state this target may follow; nothing was written
+                    }
+                }
+                return applied;
+            };
+            results.add(pool.submit(worker));
+        }
+        start.countDown();
+
+        int applied = 0;
+        for (Future<Integer> f : results) {
+            applied += f.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        // every applied transition bumped the version exactly once and wrote exactly one event
+        List<OrderStatus> events = statusEvents(orderId);
+        assertThat(applied).isPositive();
+        assertThat(data.versionOf(orderId)).isEqualTo(applied);
+        assertThat(events).hasSize(applied);
+
+        // replayed in commit order, the events form a legal chain from PENDING ending at the stored status
+        OrderStatus current = OrderStatus.PENDING;
+        for (OrderStatus next : events) {
+            assertThat(next.allowedPredecessors()).as("%s -> %s", current, next).contains(current);
+            current = next;
+        }
+        assertThat(data.statusOf(orderId)).isEqualTo(current);
+    }
+
+    private int newOrder(OrderStatus status) {
+        int orderId = data.order(userId, status, LocalDateTime.now().minusHours(1));
+        data.items(List.of(orderId), List.of(productId), null);
+        return orderId;
+    }
+
+    private List<OrderStatus> statusEvents(int orderId) {
+        return jdbcTemplate.queryForList(
+                "SELECT payload::jsonb ->> 'status' FROM order_outbox_events "
+                        + "WHERE order_id = ? AND event_type = 'ORDER_STATUS_CHANGED' ORDER BY id",
+                String.class, orderId).stream().map(OrderStatus::valueOf).toList();
+    }
+
+    private static UpdateOrderStatusRequest status(OrderStatus s) {
+        UpdateOrderStatusRequest request = new UpdateOrderStatusRequest();
+        request.setStatus(s.name());
+        return request;
+    }
+}
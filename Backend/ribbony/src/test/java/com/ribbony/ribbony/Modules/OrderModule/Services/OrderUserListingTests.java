@@ -0,0 +1,117 @@
+package com.ribbony.ribbony.Modules.OrderModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderModel;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderItemRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.OrderModule.Repo.OrderRepositry;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderResponse;
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderSummaryResponse;
+import com.ribbony.ribbony.Modules.UserModule.Models.UserModel;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+import jakarta.persistence.EntityManagerFactory;
+
+class OrderUserListingTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrderRepositry orderRepositryObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void myOrdersComeFromTheSummaryProjectionWithTheirLines() {
+
+        TestData data = new TestData(jdbcTemplate);
+        UserDetails buyer = User.withUsername(data.emailOf(data.user())).password("x").roles("USER").build();
+        int ribbon = data.product(TestData.unique("ribbon"), new BigDecimal("4.00"), "Ribbons");
+        int bow = data.product(TestData.unique("bow"), new BigDecimal("2.50"), "Bows");
+
+        OrderResponse first = orderServiceObj.createOrder(request(ribbon, 2, bow, 1), buyer);
+        OrderResponse second = orderServiceObj.createOrder(request(bow, 4, ribbon, 1), buyer);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<OrderResponse> mine = orderServiceObj.getOrdersForUser(buyer);
+
+        // newest first, as the summary index is ordered
+        assertThat(mine).extracting(OrderResponse::getId).containsExactly(second.getId(), first.getId());
+        assertThat(mine.get(1).getTotalAmount()).isEqualByComparingTo("10.50");
+        assertThat(mine.get(1).getOrderItems()).extracting(i -> i.getQuantity()).containsExactly(2, 1);
+        assertThat(mine.get(0).getOrderItems()).extracting(i -> i.getProductId()).containsExactly(bow, ribbon);
+
+        // one summary query; the lines are one more JDBC statement, and no order or user entity is loaded
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(OrderModel.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(UserModel.class.getName()).getLoadCount()).isZero();
+    }
+
+    @Test
+    void aSummaryRebuildKeepsArchivedOrders() {
+
+        TestData data = new TestData(jdbcTemplate);
+        UserDetails buyer = User.withUsername(data.emailOf(data.user())).password("x").roles("USER").build();
+        int ribbon = data.product(TestData.unique("ribbon"), new BigDecimal("4.00"), "Ribbons");
+        int bow = data.product(TestData.unique("bow"), new BigDecimal("2.50"), "Bows");
+
+        OrderResponse old = orderServiceObj.createOrder(request(ribbon, 2, bow, 1), buyer);
+        OrderResponse recent = orderServiceObj.createOrder(request(bow, 1, ribbon, 1), buyer);
+
+        // the old order closed years ago and has been moved to the archive
+        jdbcTemplate.update("UPDATE orders SET status = 'SHIPPED', created_at = now() - interval '3 years' WHERE id = ?",
+                old.getId());
+        jdbcTemplate.update("UPDATE order_summaries SET status = 'SHIPPED', created_at = now() - interval '3 years' "
+                + "WHERE order_id = ?", old.getId());
+        transactionTemplate.execute(status -> orderRepositryObj.archiveOrders(List.of(old.getId())));
+
+        orderServiceObj.rebuildOrderSummaries();
+
+        List<OrderSummaryResponse> summaries = orderServiceObj.getOrderSummariesForUser(buyer);
+        assertThat(summaries).extracting(OrderSummaryResponse::getId).containsExactly(recent.getId(), old.getId());
+        OrderSummaryResponse archived = summaries.get(1);
+        assertThat(archived.getStatus()).isEqualTo("SHIPPED");
+        assertThat(archived.getItemCount()).isEqualTo(2);
+        assertThat(archived.getTotalAmount()).isEqualByComparingTo("10.50");
+        assertThat(archived.getFirstProductName()).startsWith("ribbon");
+
+        List<OrderResponse> mine = orderServiceObj.getOrdersForUser(buyer);
+        assertThat(mine.get(1).getOrderItems()).extracting(i -> i.getProductId()).containsExactly(ribbon, bow);
+    }
+
+    private static CreateOrderRequest request(int productA, int qtyA, int productB, int qtyB) {
+        CreateOrderItemRequest a = new CreateOrderItemRequest();
+        a.setProductId(productA);
+        a.setQuantity(qtyA);
+        CreateOrderItemRequest b = new CreateOrderItemRequest();
+        b.setProductId(productB);
+        b.setQuantity(qtyB);
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setOrderItems(List.of(a, b));
+        return request;
+    }
+}
@@ -0,0 +1,173 @@
+package com.ribbony.ribbony.Modules.OrderModule.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ribbony.ribbony.Modules.OrderModule.dto.OrderEvent;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+
+class OrderOutboxDispatcherTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderOutboxDispatcher dispatcher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final RecordingSink sink = new RecordingSink();
+    private Object originalSinks;
+
+    @BeforeEach
+    void useRecordingSink() {
+        originalSinks = ReflectionTestUtils.getField(dispatcher, "sinks");
+        ReflectionTestUtils.setField(dispatcher, "sinks", List.of(sink));
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 2);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMillis", 3_600_000L);
+    }
+
+    @AfterEach
+    void restoreSinks() {
+        ReflectionTestUtils.setField(dispatcher, "sinks", originalSinks);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 10);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMillis", 1000L);
+    }
+
+    @Test
+    void failureHoldsBackOnlyItsOwnOrderAndRetriesWithBackoff() {
+
+        int orderA = fakeOrderId();
+        int orderB = fakeOrderId();
+        int a1 = event(orderA);
+        int a2 = event(orderA);
+        int b1 = event(orderB);
+        sink.failing.add(a1);
+
+        dispatcher.dispatchPending();
+
+        // b1 went out even though a1, earlier in the same batch, failed; a2 waits behind a1
+        assertThat(sink.publishedFor(orderA, orderB)).containsExactly(b1);
+        assertThat(statusOf(a1)).isEqualTo("PENDING");
+        assertThat(attemptsOf(a1)).isEqualTo(1);
+        assertThat(lastErrorOf(a1)).isEqualTo("sink down for " + a1);
+        assertThat(statusOf(a2)).isEqualTo("PENDING");
+        assertThat(attemptsOf(a2)).isZero();
+        assertThat(statusOf(b1)).isEqualTo("DISPATCHED");
+
+        // inside the backoff nothing of order A is claimed, a2 included
+        dispatcher.dispatchPending();
+        assertThat(sink.publishedFor(orderA)).isEmpty();
+
+        // backoff over and the sink recovered: a1 then a2, in order
+        sink.failing.clear();
+        makeDue(a1);
+        dispatcher.dispatchPending();
+        assertThat(sink.publishedFor(orderA)).containsExactly(a1, a2);
+        assertThat(statusOf(a1)).isEqualTo("DISPATCHED");
+        assertThat(attemptsOf(a1)).isEqualTo(2);
+    }
+
+    @Test
+    void eventIsParkedAsDeadAfterMaxAttemptsAndStopsBlockingItsOrder() {
+
+        int order = fakeOrderId();
+        int first = event(order);
+        int second = event(order);
+        sink.failing.add(first);
+
+        dispatcher.dispatchPending();
+        makeDue(first);
+        dispatcher.dispatchPending();
+
+        assertThat(statusOf(first)).isEqualTo("DEAD");
+        assertThat(attemptsOf(first)).isEqualTo(2);
+        assertThat(dispatcher.getMetrics().getDeadEvents()).isPositive();
+
+        // a parked event no longer holds the order back
+        dispatcher.dispatchPending();
+        assertThat(sink.publishedFor(order)).containsExactly(second);
+        assertThat(statusOf(second)).isEqualTo("DISPATCHED");
+    }
+
+    @Test
+    void sinksAreCalledWithoutATransaction() {
+
+        int order = fakeOrderId();
+        event(order);
+
+        dispatcher.dispatchPending();
+
+        assertThat(sink.publishedFor(order)).hasSize(1);
+        assertThat(sink.calledInTransaction).isFalse();
+    }
+
+    private int fakeOrderId() {
+        return ThreadLocalRandom.current().nextInt(1_000_000_000, Integer.MAX_VALUE);
+    }
+
+    private int event(int orderId) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO order_outbox_events (event_type, order_id, payload, status, next_attempt_at, attempts, "
+                        + "created_at, updated_at) VALUES ('ORDER_STATUS_CHANGED', ?, '{}', 'PENDING', now(), 0, now(), now()) "
+                        + "RETURNING id",
+                Integer.class, orderId);
+    }
+
+    private void makeDue(int eventId) {
+        jdbcTemplate.update("UPDATE order_outbox_events SET next_attempt_at = now() - interval '1 second' WHERE id = ?", eventId);
+    }
+
+    private String statusOf(int eventId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM order_outbox_events WHERE id = ?", String.class, eventId);
+    }
+
+    private int attemptsOf(int eventId) {
+        return jdbcTemplate.queryForObject("SELECT attempts FROM order_outbox_events WHERE id = ?", Integer.class, eventId);
+    }
+
+    private String lastErrorOf(int eventId) {
+        return jdbcTemplate.queryForObject("SELECT last_error FROM order_outbox_events WHERE id = ?", String.class, eventId);
+    }
+
+    // other tests leave pending events behind, so everything is recorded and assertions filter by order
+    private static final class RecordingSink implements OrderEventSink {
+
+        private final Set<Integer> failing = Collections.synchronizedSet(new HashSet<>());
+        private final List<OrderEvent> published = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean calledInTransaction;
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public void publish(OrderEvent event) {
+            calledInTransaction |= TransactionSynchronizationManager.isActualTransactionActive();
+            if (failing.contains(event.getEventId())) {
+                throw new IllegalStateException("sink down for " + event.getEventId());
+            }
+            published.add(event);
+        }
+
+        List<Integer> publishedFor(Integer... orderIds) {
+            Set<Integer> orders = Set.of(orderIds);
+            synchronized (published) {
+                return published.stream().filter(e -> orders.contains(e.getOrderId())).map(OrderEvent::getEventId).toList();
+            }
+        }
+    }
+}
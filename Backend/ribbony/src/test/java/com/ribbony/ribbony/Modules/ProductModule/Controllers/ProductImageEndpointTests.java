@@ -0,0 +1,230 @@
+package com.ribbony.ribbony.Modules.ProductModule.Controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductImageStore;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImageResponse;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+@WithMockUser
+class ProductImageEndpointTests extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImageEndpointTests.class);
+
+    private static final int TIMED_RUNS = 200;
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ProductImageStore productImageStoreObj;
+
+    @Autowired
+    private ProductImageController productImageControllerObj;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void servesTheStoredBytesAsAnImmutableResourceWithAStrongTag() throws Exception {
+        ProductImageResponse stored = upload(noisePng(300, 200, 1));
+        ProductImageStore.StoredImage image = productImageStoreObj.find(fileOf(stored)).orElseThrow();
+
+        // no sendfile support under MockMvc, so this is the channel-to-channel copy
+        MvcResult served = mvc.perform(get(stored.getUrl()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, image.getSize()))
+                .andReturn();
+
+        assertThat(served.getResponse().getContentAsByteArray()).isEqualTo(Files.readAllBytes(image.getPath()));
+        assertThat(served.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable").contains("public");
+        String etag = served.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("\"" + fileOf(stored) + "\"");
+
+        MvcResult revalidated = mvc.perform(get(stored.getUrl()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        assertThat(revalidated.getResponse().getContentAsByteArray()).isEmpty();
+        assertThat(revalidated.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).contains("immutable");
+
+        // a thumbnail is served the same way under its own tag
+        String thumb = stored.getThumbnails().values().iterator().next();
+        mvc.perform(get(thumb).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + thumb.substring(thumb.lastIndexOf('/') + 1) + "\""));
+
+        mvc.perform(get(ProductImageStore.URL_PREFIX + "0".repeat(64) + ".png")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void withSendfileTheConnectorIsHandedTheFileInsteadOfTheBytes() throws Exception {
+        ProductImageResponse stored = upload(noisePng(300, 200, 2));
+        ProductImageStore.StoredImage image = productImageStoreObj.find(fileOf(stored)).orElseThrow();
+
+        MvcResult served = mvc.perform(get(stored.getUrl()).requestAttr(SENDFILE_SUPPORT, true))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, image.getSize()))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andReturn();
+
+        MockHttpServletRequest request = served.getRequest();
+        assertThat(served.getResponse().getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+                .isEqualTo(image.getPath().toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(0L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(image.getSize());
+
+        // a revalidation never gets as far as the file
+        MvcResult revalidated = mvc.perform(get(stored.getUrl()).requestAttr(SENDFILE_SUPPORT, true)
+                        .header(HttpHeaders.IF_NONE_MATCH, served.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified())
+                .andReturn();
+        assertThat(revalidated.getRequest().getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+    }
+
+    @Test
+    void reportsThroughputAndHeapPerRequestOfEachServingPath() throws Exception {
+        ProductImageResponse stored = upload(noisePng(1000, 1000, 3));
+        String file = fileOf(stored);
+        long size = productImageStoreObj.find(file).orElseThrow().getSize();
+
+        assertThat(serve(file, false)).isEqualTo(size);
+        assertThat(serve(file, true)).isZero();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        // the controller is called directly with a response that counts and drops the body, so the heap
+        // measured is the handler's own and not a test buffer holding the whole file
+        long[] wholeFile = measure(threads, thread, () -> Files.readAllBytes(
+                productImageStoreObj.find(file).orElseThrow().getPath()).length);
+        long[] transfer = measure(threads, thread, () -> serve(file, false));
+        long[] sendfile = measure(threads, thread, () -> serve(file, true));
+
+        // informational: timings on shared CI machines are too noisy to assert on; allocation is not
+        log.info("GET image of {} KB: whole-file array {} req/s, {} KB/req; transferTo {} req/s, {} KB/req; "
+                        + "sendfile hand-off {} req/s, {} KB/req",
+                size / 1024, wholeFile[0], wholeFile[1] / 1024, transfer[0], transfer[1] / 1024,
+                sendfile[0], sendfile[1] / 1024);
+        assertThat(transfer[1]).isLessThan(size / 10);
+        assertThat(sendfile[1]).isLessThan(size / 10);
+    }
+
+    // bytes written to the body
+    private long serve(String file, boolean sendfile) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", ProductImageStore.URL_PREFIX + file);
+        if (sendfile) request.setAttribute(SENDFILE_SUPPORT, true);
+        CountingOutputStream body = new CountingOutputStream();
+        productImageControllerObj.getImage(file, request, new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return body;
+            }
+        });
+        return body.count;
+    }
+
+    // {requests per second, bytes allocated per request}
+    private static long[] measure(com.sun.management.ThreadMXBean threads, long thread, ThrowingSupplier body) throws Exception {
+        body.get();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            body.get();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new long[] { TIMED_RUNS * 1_000_000_000L / Math.max(1, nanos), allocated / TIMED_RUNS };
+    }
+
+    private ProductImageResponse upload(byte[] png) {
+        return productImageStoreObj.store(new ByteArrayInputStream(png));
+    }
+
+    private static String fileOf(ProductImageResponse stored) {
+        return stored.getUrl().substring(ProductImageStore.URL_PREFIX.length());
+    }
+
+    // random pixels barely compress, so the stored file is close to its raw size; the seed keeps each test's hash apart
+    private static byte[] noisePng(int width, int height, long seed) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        long get() throws Exception;
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+        }
+    }
+}
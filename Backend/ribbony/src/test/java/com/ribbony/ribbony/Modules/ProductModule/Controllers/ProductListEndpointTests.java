@@ -0,0 +1,210 @@
+package com.ribbony.ribbony.Modules.ProductModule.Controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductService;
+import com.ribbony.ribbony.Modules.ProductModule.dto.CreateProductRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.UpdateProductRequest;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+@WithMockUser
+class ProductListEndpointTests extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductListEndpointTests.class);
+
+    private static final int TIMED_RUNS = 200;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private ProductService productServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void gzipAndPlainBodiesCarryTheSameCatalogUnderTheirOwnTags() throws Exception {
+        addProduct(TestData.unique("listed"));
+
+        MvcResult plain = mvc.perform(get("/products/list"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn();
+        MvcResult gzip = mvc.perform(get("/products/list").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        byte[] json = plain.getResponse().getContentAsByteArray();
+        assertThat(gunzip(gzip.getResponse().getContentAsByteArray())).isEqualTo(json);
+        assertThat(gzip.getResponse().getHeader(HttpHeaders.ETAG))
+                .isNotEqualTo(plain.getResponse().getHeader(HttpHeaders.ETAG));
+
+        // the snapshot is the same JSON array the mapped entities would serialize to
+        assertThat(objectMapper.readTree(json)).isEqualTo(objectMapper.readTree(freshCatalogJson()));
+    }
+
+    @Test
+    void refusedGzipFallsBackToPlainJson() throws Exception {
+        mvc.perform(get("/products/list").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void productWriteInvalidatesTheSnapshotAndItsTag() throws Exception {
+        MvcResult before = mvc.perform(get("/products/list")).andReturn();
+        String etag = before.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/products/list").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        String name = TestData.unique("fresh");
+        addProduct(name);
+
+        MvcResult after = mvc.perform(get("/products/list").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(after.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+
+        List<String> names = new ArrayList<>();
+        for (JsonNode p : objectMapper.readTree(after.getResponse().getContentAsByteArray())) {
+            names.add(p.get("name").asText());
+        }
+        assertThat(names).contains(name);
+    }
+
+    @Test
+    void singleProductIsNotModifiedUntilItIsWritten() throws Exception {
+        int id = addProduct(TestData.unique("single")).getId();
+
+        MvcResult first = mvc.perform(get("/products/getproduct/" + id))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).startsWith("\"p" + id + "-");
+
+        MvcResult revalidated = mvc.perform(get("/products/getproduct/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+        assertThat(revalidated.getResponse().getContentAsByteArray()).isEmpty();
+
+        UpdateProductRequest rename = new UpdateProductRequest();
+        rename.setId(id);
+        rename.setName(TestData.unique("renamed"));
+        productServiceObj.updateProduct(rename);
+
+        MvcResult after = mvc.perform(get("/products/getproduct/" + id).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertThat(after.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        assertThat(objectMapper.readTree(after.getResponse().getContentAsByteArray()).get("name").asText())
+                .isEqualTo(rename.getName());
+    }
+
+    @Test
+    void reportsSnapshotAgainstPerRequestSerialization() throws Exception {
+        TestData data = new TestData(jdbcTemplate);
+        for (int i = 0; i < 200; i++) {
+            data.product(TestData.unique("bench"), new BigDecimal("4.25"), "Ribbons");
+        }
+        productServiceObj.getCatalogSnapshot();
+        addProduct(TestData.unique("bench"));
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long[] fresh = measure(threads, thread, () -> freshCatalogJson().length);
+        long[] snapshot = measure(threads, thread, () -> productServiceObj.getCatalogSnapshot().getJson().length);
+
+        // informational: timings on shared CI machines are too noisy to assert on; allocation is not
+        log.info("/products/list body: per-request {} req/s, {} KB/req; snapshot {} req/s, {} KB/req",
+                fresh[0], fresh[1] / 1024, snapshot[0], snapshot[1] / 1024);
+        assertThat(snapshot[1]).isLessThan(fresh[1] / 10);
+    }
+
+    // {requests per second, bytes allocated per request}
+    private static long[] measure(com.sun.management.ThreadMXBean threads, long thread, ThrowingSupplier body) throws Exception {
+        body.get();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            body.get();
+        }
+        long nanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new long[] { TIMED_RUNS * 1_000_000_000L / Math.max(1, nanos), allocated / TIMED_RUNS };
+    }
+
+    // what /products/list did on every request before the snapshot
+    private byte[] freshCatalogJson() throws IOException {
+        List<ProductResponse> list = new ArrayList<>();
+        for (ProductModel p : productServiceObj.listProducts()) {
+            list.add(productServiceObj.buildProductResponse(p));
+        }
+        return objectMapper.writeValueAsBytes(list);
+    }
+
+    private ProductResponse addProduct(String name) {
+        CreateProductRequest request = new CreateProductRequest();
+        request.setName(name);
+        request.setPrice(new BigDecimal("6.00"));
+        request.setCategory("Ribbons");
+        return productServiceObj.addProduct(request);
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        Object get() throws Exception;
+    }
+}
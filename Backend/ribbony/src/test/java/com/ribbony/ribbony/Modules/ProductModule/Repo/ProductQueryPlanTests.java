@@ -0,0 +1,84 @@
+package com.ribbony.ribbony.Modules.ProductModule.Repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductSort;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductListFilter;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+
+/**
+ * EXPLAINs the keyset page statement for every sort, with and without a category, deep into a large catalog.
+ * Each page must be a seek into the (sort column, id) index read in order: no sequential scan, no sort node,
+ * so a page costs the same wherever the cursor points.
+ *
+ * The catalog is seeded, analyzed and explained in one transaction that is rolled back, so the rows never
+ * reach the caches and indexes the other tests share.
+ */
+class ProductQueryPlanTests extends PostgresIntegrationTest {
+
+    private static final int PRODUCTS = 50_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ProductRepositryCustomImpl products = new ProductRepositryCustomImpl();
+
+    @Test
+    void everyPageSeeksItsSortIndex() {
+        transactionTemplate.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            jdbcTemplate.update(
+                    "INSERT INTO product (product_name, product_price, category, created_at, updated_at) "
+                            + "SELECT 'plan ' || md5(g::text), (g % 9973) / 100.0, 'Plan ' || (g % 20), "
+                            + "now() - make_interval(secs => g), now() "
+                            + "FROM generate_series(1, ?) g",
+                    PRODUCTS);
+            jdbcTemplate.execute("ANALYZE product");
+
+            assertSeek(ProductSort.NEWEST, null, LocalDateTime.now().minusHours(5), "idx_product_created_at_id");
+            assertSeek(ProductSort.PRICE_ASC, null, new BigDecimal("50.00"), "idx_product_price_id");
+            assertSeek(ProductSort.PRICE_DESC, null, new BigDecimal("50.00"), "idx_product_price_id");
+            assertSeek(ProductSort.NAME_ASC, null, "plan 8", "idx_product_name_id");
+            assertSeek(ProductSort.NAME_DESC, null, "plan 8", "idx_product_name_id");
+
+            assertSeek(ProductSort.NEWEST, "Plan 7", LocalDateTime.now().minusHours(5), "idx_product_category_created_at");
+            assertSeek(ProductSort.PRICE_ASC, "Plan 7", new BigDecimal("50.00"), "idx_product_category_price");
+            assertSeek(ProductSort.PRICE_DESC, "Plan 7", new BigDecimal("50.00"), "idx_product_category_price");
+            assertSeek(ProductSort.NAME_ASC, "Plan 7", "plan 8", "idx_product_category_name");
+            assertSeek(ProductSort.NAME_DESC, "Plan 7", "plan 8", "idx_product_category_name");
+        });
+    }
+
+    private void assertSeek(ProductSort sort, String category, Object afterValue, String index) {
+        ProductListFilter filter = new ProductListFilter();
+        filter.setCategory(category);
+
+        // first page and a page deep in the list
+        for (Object value : new Object[] { null, afterValue }) {
+            MapSqlParameterSource params = new MapSqlParameterSource();
+            String sql = products.pageIdsSql(filter, sort, value, value == null ? null : 1_000_000, 25, params);
+            String plan = String.join("\n", namedJdbcTemplate.queryForList("EXPLAIN " + sql, params, String.class));
+
+            assertThat(plan).as("%s category=%s after=%s\n%s", sort, category, value, plan)
+                    .contains(index)
+                    .doesNotContain("Seq Scan")
+                    .doesNotContain("Sort");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductCatalogCache.CachedProduct;
+
+/**
+ * The cache against a stub repository whose rows the test edits directly, standing in for committed writes.
+ */
+class ProductCatalogCacheTests {
+
+    private final Map<Integer, BigDecimal> prices = new ConcurrentHashMap<>();
+
+    // when set, the next load blocks between reading the rows and storing them
+    private volatile CountDownLatch loadStarted;
+    private volatile CountDownLatch releaseLoad;
+
+    private ProductRepositry repository;
+    private ProductCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductRepositry.class);
+        when(repository.findAllById(anyIterable())).thenAnswer(call -> {
+            List<ProductModel> rows = new ArrayList<>();
+            for (Object id : (Iterable<?>) call.getArgument(0)) {
+                BigDecimal price = prices.get((Integer) id);
+                if (price != null) rows.add(product((Integer) id, price));
+            }
+            CountDownLatch started = loadStarted;
+            if (started != null) {
+                loadStarted = null;
+                started.countDown();
+                releaseLoad.await(10, TimeUnit.SECONDS);
+            }
+            return rows;
+        });
+
+        cache = new ProductCatalogCache();
+        ReflectionTestUtils.setField(cache, "productRepositryObj", repository);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxEntries", 3);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationDoesNotCacheTheOldPrice() throws Exception {
+        prices.put(1, new BigDecimal("10.00"));
+        loadStarted = new CountDownLatch(1);
+        releaseLoad = new CountDownLatch(1);
+
+        // a reader has fetched the old row but not stored it yet
+        CompletableFuture<Map<Integer, CachedProduct>> reader = CompletableFuture.supplyAsync(() -> cache.getAll(List.of(1)));
+        assertThat(loadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // meanwhile a write commits and invalidates
+        prices.put(1, new BigDecimal("12.00"));
+        cache.invalidate(1);
+        releaseLoad.countDown();
+
+        // the overlapping reader may answer with what it read, but must not leave it behind
+        assertThat(reader.get(10, TimeUnit.SECONDS).get(1).getPrice()).isEqualByComparingTo("10.00");
+        assertThat(cache.getAll(List.of(1)).get(1).getPrice()).isEqualByComparingTo("12.00");
+        assertThat(cache.getAll(List.of(1)).get(1).getPrice()).isEqualByComparingTo("12.00");
+        assertThat(cache.getMetrics().getHits()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationDropsACachedEntry() {
+        prices.put(1, new BigDecimal("10.00"));
+        cache.getAll(List.of(1));
+        assertThat(cache.getAll(List.of(1)).get(1).getPrice()).isEqualByComparingTo("10.00");
+
+        prices.put(1, new BigDecimal("11.00"));
+        cache.invalidateAll(List.of(1));
+
+        assertThat(cache.getAll(List.of(1)).get(1).getPrice()).isEqualByComparingTo("11.00");
+        assertThat(cache.getMetrics().getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void staysWithinCapacityByEvictingTheLeastRecentlyUsed() {
+        for (int id = 1; id <= 4; id++) prices.put(id, new BigDecimal(id));
+
+        cache.getAll(List.of(1, 2, 3));
+        cache.getAll(List.of(1));
+        cache.getAll(List.of(4));
+
+        assertThat(cache.getMetrics().getSize()).isEqualTo(3);
+        assertThat(cache.getMetrics().getEvictions()).isEqualTo(1);
+
+        // 2 was the least recently used, so it is the one that has to be loaded again
+        long misses = cache.getMetrics().getMisses();
+        cache.getAll(List.of(1, 3, 4));
+        assertThat(cache.getMetrics().getMisses()).isEqualTo(misses);
+        cache.getAll(List.of(2));
+        assertThat(cache.getMetrics().getMisses()).isEqualTo(misses + 1);
+    }
+
+    @Test
+    void unknownIdsAreAbsent() {
+        prices.put(1, new BigDecimal("10.00"));
+
+        assertThat(cache.getAll(List.of(1, 99))).containsOnlyKeys(1);
+    }
+
+    private static ProductModel product(int id, BigDecimal price) {
+        ProductModel p = new ProductModel();
+        p.setId(id);
+        p.setProductName("Product " + id);
+        p.setPrice(price);
+        p.setCategory("Ribbons");
+        return p;
+    }
+}
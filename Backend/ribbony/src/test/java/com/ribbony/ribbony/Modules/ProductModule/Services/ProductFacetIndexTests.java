@@ -0,0 +1,200 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductCategoryModel;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductCategoryRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.Services.ProductFacetIndex.FacetResult;
+import com.ribbony.ribbony.Modules.ProductModule.dto.FacetCount;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductFacetRow;
+
+/**
+ * The bitmap index checked against a plain map of products filtered the slow way.
+ */
+class ProductFacetIndexTests {
+
+    private static final BigDecimal[] BOUNDS = { new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50"),
+            new BigDecimal("100") };
+
+    // product id -> {categoryId or null, price}
+    private final TreeMap<Integer, Object[]> products = new TreeMap<>();
+
+    private ProductFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        products.clear();
+    }
+
+    @Test
+    void eachFacetIsCountedUnderTheOtherFacetsSelection() {
+        put(1, 1, "5.00");
+        put(2, 1, "12.00");
+        put(3, 2, "12.00");
+        put(4, 2, "30.00");
+        put(5, null, "150.00");
+        build();
+
+        FacetResult all = index.query(List.of(), List.of(), null, 10);
+        assertThat(all.getTotal()).isEqualTo(5);
+        assertThat(all.getProductIds()).containsExactly(5, 4, 3, 2, 1);
+        assertThat(all.getCategories()).extracting(FacetCount::getId).containsExactly(1, 2);
+        assertThat(all.getPriceBuckets()).extracting(FacetCount::getLabel)
+                .containsExactly("0-10", "10-25", "25-50", "50-100", "100+");
+        assertThat(all.getPriceBuckets()).extracting(FacetCount::getCount).containsExactly(1, 2, 1, 0, 1);
+
+        // category 2 selected: price counts narrow to it, category counts do not
+        FacetResult cat2 = index.query(List.of(2), List.of(), null, 10);
+        assertThat(cat2.getProductIds()).containsExactly(4, 3);
+        assertThat(cat2.getPriceBuckets()).extracting(FacetCount::getCount).containsExactly(0, 1, 1, 0, 0);
+        assertThat(counts(cat2.getCategories())).containsEntry(1, 2).containsEntry(2, 2);
+
+        // and the other way round; categories with nothing left drop out
+        FacetResult bucket1 = index.query(List.of(), List.of(1), null, 10);
+        assertThat(bucket1.getProductIds()).containsExactly(3, 2);
+        assertThat(counts(bucket1.getCategories())).containsExactly(Map.entry(1, 1), Map.entry(2, 1));
+        FacetResult bucket4 = index.query(List.of(), List.of(4), null, 10);
+        assertThat(bucket4.getCategories()).isEmpty();
+        assertThat(bucket4.getProductIds()).containsExactly(5);
+
+        assertThat(index.query(List.of(1, 2), List.of(0, 2), null, 10).getProductIds()).containsExactly(4, 1);
+        assertThat(index.query(List.of(99), List.of(), null, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void cursorWalksEveryMatchOnceNewestFirst() {
+        for (int id = 1; id <= 50; id++) {
+            put(id, id % 3 == 0 ? 7 : 8, "20.00");
+        }
+        build();
+
+        List<Integer> seen = new ArrayList<>();
+        Integer after = null;
+        boolean hasMore;
+        do {
+            FacetResult page = index.query(List.of(8), List.of(), after, 6);
+            seen.addAll(page.getProductIds());
+            hasMore = page.isHasMore();
+            if (hasMore) after = page.getProductIds().get(page.getProductIds().size() - 1);
+        } while (hasMore);
+
+        assertThat(seen).isEqualTo(expectedIds(Set.of(8), Set.of(), null));
+        assertThat(index.query(List.of(8), List.of(), 1, 6).getProductIds()).isEmpty();
+    }
+
+    @Test
+    void patchesMatchABruteForceFilter() {
+        Random random = new Random(7);
+        for (int id = 10; id < 400; id += 2) {
+            put(id, randomCategory(random), randomPrice(random));
+        }
+        build();
+
+        for (int step = 0; step < 1500; step++) {
+            int id = 1 + random.nextInt(600);
+            if (random.nextInt(4) == 0) {
+                products.remove(id);
+                index.remove(id);
+            } else {
+                // includes ids older than the newest indexed one, which forces a re-layout
+                Integer category = randomCategory(random);
+                String price = randomPrice(random);
+                put(id, category, price);
+                index.put(id, category, category == null ? null : "Category " + category, new BigDecimal(price));
+            }
+
+            if (step % 50 == 0) {
+                for (int q = 0; q < 10; q++) {
+                    Set<Integer> categories = new HashSet<>();
+                    if (random.nextBoolean()) categories.addAll(List.of(1 + random.nextInt(4), 1 + random.nextInt(4)));
+                    Set<Integer> buckets = random.nextBoolean() ? Set.of() : Set.of(random.nextInt(5));
+                    Integer after = random.nextBoolean() ? null : random.nextInt(650);
+                    List<Integer> expected = expectedIds(categories, buckets, after);
+
+                    FacetResult r = index.query(categories, buckets, after, 15);
+                    assertThat(r.getProductIds()).isEqualTo(expected.subList(0, Math.min(15, expected.size())));
+                    assertThat(r.isHasMore()).isEqualTo(expected.size() > 15);
+                    if (after == null) assertThat(r.getTotal()).isEqualTo(expected.size());
+                }
+            }
+        }
+    }
+
+    private void build() {
+        ProductRepositry productRepositry = mock(ProductRepositry.class);
+        List<ProductFacetRow> rows = new ArrayList<>();
+        products.forEach((id, v) -> rows.add(new ProductFacetRow(id, (Integer) v[0], (BigDecimal) v[1])));
+        when(productRepositry.findFacetRows()).thenReturn(rows);
+
+        ProductCategoryRepositry categoryRepositry = mock(ProductCategoryRepositry.class);
+        List<ProductCategoryModel> dictionary = new ArrayList<>();
+        for (int c = 1; c <= 8; c++) {
+            ProductCategoryModel m = new ProductCategoryModel();
+            m.setId(c);
+            m.setName("Category " + c);
+            dictionary.add(m);
+        }
+        when(categoryRepositry.findAll()).thenReturn(dictionary);
+
+        index = new ProductFacetIndex();
+        ReflectionTestUtils.setField(index, "productRepositryObj", productRepositry);
+        ReflectionTestUtils.setField(index, "productCategoryRepositryObj", categoryRepositry);
+        ReflectionTestUtils.setField(index, "priceBounds", BOUNDS);
+        index.buildOnStartup();
+    }
+
+    private List<Integer> expectedIds(Set<Integer> categories, Set<Integer> buckets, Integer afterId) {
+        List<Integer> ids = new ArrayList<>();
+        for (Map.Entry<Integer, Object[]> e : products.descendingMap().entrySet()) {
+            if (afterId != null && e.getKey() >= afterId) continue;
+            Integer category = (Integer) e.getValue()[0];
+            if (!categories.isEmpty() && (category == null || !categories.contains(category))) continue;
+            if (!buckets.isEmpty() && !buckets.contains(bucketOf((BigDecimal) e.getValue()[1]))) continue;
+            ids.add(e.getKey());
+        }
+        return ids;
+    }
+
+    private static int bucketOf(BigDecimal price) {
+        int b = 0;
+        while (b < BOUNDS.length && price.compareTo(BOUNDS[b]) >= 0) b++;
+        return b;
+    }
+
+    private static Map<Integer, Integer> counts(List<FacetCount> facet) {
+        Map<Integer, Integer> out = new HashMap<>();
+        facet.stream().sorted(Comparator.comparing(FacetCount::getId)).forEach(f -> out.put(f.getId(), f.getCount()));
+        return out;
+    }
+
+    private void put(int id, Integer categoryId, String price) {
+        products.put(id, new Object[] { categoryId, new BigDecimal(price) });
+    }
+
+    private static Integer randomCategory(Random random) {
+        int c = random.nextInt(5);
+        return c == 0 ? null : c;
+    }
+
+    private static String randomPrice(Random random) {
+        return BigDecimal.valueOf(random.nextInt(15000), 2).toPlainString();
+    }
+}
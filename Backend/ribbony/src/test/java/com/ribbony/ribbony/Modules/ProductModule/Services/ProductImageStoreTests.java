@@ -0,0 +1,117 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImageResponse;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+
+class ProductImageStoreTests {
+
+    @TempDir
+    Path dir;
+
+    private ProductImageStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ProductImageStore();
+        ReflectionTestUtils.setField(store, "dir", dir.toString());
+        ReflectionTestUtils.setField(store, "maxBytes", 1_000_000L);
+        ReflectionTestUtils.setField(store, "maxPixels", 4_000_000L);
+        ReflectionTestUtils.setField(store, "thumbSizes", new int[] { 16, 64 });
+    }
+
+    @Test
+    void storesByContentHashWithThumbnails() throws IOException {
+        ProductImageResponse stored = store.store(new ByteArrayInputStream(png(200, 100, Color.RED)));
+
+        assertThat(stored.getWidth()).isEqualTo(200);
+        assertThat(stored.getThumbnails()).containsOnlyKeys(16, 64);
+        assertThat(stored.getUrl()).isEqualTo(ProductImageStore.URL_PREFIX + stored.getHash() + ".png");
+
+        ProductImageStore.StoredImage thumb = store.find(stored.getHash() + "-64.png").orElseThrow();
+        assertThat(ImageIO.read(thumb.getPath().toFile()).getWidth()).isEqualTo(64);
+        assertThat(store.find(stored.getHash() + ".jpg")).isEmpty();
+        assertThat(store.find("../" + stored.getHash() + ".png")).isEmpty();
+    }
+
+    @Test
+    void sameBytesUploadedAgainLeaveNoTempFilesBehind() throws Exception {
+        byte[] image = png(120, 80, Color.BLUE);
+        String first = store.store(new ByteArrayInputStream(image)).getHash();
+        String second = store.store(new ByteArrayInputStream(image)).getHash();
+        assertThat(second).isEqualTo(first);
+
+        // concurrent duplicates race on the same target name
+        List<CompletableFuture<ProductImageResponse>> uploads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            uploads.add(CompletableFuture.supplyAsync(() -> store.store(new ByteArrayInputStream(image))));
+        }
+        for (CompletableFuture<ProductImageResponse> upload : uploads) {
+            assertThat(upload.get().getHash()).isEqualTo(first);
+        }
+
+        assertThat(tempFiles()).isEmpty();
+        assertThat(storedFiles()).hasSize(3);
+    }
+
+    @Test
+    void rejectedUploadsLeaveNoTempFilesBehind() throws IOException {
+        assertThatThrownBy(() -> store.store(new ByteArrayInputStream("not an image".getBytes())))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> store.store(new ByteArrayInputStream(new byte[0])))
+                .isInstanceOf(BadRequestException.class);
+
+        ReflectionTestUtils.setField(store, "maxBytes", 100L);
+        assertThatThrownBy(() -> store.store(new ByteArrayInputStream(png(300, 300, Color.GREEN))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at most 100 bytes");
+
+        assertThat(tempFiles()).isEmpty();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    private List<Path> tempFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".tmp")).toList();
+        }
+    }
+
+    private List<Path> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).filter(p -> !p.getFileName().toString().endsWith(".tmp")).toList();
+        }
+    }
+
+    private static byte[] png(int width, int height, Color colour) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(colour);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
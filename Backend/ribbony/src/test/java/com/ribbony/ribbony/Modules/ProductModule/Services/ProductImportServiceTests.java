@@ -0,0 +1,230 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImportError;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductImportResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSuggestion;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class ProductImportServiceTests extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportServiceTests.class);
+
+    private static final int BENCHMARK_ROWS = 100_000;
+
+    @Autowired
+    private ProductImportService productImportServiceObj;
+
+    @Autowired
+    private ProductSuggestIndex productSuggestIndexObj;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndexObj;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCacheObj;
+
+    @Autowired
+    private ProductCatalogSnapshot productCatalogSnapshotObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // prefix for every product name in a test, so assertions only see that test's rows
+    private String tag;
+
+    @BeforeEach
+    void setUp() {
+        tag = TestData.unique("imp").replace("-", "");
+    }
+
+    @Test
+    void csvQuotingAndMultiLineFieldsRoundTrip() {
+        String csv = "Name,Price,Description,Category,Product_Image\r\n"
+                + "\"" + tag + " ribbon, red\",4.50,\"Say \"\"hi\"\"\",Ribbons,\r\n"
+                + tag + " bow,2.00,\"first line\nsecond line\n\",Bows,/img/bow.png\n"
+                + "\n"
+                + tag + " tag,1.25,,Tags,\n";
+
+        ProductImportResponse report = importCsv(csv, "insert");
+
+        assertThat(report.getErrors()).isEmpty();
+        assertThat(report.getRowsRead()).isEqualTo(3);
+        assertThat(report.getInserted()).isEqualTo(3);
+
+        Map<String, Object> ribbon = row(tag + " ribbon, red");
+        assertThat((BigDecimal) ribbon.get("product_price")).isEqualByComparingTo("4.50");
+        assertThat(ribbon.get("description")).isEqualTo("Say \"hi\"");
+        assertThat(ribbon.get("product_images")).isNull();
+
+        Map<String, Object> bow = row(tag + " bow");
+        assertThat(bow.get("description")).isEqualTo("first line\nsecond line\n");
+        assertThat(bow.get("product_images")).isEqualTo("/img/bow.png");
+        assertThat(bow.get("category_id")).isNotNull();
+
+        assertThat(row(tag + " tag").get("description")).isNull();
+
+        // indexes are patched per committed batch, so the rows are suggestible without a rebuild
+        assertThat(productSuggestIndexObj.suggest(tag, 10)).extracting(ProductSuggestion::getText)
+                .containsExactlyInAnyOrder(tag + " ribbon, red", tag + " bow", tag + " tag");
+    }
+
+    @Test
+    void badRowsAreReportedByTheLineTheyStartOnAndSkipped() {
+        String csv = "name,price,description,category\n"
+                + tag + " a,1.00,\"spans\nthree\nlines\",Bows\n"  // lines 2-4
+                + tag + " b,abc,x,Bows\n"                         // line 5
+                + tag + " c,1.00,x\n"                             // line 6
+                + tag + " a,2.00,dup,Bows\n"                      // line 7
+                + tag + " d,-3,neg,Bows\n"                        // line 8
+                + ",1.00,nameless,Bows\n"                         // line 9
+                + tag + " e,3.00,ok,Bows\n";                      // line 10
+
+        ProductImportResponse report = importCsv(csv, "insert");
+
+        assertThat(report.getRowsRead()).isEqualTo(7);
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(5);
+        assertThat(report.getErrors()).extracting(ProductImportError::getLine).containsExactly(5L, 6L, 7L, 8L, 9L);
+        assertThat(report.getErrors().get(0).getMessage()).contains("price is not a number");
+        assertThat(report.getErrors().get(1).getMessage()).contains("Expected 4 fields, found 3");
+        assertThat(report.getErrors().get(2).getMessage()).contains("Duplicate name");
+        assertThat(countTagged()).isEqualTo(2);
+    }
+
+    @Test
+    void upsertUpdatesExistingNamesAndKeepsFieldsTheRowLeavesEmpty() {
+        importCsv("name,price,description,category\n"
+                + tag + " satin,3.00,Original text,Ribbons\n", "insert");
+        int id = ((Number) row(tag + " satin").get("id")).intValue();
+
+        // insert mode refuses an existing name
+        ProductImportResponse refused = importCsv("name,price,category\n" + tag + " satin,9.00,Ribbons\n", "insert");
+        assertThat(refused.getInserted()).isZero();
+        assertThat(refused.getErrors()).singleElement()
+                .satisfies(e -> assertThat(e.getMessage()).contains("already exists"));
+
+        ProductImportResponse report = importCsv("name,price,description,category\n"
+                + tag + " satin,3.75,,Ribbons\n"
+                + tag + " organza,5.00,New,Ribbons\n", "upsert");
+
+        assertThat(report.getErrors()).isEmpty();
+        assertThat(report.getUpdated()).isEqualTo(1);
+        assertThat(report.getInserted()).isEqualTo(1);
+
+        Map<String, Object> satin = row(tag + " satin");
+        assertThat(((Number) satin.get("id")).intValue()).isEqualTo(id);
+        assertThat((BigDecimal) satin.get("product_price")).isEqualByComparingTo("3.75");
+        assertThat(satin.get("description")).isEqualTo("Original text");
+        assertThat(satin.get("category")).isEqualTo("Ribbons");
+        assertThat(countTagged()).isEqualTo(2);
+    }
+
+    @Test
+    void everyBatchCommitsOnItsOwnAndAnUnterminatedQuoteStopsTheRead() {
+        Object batchSize = ReflectionTestUtils.getField(productImportServiceObj, "batchSize");
+        ReflectionTestUtils.setField(productImportServiceObj, "batchSize", 2);
+        try {
+            StringBuilder csv = new StringBuilder("name,price,category,description\n");
+            for (int i = 0; i < 5; i++) {
+                csv.append(tag).append(" p").append(i).append(",1.00,Bows,x\n");
+            }
+            csv.append(tag).append(" broken,1.00,Bows,\"never closed\nstill open\n");
+
+            ProductImportResponse report = importCsv(csv.toString(), "insert");
+
+            assertThat(report.getInserted()).isEqualTo(5);
+            assertThat(report.getErrors()).singleElement()
+                    .satisfies(e -> assertThat(e.getMessage()).contains("Unterminated quoted field starting on line 7"));
+            assertThat(countTagged()).isEqualTo(5);
+        } finally {
+            ReflectionTestUtils.setField(productImportServiceObj, "batchSize", batchSize);
+        }
+    }
+
+    @Test
+    void ndjsonRowsAreValidatedLikeTheSaveEndpoint() {
+        String ndjson = "{\"name\":\"" + tag + " one\",\"price\":2.5,\"category\":\"Bows\"}\n"
+                + "{\"name\":\"" + tag + " two\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"name\":\"" + tag + " three\",\"price\":1,\"category\":\"Bows\"}\n";
+
+        ProductImportResponse report = productImportServiceObj.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), "ndjson", null);
+
+        assertThat(report.getRowsRead()).isEqualTo(4);
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ProductImportError::getLine).containsExactly(2L, 3L);
+        assertThat(report.getErrors().get(1).getMessage()).startsWith("Invalid JSON");
+    }
+
+    @Test
+    void reportsThroughputOfAHundredThousandRowImport() {
+        StringBuilder csv = new StringBuilder("name,price,description,category\n");
+        for (int i = 0; i < BENCHMARK_ROWS; i++) {
+            csv.append(tag).append(" p").append(i).append(',').append(1 + i % 500).append(".25,")
+                    .append("\"Row ").append(i).append(", imported\",").append(i % 2 == 0 ? "Bows" : "Ribbons").append('\n');
+        }
+        byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        try {
+            long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            ProductImportResponse report = productImportServiceObj.importProducts(
+                    new ByteArrayInputStream(body), "csv", "insert");
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+            assertThat(report.getErrors()).isEmpty();
+            assertThat(report.getInserted()).isEqualTo(BENCHMARK_ROWS);
+            assertThat(countTagged()).isEqualTo(BENCHMARK_ROWS);
+
+            // informational only: timings on shared CI machines are too noisy to assert on
+            log.info("import of {} CSV rows ({} KB) in batches of {}: {}ms, {} rows/s, {} bytes allocated per row",
+                    BENCHMARK_ROWS, body.length / 1024, ReflectionTestUtils.getField(productImportServiceObj, "batchSize"),
+                    millis, BENCHMARK_ROWS * 1000L / millis, allocated / BENCHMARK_ROWS);
+        } finally {
+            // every batch committed, so take the rows back out of the table and rebuild the in-memory indexes from it
+            List<Integer> ids = jdbcTemplate.queryForList(
+                    "DELETE FROM product WHERE product_name LIKE ? RETURNING id", Integer.class, tag + " %");
+            productSuggestIndexObj.rebuild();
+            productFacetIndexObj.buildOnStartup();
+            productCatalogCacheObj.invalidateAll(ids);
+            productCatalogSnapshotObj.invalidate();
+        }
+    }
+
+    private ProductImportResponse importCsv(String csv, String mode) {
+        return productImportServiceObj.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), "csv", mode);
+    }
+
+    private Map<String, Object> row(String name) {
+        return jdbcTemplate.queryForMap("SELECT * FROM product WHERE product_name = ?", name);
+    }
+
+    private int countTagged() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM product WHERE product_name LIKE ?", Integer.class,
+                tag + " %");
+    }
+}
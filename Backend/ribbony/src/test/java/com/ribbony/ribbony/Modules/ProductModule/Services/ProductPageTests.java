@@ -0,0 +1,175 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductSort;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductPageResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductResponse;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+/**
+ * Walks /products/page cursor by cursor and compares the concatenated pages with the same rows sorted in Java.
+ * Each test seeds its prices into its own band (9000.00-9000.99, 9001.00-9001.99, ...), which no other test
+ * uses, so a price range alone also isolates its rows.
+ */
+class ProductPageTests extends PostgresIntegrationTest {
+
+    private static final int PAGE = 4;
+
+    // names are lowercase letters only, so every collation orders them the same way; duplicates test the id tie-break
+    private static final String[] NAMES = { "velvet", "satin", "satin", "organza", "grosgrain", "bow", "tulle", "lace",
+            "cord", "sash", "twine", "ribbon", "braid" };
+    private static final String[] CENTS = { ".50", ".10", ".50", ".90", ".30", ".10", ".70", ".50", ".20", ".80", ".60",
+            ".40", ".30" };
+
+    private static final AtomicInteger BAND = new AtomicInteger(9000);
+
+    @Autowired
+    private ProductService productServiceObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String category;
+    private int band;
+    private final List<Row> rows = new ArrayList<>();
+
+    private record Row(int id, String name, BigDecimal price, LocalDateTime createdAt) { }
+
+    @BeforeEach
+    void setUp() {
+        category = TestData.unique("Page");
+        band = BAND.getAndIncrement();
+        rows.clear();
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 10, 0);
+        for (int i = 0; i < NAMES.length; i++) {
+            // two products per minute, so NEWEST has ties on created_at as well
+            rows.add(insert(NAMES[i], price(CENTS[i]), base.plusMinutes(i / 2)));
+        }
+    }
+
+    @Test
+    void everySortAndFilterWalksAllMatchesOnceInOrder() {
+        BigDecimal min = price(".20");
+        BigDecimal max = price(".60");
+        for (ProductSort sort : ProductSort.values()) {
+            check(sort, category, null, null, r -> true);
+            check(sort, category, min, null, r -> r.price.compareTo(min) >= 0);
+            check(sort, category, null, max, r -> r.price.compareTo(max) <= 0);
+            check(sort, category, min, max, r -> r.price.compareTo(min) >= 0 && r.price.compareTo(max) <= 0);
+            check(sort, null, price(".00"), price(".99"), r -> true);
+        }
+    }
+
+    @Test
+    void rowsWrittenDuringTheWalkNeitherRepeatNorHideOthers() {
+        ProductPageResponse first = page(ProductSort.NEWEST, category, null, null, null);
+        List<Integer> seen = new ArrayList<>(ids(first));
+
+        // newer than the cursor: belongs to pages already read. Older than everything: must still show up at the end
+        insert("zebra", price(".55"), LocalDateTime.of(2030, 1, 1, 0, 0));
+        Row oldest = insert("aster", price(".55"), LocalDateTime.of(2000, 1, 1, 0, 0));
+
+        String cursor = first.getNextCursor();
+        while (cursor != null) {
+            ProductPageResponse next = page(ProductSort.NEWEST, category, null, null, cursor);
+            seen.addAll(ids(next));
+            cursor = next.getNextCursor();
+        }
+
+        List<Integer> expected = new ArrayList<>(sorted(ProductSort.NEWEST, r -> r.createdAt.getYear() == 2024));
+        expected.add(oldest.id);
+        assertThat(seen).isEqualTo(expected);
+        assertThat(new HashSet<>(seen)).hasSize(seen.size());
+    }
+
+    @Test
+    void aCursorOnlyContinuesTheListingItWasIssuedFor() {
+        BigDecimal min = price(".20");
+        BigDecimal max = price(".60");
+        String cursor = page(ProductSort.PRICE_ASC, category, min, max, null).getNextCursor();
+        assertThat(cursor).isNotNull();
+
+        assertThatThrownBy(() -> page(ProductSort.NAME_ASC, category, min, max, cursor))
+                .isInstanceOf(BadRequestException.class).hasMessageContaining("Invalid cursor");
+        assertThatThrownBy(() -> page(ProductSort.PRICE_ASC, TestData.unique("Other"), min, max, cursor))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> page(ProductSort.PRICE_ASC, category, min, null, cursor))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> page(ProductSort.PRICE_ASC, category, min, price(".70"), cursor))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> page(ProductSort.PRICE_ASC, category, min, max, "bm90LWEtY3Vyc29y"))
+                .isInstanceOf(BadRequestException.class);
+
+        // the same bound written at another scale is the same filter
+        assertThat(ids(page(ProductSort.PRICE_ASC, category, price(".2"), price(".600"), cursor)))
+                .isNotEmpty();
+    }
+
+    private void check(ProductSort sort, String category, BigDecimal min, BigDecimal max, Predicate<Row> matches) {
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductPageResponse p = page(sort, category, min, max, cursor);
+            assertThat(p.getProducts()).hasSizeLessThanOrEqualTo(PAGE);
+            seen.addAll(ids(p));
+            cursor = p.getNextCursor();
+            assertThat(++pages).isLessThanOrEqualTo(NAMES.length);
+        } while (cursor != null);
+
+        assertThat(seen).as("%s category=%s min=%s max=%s", sort, category, min, max)
+                .isEqualTo(sorted(sort, matches));
+    }
+
+    private ProductPageResponse page(ProductSort sort, String category, BigDecimal min, BigDecimal max, String cursor) {
+        return productServiceObj.listProductPage(category, min, max, sort.name().toLowerCase(), cursor, PAGE);
+    }
+
+    private List<Integer> sorted(ProductSort sort, Predicate<Row> matches) {
+        Comparator<Row> order = switch (sort) {
+            case PRICE_ASC, PRICE_DESC -> Comparator.comparing(Row::price);
+            case NAME_ASC, NAME_DESC -> Comparator.comparing(Row::name);
+            default -> Comparator.comparing(Row::createdAt);
+        };
+        order = order.thenComparing(Row::id);
+        if (sort == ProductSort.NEWEST || sort == ProductSort.PRICE_DESC || sort == ProductSort.NAME_DESC) {
+            order = order.reversed();
+        }
+        return rows.stream().filter(matches).sorted(order).map(Row::id).toList();
+    }
+
+    private static List<Integer> ids(ProductPageResponse page) {
+        return page.getProducts().stream().map(ProductResponse::getId).toList();
+    }
+
+    private BigDecimal price(String cents) {
+        return new BigDecimal(band + cents);
+    }
+
+    private Row insert(String name, BigDecimal price, LocalDateTime createdAt) {
+        Integer id = jdbcTemplate.queryForObject(
+                "INSERT INTO product (product_name, product_price, category, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?) RETURNING id",
+                Integer.class, name, price, category, Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt));
+        return new Row(id, name, price, createdAt);
+    }
+}
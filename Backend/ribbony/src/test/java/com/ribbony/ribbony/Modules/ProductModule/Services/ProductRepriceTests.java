@@ -0,0 +1,138 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductCategoryRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.dto.BulkRepriceRequest;
+import com.ribbony.ribbony.Modules.ProductModule.dto.BulkRepriceResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.CreateProductRequest;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class ProductRepriceTests extends PostgresIntegrationTest {
+
+    @Autowired
+    private ProductService productServiceObj;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCacheObj;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndexObj;
+
+    @Autowired
+    private ProductCategoryRepositry productCategoryRepositryObj;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Object batchSize;
+    private Object maxProducts;
+    private String category;
+    private List<Integer> ids;
+
+    @BeforeEach
+    void setUp() {
+        // small batches, so one request spans several UPDATE statements
+        batchSize = ReflectionTestUtils.getField(productServiceObj, "repriceBatchSize");
+        maxProducts = ReflectionTestUtils.getField(productServiceObj, "maxRepriceProducts");
+        ReflectionTestUtils.setField(productServiceObj, "repriceBatchSize", 2);
+
+        category = TestData.unique("Sashes");
+        ids = new ArrayList<>();
+        for (String price : new String[] { "8.00", "12.00", "20.00", "30.00", "40.00" }) {
+            ids.add(addProduct(new BigDecimal(price)));
+        }
+    }
+
+    @AfterEach
+    void restore() {
+        ReflectionTestUtils.setField(productServiceObj, "repriceBatchSize", batchSize);
+        ReflectionTestUtils.setField(productServiceObj, "maxRepriceProducts", maxProducts);
+    }
+
+    @Test
+    void categoryRepriceSpansBatchesAndRefreshesCacheAndFacets() {
+        int categoryId = productCategoryRepositryObj.findByName(category).orElseThrow().getId();
+        productCatalogCacheObj.getAll(ids);
+
+        BulkRepriceResponse resp = productServiceObj.repriceProducts(rule(new BigDecimal("25")));
+
+        assertThat(resp.getMatched()).isEqualTo(5);
+        assertThat(resp.getUpdated()).isEqualTo(5);
+        assertThat(prices()).containsExactly("10.00", "15.00", "25.00", "37.50", "50.00");
+
+        // the cache was primed with the old prices before the request
+        assertThat(productCatalogCacheObj.getAll(ids).get(ids.get(0)).getPrice()).isEqualByComparingTo("10.00");
+
+        // 8.00 moved from the 0-10 bucket to 10-25, 40.00 from 25-50 to 50-100
+        assertThat(productFacetIndexObj.query(List.of(categoryId), List.of(0), null, 10).getProductIds()).isEmpty();
+        assertThat(productFacetIndexObj.query(List.of(categoryId), List.of(3), null, 10).getProductIds())
+                .containsExactly(ids.get(4));
+    }
+
+    @Test
+    void aRequestThatFailsPartWayChangesNothing() {
+        productCatalogCacheObj.getAll(ids);
+        ReflectionTestUtils.setField(productServiceObj, "maxRepriceProducts", 3);
+
+        // the first two batches (4 products) update before the selection is found to be too large
+        assertThatThrownBy(() -> productServiceObj.repriceProducts(rule(new BigDecimal("25"))))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("more than 3 products");
+
+        assertThat(prices()).containsExactly("8.00", "12.00", "20.00", "30.00", "40.00");
+        assertThat(productCatalogCacheObj.getAll(ids).get(ids.get(0)).getPrice()).isEqualByComparingTo("8.00");
+    }
+
+    @Test
+    void rejectedAndUnchangedPricesAreCountedAndKept() {
+        BulkRepriceRequest request = new BulkRepriceRequest();
+        request.setProductIds(List.of(ids.get(0), ids.get(1)));
+        request.setPercent(new BigDecimal("-99.99"));
+
+        BulkRepriceResponse cut = productServiceObj.repriceProducts(request);
+        assertThat(cut.getRejected()).isEqualTo(2);
+        assertThat(cut.getUpdated()).isZero();
+
+        request.setPercent(null);
+        request.setEnding(new BigDecimal("0.00"));
+        BulkRepriceResponse same = productServiceObj.repriceProducts(request);
+        assertThat(same.getUnchanged()).isEqualTo(2);
+
+        assertThat(prices()).containsExactly("8.00", "12.00", "20.00", "30.00", "40.00");
+    }
+
+    private BulkRepriceRequest rule(BigDecimal percent) {
+        BulkRepriceRequest request = new BulkRepriceRequest();
+        request.setCategory(category);
+        request.setPercent(percent);
+        return request;
+    }
+
+    private int addProduct(BigDecimal price) {
+        CreateProductRequest request = new CreateProductRequest();
+        request.setName(TestData.unique("sash"));
+        request.setPrice(price);
+        request.setCategory(category);
+        return productServiceObj.addProduct(request).getId();
+    }
+
+    private List<String> prices() {
+        return jdbcTemplate.queryForList("SELECT product_price FROM product WHERE id = ANY(?) ORDER BY id",
+                BigDecimal.class, (Object) ids.toArray(new Integer[0])).stream().map(BigDecimal::toPlainString).toList();
+    }
+}
@@ -0,0 +1,167 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductPageResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductResponse;
+import com.ribbony.ribbony.Modules.ProductModule.dto.UpdateProductRequest;
+import com.ribbony.ribbony.Modules.SharedInfrastructureModule.exception.BadRequestException;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+class ProductSearchTests extends PostgresIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchTests.class);
+
+    @Autowired
+    private ProductService productServiceObj;
+
+    @Autowired
+    private ProductRepositry productRepositryObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestData data;
+
+    // a word no other test's products contain, so every query below only sees this test's rows
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        token = TestData.unique("tok").replace("-", "");
+    }
+
+    @Test
+    void nameMatchesOutrankCategoryAndDescriptionMatches() {
+        int inDescription = product("Plain box", "Ribbons", "Tied with a " + token + " bow");
+        int inCategory = product("Gift tag", token + " extras", null);
+        int inName = product(token + " ribbon", "Ribbons", null);
+
+        assertThat(ids(productServiceObj.searchProducts(token, null, 10)))
+                .containsExactly(inName, inCategory, inDescription);
+    }
+
+    @Test
+    void everyWordMatchesAsAPrefix() {
+        int satin = product(token + " satin ribbon", "Ribbons", null);
+        product(token + " organza ribbon", "Ribbons", null);
+
+        // the last word is still being typed
+        assertThat(ids(productServiceObj.searchProducts(token.substring(0, token.length() - 2), null, 10))).hasSize(2);
+        assertThat(ids(productServiceObj.searchProducts(token + " sat", null, 10))).containsExactly(satin);
+        assertThat(ids(productServiceObj.searchProducts("  " + token + "!!  SATIN  ", null, 10))).containsExactly(satin);
+    }
+
+    @Test
+    void pagesFollowTheCursorWithoutGapsOrRepeats() {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(product(token + " spool " + i, "Ribbons", null));
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ProductPageResponse page = productServiceObj.searchProducts(token, cursor, 3);
+            seen.addAll(ids(page));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void updatesAreSearchableRightAway() {
+        int id = product("Velvet bow", "Bows", null);
+        assertThat(ids(productServiceObj.searchProducts(token, null, 10))).isEmpty();
+
+        UpdateProductRequest update = new UpdateProductRequest();
+        update.setId(id);
+        update.setDescription("Now with " + token + " trim");
+        productServiceObj.updateProduct(update);
+
+        assertThat(ids(productServiceObj.searchProducts(token, null, 10))).containsExactly(id);
+    }
+
+    @Test
+    void rejectsQueriesWithoutWordsAndBadCursors() {
+        assertThatThrownBy(() -> productServiceObj.searchProducts(" &|! ", null, 10))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> productServiceObj.searchProducts(token, "not-a-cursor", 10))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void reportsLatencyOnALargeCatalog() {
+        int catalog = 100_000;
+        String[] queries = { "ribb", "satin red", "spool 12", "gift", "organza wide" };
+        int timedRuns = 20;
+
+        // seeded and searched in one transaction that is rolled back, so the shared database keeps its size
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(
+                    "INSERT INTO product (product_name, product_price, category, description, created_at, updated_at) "
+                            + "SELECT (ARRAY['satin','organza','grosgrain','velvet'])[1 + g % 4] || ' ribbon ' "
+                            + "|| (ARRAY['red','blue','gold','white','green'])[1 + g % 5] || ' ' || ? || g, "
+                            + "1.00 + g % 40, (ARRAY['Ribbons','Bows','Gift wrap'])[1 + g % 3], "
+                            + "(ARRAY['narrow','wide','wired','double faced'])[1 + g % 4] || ' spool ' || (g % 50), "
+                            + "now(), now() FROM generate_series(1, ?) g",
+                    token, catalog);
+            jdbcTemplate.execute("ANALYZE product");
+
+            for (String q : queries) {
+                String tsQuery = String.join(" & ", Arrays.stream(q.split(" ")).map(w -> w + ":*").toList());
+                productRepositryObj.searchIds(tsQuery, null, null, 25);
+
+                long[] nanos = new long[timedRuns];
+                for (int run = 0; run < timedRuns; run++) {
+                    long start = System.nanoTime();
+                    productRepositryObj.searchIds(tsQuery, null, null, 25);
+                    nanos[run] = System.nanoTime() - start;
+                }
+                Arrays.sort(nanos);
+
+                // informational only: timings on shared CI machines are too noisy to assert on
+                log.info("search '{}' over {} products: p50={}us p95={}us", q, catalog,
+                        nanos[timedRuns / 2] / 1000, nanos[(int) Math.ceil(timedRuns * 0.95) - 1] / 1000);
+            }
+            status.setRollbackOnly();
+        });
+    }
+
+    private int product(String name, String category, String description) {
+        int id = data.product(name, new BigDecimal("2.00"), category);
+        if (description != null) {
+            jdbcTemplate.update("UPDATE product SET description = ? WHERE id = ?", description, id);
+        }
+        return id;
+    }
+
+    private static List<Integer> ids(ProductPageResponse page) {
+        return page.getProducts().stream().map(ProductResponse::getId).toList();
+    }
+}
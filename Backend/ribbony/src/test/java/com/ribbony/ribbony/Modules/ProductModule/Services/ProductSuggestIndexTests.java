@@ -0,0 +1,204 @@
+package com.ribbony.ribbony.Modules.ProductModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.ribbony.ribbony.Modules.ProductModule.Models.ProductModel;
+import com.ribbony.ribbony.Modules.ProductModule.Repo.ProductRepositry;
+import com.ribbony.ribbony.Modules.ProductModule.dto.ProductSuggestion;
+
+/**
+ * The index against a stub repository: the test owns the "table" (rows) and the sales rollup (unitsSold).
+ */
+class ProductSuggestIndexTests {
+
+    private static final String[] WORDS = { "satin", "organza", "grosgrain", "velvet", "red", "gold", "ribbon", "bow",
+            "wired", "rosette", "ruby", "sash" };
+    private static final String[] CATEGORIES = { "Ribbons", "Bows", "Gift Wrap", "Rosettes" };
+
+    private final Map<Integer, ProductModel> rows = new HashMap<>();
+    private final Map<Integer, Long> unitsSold = new HashMap<>();
+
+    // when set, the next table scan blocks after reading the rows
+    private volatile CountDownLatch scanStarted;
+    private volatile CountDownLatch releaseScan;
+
+    @BeforeEach
+    void setUp() {
+        rows.clear();
+        unitsSold.clear();
+    }
+
+    @Test
+    void matchesWordStartsRankedByUnitsSold() {
+        add(1, "Satin Ribbon", "Ribbons", 5);
+        add(2, "Red Satin Ribbon", "Ribbons", 40);
+        add(3, "Organza Bow", "Bows", 100);
+        add(4, "Ribbon Cutter", "Tools", 0);
+        ProductSuggestIndex index = built();
+
+        assertThat(index.suggest("rib", 10)).extracting(ProductSuggestion::getText)
+                .containsExactly("Ribbons", "Red Satin Ribbon", "Satin Ribbon", "Ribbon Cutter");
+        assertThat(index.suggest("rib", 10).get(0).getType()).isEqualTo(ProductSuggestIndex.TYPE_CATEGORY);
+        assertThat(index.suggest("SATIN  rib", 10)).extracting(ProductSuggestion::getProductId).containsExactly(2, 1);
+
+        // prefixes of words only, never the middle of one
+        assertThat(index.suggest("atin", 10)).isEmpty();
+        assertThat(index.suggest("rib", 2)).hasSize(2);
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void shortPrefixOverALargeRangeRanksLikeTheRangeScan() {
+        for (int id = 1; id <= 600; id++) {
+            add(id, "Ribbon " + id, "Trims", (id * 37L) % 101);
+        }
+        ProductSuggestIndex index = built();
+
+        // "r" spans more than the range scan limit, "ribbon 1" does not; both must rank by units sold then id
+        assertThat(index.suggest("r", 8)).isEqualTo(expected("r", 8));
+        assertThat(index.suggest("ribbon 1", 8)).isEqualTo(expected("ribbon 1", 8));
+    }
+
+    @Test
+    void patchedIndexAnswersLikeAFreshRebuild() {
+        Random random = new Random(42);
+        for (int id = 1; id <= 300; id++) {
+            add(id, randomName(random), CATEGORIES[random.nextInt(CATEGORIES.length)], random.nextInt(50));
+        }
+        ProductSuggestIndex patched = built();
+
+        for (int step = 0; step < 500; step++) {
+            int id = 1 + random.nextInt(400);
+            int action = random.nextInt(10);
+            if (action < 2) {
+                rows.remove(id);
+                patched.remove(id);
+            } else if (action < 9) {
+                ProductModel p = product(id, randomName(random), CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                rows.put(id, p);
+                patched.put(p);
+            } else {
+                List<ProductModel> batch = new ArrayList<>();
+                for (int k = 0; k < 5; k++) {
+                    int bid = 1 + random.nextInt(400);
+                    ProductModel p = product(bid, randomName(random), CATEGORIES[random.nextInt(CATEGORIES.length)]);
+                    rows.put(bid, p);
+                    batch.add(p);
+                }
+                patched.putAll(batch);
+            }
+        }
+        ProductSuggestIndex rebuilt = built();
+
+        List<String> prefixes = new ArrayList<>(List.of("r", "ro", "rib", "s", "sa", "gift", "gift w", "bows", "x"));
+        for (String word : WORDS) {
+            prefixes.add(word);
+            prefixes.add(word.substring(0, 2));
+        }
+        for (String prefix : prefixes) {
+            assertThat(patched.suggest(prefix, 20)).as("suggest(%s)", prefix).isEqualTo(rebuilt.suggest(prefix, 20));
+        }
+        assertThat(patched.getMetrics().getKeys()).isEqualTo(rebuilt.getMetrics().getKeys());
+        assertThat(patched.getMetrics().getCategories()).isEqualTo(rebuilt.getMetrics().getCategories());
+    }
+
+    @Test
+    void writesDuringARebuildScanAreNotLost() throws Exception {
+        add(1, "Satin Ribbon", "Ribbons", 0);
+        add(2, "Velvet Bow", "Bows", 0);
+        ProductSuggestIndex index = built();
+
+        scanStarted = new CountDownLatch(1);
+        releaseScan = new CountDownLatch(1);
+        CompletableFuture<Void> rebuild = CompletableFuture.runAsync(index::rebuild);
+        assertThat(scanStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // the scan has already read the table; these writes land after it
+        ProductModel gold = product(3, "Gold Rosette", "Rosettes");
+        rows.put(3, gold);
+        index.put(gold);
+        rows.remove(2);
+        index.remove(2);
+        releaseScan.countDown();
+        rebuild.get(10, TimeUnit.SECONDS);
+
+        assertThat(index.suggest("gold", 10)).extracting(ProductSuggestion::getProductId).containsExactly(3);
+        assertThat(index.suggest("velvet", 10)).isEmpty();
+        assertThat(index.suggest("bows", 10)).isEmpty();
+    }
+
+    private ProductSuggestIndex built() {
+        ProductRepositry repository = mock(ProductRepositry.class);
+        when(repository.findAll()).thenAnswer(call -> {
+            List<ProductModel> snapshot = new ArrayList<>(rows.values());
+            CountDownLatch started = scanStarted;
+            if (started != null) {
+                scanStarted = null;
+                started.countDown();
+                releaseScan.await(10, TimeUnit.SECONDS);
+            }
+            return snapshot;
+        });
+        when(repository.findUnitsSoldSince(any(LocalDate.class))).thenAnswer(call -> new HashMap<>(unitsSold));
+
+        ProductSuggestIndex index = new ProductSuggestIndex();
+        ReflectionTestUtils.setField(index, "productRepositryObj", repository);
+        ReflectionTestUtils.setField(index, "popularityDays", 90);
+        index.rebuild();
+        return index;
+    }
+
+    // the product suggestions a linear scan would give: word-start match, then units sold desc, then id
+    private List<ProductSuggestion> expected(String prefix, int limit) {
+        return rows.values().stream()
+                .filter(p -> (" " + ProductSuggestIndex.normalize(p.getProductName())).contains(" " + prefix))
+                .sorted((a, b) -> {
+                    int byUnits = Long.compare(unitsSold.getOrDefault(b.getId(), 0L), unitsSold.getOrDefault(a.getId(), 0L));
+                    return byUnits != 0 ? byUnits : ("p" + a.getId()).compareTo("p" + b.getId());
+                })
+                .limit(limit)
+                .map(p -> new ProductSuggestion(ProductSuggestIndex.TYPE_PRODUCT, p.getProductName(), p.getId()))
+                .toList();
+    }
+
+    private void add(int id, String name, String category, long units) {
+        rows.put(id, product(id, name, category));
+        unitsSold.put(id, units);
+    }
+
+    private static String randomName(Random random) {
+        int words = 1 + random.nextInt(3);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) name.append(' ');
+            String w = WORDS[random.nextInt(WORDS.length)];
+            name.append(Character.toUpperCase(w.charAt(0))).append(w.substring(1));
+        }
+        return name.toString();
+    }
+
+    private static ProductModel product(int id, String name, String category) {
+        ProductModel p = new ProductModel();
+        p.setId(id);
+        p.setProductName(name);
+        p.setCategory(category);
+        return p;
+    }
+}
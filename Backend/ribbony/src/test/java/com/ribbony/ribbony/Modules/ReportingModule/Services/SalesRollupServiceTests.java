@@ -0,0 +1,249 @@
+package com.ribbony.ribbony.Modules.ReportingModule.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+import com.ribbony.ribbony.Modules.OrderModule.Services.OrderService;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderItemRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.CreateOrderRequest;
+import com.ribbony.ribbony.Modules.OrderModule.dto.UpdateOrderStatusRequest;
+import com.ribbony.ribbony.Modules.ReportingModule.Repo.SalesRollupRepositry;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.ReconcileReport;
+import com.ribbony.ribbony.Modules.ReportingModule.dto.RollupDrift;
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+import com.ribbony.ribbony.support.TestData;
+
+/**
+ * Rollups are shared by every test in the database, so assertions look at this test's own products and
+ * categories, and at differences of the day totals rather than their absolute values.
+ */
+class SalesRollupServiceTests extends PostgresIntegrationTest {
+
+    private static final UserDetails ADMIN = User.withUsername("admin@ribbony.test").password("x").roles("ADMIN").build();
+
+    @Autowired
+    private SalesRollupService salesRollupServiceObj;
+
+    @Autowired
+    private SalesRollupRepositry salesRollupRepositryObj;
+
+    @Autowired
+    private OrderService orderServiceObj;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestData data;
+    private UserDetails buyer;
+    private LocalDate today;
+    private String category;
+    private int satin;
+    private int organza;
+
+    @BeforeEach
+    void setUp() {
+        data = new TestData(jdbcTemplate);
+        buyer = User.withUsername(data.emailOf(data.user())).password("x").roles("USER").build();
+        today = LocalDate.now();
+        category = TestData.unique("Ribbons");
+        satin = data.product(TestData.unique("satin"), new BigDecimal("3.50"), category);
+        organza = data.product(TestData.unique("organza"), new BigDecimal("10.00"), category);
+    }
+
+    @Test
+    void placedOrdersAreAddedAndCancelAndReopenCorrectThem() {
+        long[] dayBefore = dayTotals();
+
+        int orderId = order(satin, 2, organza, 1);
+
+        assertThat(productRollup(satin)).containsExactly(2L, new BigDecimal("7.00"));
+        assertThat(productRollup(organza)).containsExactly(1L, new BigDecimal("10.00"));
+        assertThat(categoryRollup(category)).containsExactly(3L, new BigDecimal("17.00"));
+        assertThat(minus(dayTotals(), dayBefore)).containsExactly(1L, 3L, 1700L);
+
+        orderServiceObj.cancelOrderByUser(orderId, buyer);
+
+        assertThat(productRollup(satin)).containsExactly(0L, new BigDecimal("0.00"));
+        assertThat(categoryRollup(category)).containsExactly(0L, new BigDecimal("0.00"));
+        assertThat(minus(dayTotals(), dayBefore)).containsExactly(0L, 0L, 0L);
+
+        // leaving CANCELED counts the order again
+        UpdateOrderStatusRequest reopen = new UpdateOrderStatusRequest();
+        reopen.setStatus(OrderStatus.WORK_IN_PROGRESS.name());
+        orderServiceObj.updateOrderStatus(orderId, reopen, ADMIN);
+
+        assertThat(productRollup(satin)).containsExactly(2L, new BigDecimal("7.00"));
+        assertThat(categoryRollup(category)).containsExactly(3L, new BigDecimal("17.00"));
+        assertThat(minus(dayTotals(), dayBefore)).containsExactly(1L, 3L, 1700L);
+        assertThat(ownDrift(salesRollupRepositryObj.findDrift(today, today))).isEmpty();
+    }
+
+    @Test
+    void aRecategorizedProductIsCorrectedUnderTheCategoryItWasSoldIn() {
+        int orderId = order(satin, 4, organza, 1);
+        String renamed = TestData.unique("Trims");
+        jdbcTemplate.update("UPDATE product SET category = ? WHERE id IN (?, ?)", renamed, satin, organza);
+
+        orderServiceObj.cancelOrderByUser(orderId, buyer);
+
+        // the subtraction lands on the old category; the new one never sees this order
+        assertThat(categoryRollup(category)).containsExactly(0L, new BigDecimal("0.00"));
+        assertThat(categoryRollup(renamed)).isEmpty();
+
+        List<RollupDrift> drift = salesRollupRepositryObj.findDrift(today, today);
+        assertThat(drift).noneMatch(d -> category.equals(d.getKey()) || renamed.equals(d.getKey()));
+    }
+
+    @Test
+    void outOfBandChangesAreReportedAndRepairConvergesOnARecount() {
+        int orderId = order(satin, 2, organza, 1);
+        jdbcTemplate.update("UPDATE order_items SET quantity = 5 WHERE order_id = ? AND product_id = ?", orderId, satin);
+
+        // an order written straight to the tables on an earlier day never reached the rollups at all
+        LocalDate earlier = today.minusDays(2);
+        int missed = data.order(data.user(), OrderStatus.PENDING, earlier.atTime(10, 0));
+        data.items(List.of(missed), List.of(organza), null);
+
+        ReconcileReport check = salesRollupServiceObj.reconcile(earlier, today, false);
+
+        assertThat(check.isRepaired()).isFalse();
+        List<RollupDrift> own = ownDrift(check.getDrift());
+        assertThat(own).anySatisfy(d -> {
+            assertThat(d.getScope()).isEqualTo(RollupDrift.PRODUCT);
+            assertThat(d.getDay()).isEqualTo(today);
+            assertThat(d.getKey()).isEqualTo(String.valueOf(satin));
+            assertThat(d.getExpectedUnits()).isEqualTo(5);
+            assertThat(d.getActualUnits()).isEqualTo(2);
+        });
+        assertThat(own).anySatisfy(d -> {
+            assertThat(d.getScope()).isEqualTo(RollupDrift.PRODUCT);
+            assertThat(d.getDay()).isEqualTo(earlier);
+            assertThat(d.getExpectedUnits()).isEqualTo(2);
+            assertThat(d.getActualUnits()).isZero();
+        });
+        assertThat(check.getDrift()).anyMatch(d -> d.getScope().equals(RollupDrift.DAY) && d.getDay().equals(today));
+        assertThat(productRollup(satin)).containsExactly(2L, new BigDecimal("7.00"));
+
+        ReconcileReport repaired = salesRollupServiceObj.reconcile(earlier, today, true);
+
+        assertThat(repaired.isRepaired()).isTrue();
+        assertThat(salesRollupRepositryObj.findDrift(earlier, today)).isEmpty();
+        assertThat(productRollup(satin)).containsExactly(5L, new BigDecimal("17.50"));
+        assertThat(categoryRollup(category)).containsExactly(6L, new BigDecimal("27.50"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT units FROM sales_product_rollups WHERE day = ? AND product_id = ?", Long.class, earlier, organza))
+                .isEqualTo(2L);
+
+        // incremental writes carry on from the repaired totals
+        orderServiceObj.cancelOrderByUser(orderId, buyer);
+        assertThat(productRollup(satin)).containsExactly(0L, new BigDecimal("0.00"));
+        assertThat(salesRollupServiceObj.reconcile(earlier, today, false).getDriftCount()).isZero();
+    }
+
+    @Test
+    void aRepairHoldsOnlyTheDayItRewrites() throws Exception {
+        LocalDate earlier = today.minusDays(5);
+        int old = data.order(jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Integer.class,
+                buyer.getUsername()), OrderStatus.PENDING, earlier.atTime(9, 0));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> repair = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(s -> {
+            salesRollupRepositryObj.lockDay(earlier);
+            locked.countDown();
+            await(release);
+        }));
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            // today's orders go through while an earlier day is being rewritten
+            CompletableFuture<Integer> placed = CompletableFuture.supplyAsync(() -> order(satin, 1, organza, 1));
+            assertThat(placed.get(10, TimeUnit.SECONDS)).isPositive();
+
+            // a correction to the locked day waits for the repair to commit
+            CompletableFuture<String> cancel = CompletableFuture.supplyAsync(() -> orderServiceObj.cancelOrderByUser(old, buyer));
+            Thread.sleep(300);
+            assertThat(cancel).isNotDone();
+
+            release.countDown();
+            assertThat(cancel.get(10, TimeUnit.SECONDS)).isNotBlank();
+        } finally {
+            release.countDown();
+            repair.get(10, TimeUnit.SECONDS);
+        }
+        // the seeded order never reached the rollups, so its cancellation left the day off by it
+        salesRollupServiceObj.reconcile(earlier, earlier, true);
+    }
+
+    private int order(int firstProduct, int firstQuantity, int secondProduct, int secondQuantity) {
+        List<CreateOrderItemRequest> items = new ArrayList<>();
+        items.add(item(firstProduct, firstQuantity));
+        items.add(item(secondProduct, secondQuantity));
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setOrderItems(items);
+        return orderServiceObj.createOrder(request, buyer).getId();
+    }
+
+    private static CreateOrderItemRequest item(int productId, int quantity) {
+        CreateOrderItemRequest item = new CreateOrderItemRequest();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    // {units, revenue} of today's row, empty when there is none
+    private List<Object> productRollup(int productId) {
+        return jdbcTemplate.query("SELECT units, revenue FROM sales_product_rollups WHERE day = ? AND product_id = ?",
+                (rs, n) -> List.<Object>of(rs.getLong(1), rs.getBigDecimal(2)), today, productId)
+                .stream().findFirst().orElse(List.of());
+    }
+
+    private List<Object> categoryRollup(String name) {
+        return jdbcTemplate.query("SELECT units, revenue FROM sales_category_rollups WHERE day = ? AND category = ?",
+                (rs, n) -> List.<Object>of(rs.getLong(1), rs.getBigDecimal(2)), today, name)
+                .stream().findFirst().orElse(List.of());
+    }
+
+    // {order_count, units, revenue in cents} of today
+    private long[] dayTotals() {
+        return jdbcTemplate.query("SELECT order_count, units, revenue FROM sales_daily_rollups WHERE day = ?",
+                (rs, n) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3).movePointRight(2).longValueExact() },
+                today).stream().findFirst().orElse(new long[3]);
+    }
+
+    private static List<Long> minus(long[] a, long[] b) {
+        return List.of(a[0] - b[0], a[1] - b[1], a[2] - b[2]);
+    }
+
+    private List<RollupDrift> ownDrift(List<RollupDrift> drift) {
+        List<String> keys = List.of(category, String.valueOf(satin), String.valueOf(organza));
+        return drift.stream().filter(d -> d.getKey() != null && keys.contains(d.getKey())).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,10 +1,10 @@
 package com.ribbony.ribbony;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class RibbonyApplicationTests {
+import com.ribbony.ribbony.support.PostgresIntegrationTest;
+
+class RibbonyApplicationTests extends PostgresIntegrationTest {
 
 	@Test
 	void contextLoads() {
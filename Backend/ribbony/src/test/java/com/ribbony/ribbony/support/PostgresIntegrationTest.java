@@ -0,0 +1,37 @@
+package com.ribbony.ribbony.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Base for tests that need the real schema: the repositories rely on PostgreSQL-only SQL (jsonb, FOR UPDATE,
+ * partitions, unnest), so an embedded server is started once per JVM and every subclass shares the same
+ * Spring context and database. Tests must therefore not assume an empty table; they create their own rows
+ * and assert on those.
+ */
+@SpringBootTest
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = start();
+
+    private static EmbeddedPostgres start() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not start embedded PostgreSQL", ex);
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+}
@@ -0,0 +1,78 @@
+package com.ribbony.ribbony.support;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ribbony.ribbony.Modules.OrderModule.Models.OrderStatus;
+
+/**
+ * Seeds rows with plain SQL so that setup never shows up in the statement counts or persistence context of
+ * the code under test. Every user, product and category name is unique per call, so tests sharing the
+ * embedded database do not see each other's rows through their own filters.
+ */
+public final class TestData {
+
+    private final JdbcTemplate jdbc;
+
+    public TestData(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public static String unique(String prefix) {
+        return prefix + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public int user() {
+        return jdbc.queryForObject(
+                "INSERT INTO users (first_name, email, password, role, created_at, updated_at) "
+                        + "VALUES ('Test', ?, 'x', 'USER', now(), now()) RETURNING id",
+                Integer.class, unique("user") + "@ribbony.test");
+    }
+
+    public String emailOf(int userId) {
+        return jdbc.queryForObject("SELECT email FROM users WHERE id = ?", String.class, userId);
+    }
+
+    public int product(String name, BigDecimal price, String category) {
+        return jdbc.queryForObject(
+                "INSERT INTO product (product_name, product_price, category, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, now(), now()) RETURNING id",
+                Integer.class, name, price, category);
+    }
+
+    public int order(int userId, OrderStatus status, LocalDateTime createdAt) {
+        return orders(userId, 1, status, createdAt).get(0);
+    }
+
+    /** count orders one second apart starting at firstCreatedAt, in one statement. */
+    public List<Integer> orders(int userId, int count, OrderStatus status, LocalDateTime firstCreatedAt) {
+        return jdbc.queryForList(
+                "INSERT INTO orders (user_id, status, total_price, version, created_at, updated_at) "
+                        + "SELECT ?, ?, 10.00, 0, ts, ts "
+                        + "FROM (SELECT ?::timestamp + make_interval(secs => g) AS ts FROM generate_series(0, ? - 1) g) t "
+                        + "ORDER BY ts RETURNING id",
+                Integer.class, userId, status.name(), Timestamp.valueOf(firstCreatedAt), count);
+    }
+
+    /** one line per product on every given order. */
+    public void items(List<Integer> orderIds, List<Integer> productIds, String payload) {
+        jdbc.update(
+                "INSERT INTO order_items (order_id, product_id, price_at_time, quantity, payload, created_at, updated_at) "
+                        + "SELECT o, p, 5.00, 2, ?::jsonb, now(), now() "
+                        + "FROM unnest(?::int[]) o CROSS JOIN unnest(?::int[]) p",
+                payload, orderIds.toArray(new Integer[0]), productIds.toArray(new Integer[0]));
+    }
+
+    public OrderStatus statusOf(int orderId) {
+        return OrderStatus.valueOf(jdbc.queryForObject("SELECT status FROM orders WHERE id = ?", String.class, orderId));
+    }
+
+    public long versionOf(int orderId) {
+        return jdbc.queryForObject("SELECT version FROM orders WHERE id = ?", Long.class, orderId);
+    }
+}
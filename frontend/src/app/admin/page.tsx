@@ -52,6 +52,10 @@ export default function AdminDashboard() {
   // Data State
   const [products, setProducts] = useState<Product[]>([]);
   const [orders, setOrders] = useState<Order[]>([]);
+  // keyset paging of /orders/getAllOrders: null once the last page is loaded
+  const [ordersCursor, setOrdersCursor] = useState<string | null>(null);
+  const [ordersTotal, setOrdersTotal] = useState<{ count: number; estimated: boolean } | null>(null);
+  const [ordersLoading, setOrdersLoading] = useState(false);
   const [users, setUsers] = useState<User[]>([]); // "Found" users list
   
   // Product Form State
@@ -76,11 +80,23 @@ export default function AdminDashboard() {
     } catch (e) { console.error(e); }
   }, [api]);
 
-  const loadOrders = useCallback(async () => {
+  const ORDERS_PAGE_SIZE = 50;
+
+  // cursor == null loads the first page and replaces the list; otherwise the page is appended
+  const loadOrders = useCallback(async (cursor: string | null = null) => {
+    setOrdersLoading(true);
     try {
-      const data = await api.get("/orders/getAllOrders");
-      setOrders(data || []);
+      const query = `limit=${ORDERS_PAGE_SIZE}` + (cursor ? `&cursor=${encodeURIComponent(cursor)}` : "");
+      const data = await api.get(`/orders/getAllOrders?${query}`);
+      const page: Order[] = data?.orders || [];
+      setOrders(prev => (cursor ? [...prev, ...page] : page));
+      setOrdersCursor(data?.nextCursor ?? null);
+      // the total only comes with the first page
+      if (!cursor) {
+        setOrdersTotal(data?.totalCount != null ? { count: data.totalCount, estimated: !!data.totalEstimated } : null);
+      }
     } catch (e) { console.error(e); }
+    finally { setOrdersLoading(false); }
   }, [api]);
 
   useEffect(() => {
@@ -110,10 +126,13 @@ export default function AdminDashboard() {
   };
 
   // --- Order Handlers ---
+  // patches the row in place, so the pages loaded so far stay on screen
   const handleStatusUpdate = async (id: number, status: string) => {
-    await api.put(`/orders/updateStatus/${id}`, { status });
-    loadOrders();
-    toast.success("Order status updated");
+    try {
+      const updated = await api.put(`/orders/updateStatus/${id}`, { status });
+      setOrders(prev => prev.map(o => (o.id === id ? { ...o, status: updated?.status ?? status } : o)));
+      toast.success("Order status updated");
+    } catch (e: any) { toast.error(e.message || "Error updating order status"); }
   };
 
   // --- User Handlers ---
@@ -294,6 +313,10 @@ export default function AdminDashboard() {
           <div className="space-y-6">
              <div className="bg-white/60 p-4 rounded-xl backdrop-blur-sm">
                 <h2 className="text-2xl font-bold font-serif text-[#2b2220]">Orders Management</h2>
+                <p className="text-sm text-gray-500">
+                  Showing {orders.length}
+                  {ordersTotal && ` of ${ordersTotal.estimated ? "about " : ""}${ordersTotal.count}`} orders
+                </p>
              </div>
              
              <div className="bg-white rounded-xl shadow-sm border border-black/5 overflow-hidden">
@@ -336,6 +359,18 @@ export default function AdminDashboard() {
                   </tbody>
                 </table>
              </div>
+
+             {ordersCursor && (
+               <div className="flex justify-center">
+                 <button
+                   onClick={() => loadOrders(ordersCursor)}
+                   disabled={ordersLoading}
+                   className="px-6 py-2 rounded-lg bg-white shadow-sm border border-black/5 font-bold text-[#e3166d] hover:bg-white/80 disabled:opacity-50"
+                 >
+                   {ordersLoading ? "Loading..." : "Load more"}
+                 </button>
+               </div>
+             )}
           </div>
         )}
         